@@ -0,0 +1,94 @@
+package org.usfirst.frc.team2984.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Rect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraSpecification;
+import org.usfirst.frc.team2984.robot.util.Dimension;
+import org.usfirst.frc.team2984.robot.util.MathUtil;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.VisionTarget;
+
+/**
+ * Times the VisionTarget math that runs on every frame and every command loop.
+ * The inputs are fields so they are not folded into constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+	private CameraSpecification camera;
+	private Dimension targetSize;
+	private SingleTarget left;
+	private SingleTarget right;
+	private Rect leftRect;
+	private Rect rightRect;
+	private VisionTarget target;
+	private double circleAngle;
+	private double circleYaw;
+
+	@Setup
+	public void setUp(){
+		this.camera = RobotMap.CAMERA_SPECIFICATION;
+		this.targetSize = RobotMap.TARGET_DIMENSION;
+		this.left = new SingleTarget();
+		this.left.set(110, 105, 20, 50);
+		this.right = new SingleTarget();
+		this.right.set(190, 105, 18, 48);
+		this.leftRect = new Rect(100, 80, 20, 50);
+		this.rightRect = new Rect(181, 81, 18, 48);
+		this.target = new VisionTarget(this.left, this.right, this.camera);
+		this.circleAngle = Math.toRadians(RobotMap.CAMERA_ANGLE);
+		this.circleYaw = Math.toRadians(12);
+	}
+
+	@Benchmark
+	public VisionTarget constructFromOffset(){
+		return new VisionTarget(30, 90, 49);
+	}
+
+	@Benchmark
+	public VisionTarget constructFromSingleTargets(){
+		return new VisionTarget(this.left, this.right, this.camera);
+	}
+
+	@Benchmark
+	public VisionTarget constructFromRects(){
+		return new VisionTarget(this.leftRect, this.rightRect, this.camera);
+	}
+
+	@Benchmark
+	public double getDistance(){
+		return this.target.getDistance(this.camera, this.targetSize);
+	}
+
+	@Benchmark
+	public double getRotation(){
+		return this.target.getRotation(this.camera);
+	}
+
+	@Benchmark
+	public double getClockAngle(){
+		return this.target.getClockAngle(this.camera, this.targetSize);
+	}
+
+	@Benchmark
+	public double yawFromRotatedCircle(){
+		return MathUtil.yawFromRotatedCircle(this.circleAngle, this.circleYaw);
+	}
+}
@@ -0,0 +1,95 @@
+package org.usfirst.frc.team2984.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.CameraSpecification;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Dimension;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.TiledThreshold;
+
+/**
+ * Times thresholding and blurring a rendered frame on one thread against splitting it into tiles
+ * with a TiledThreshold, at the camera's resolution and at 640x480.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThresholdBenchmark {
+
+	@Param({"320", "640"})
+	public int width;
+
+	@Param({"1", "2", "4"})
+	public int tiles;
+
+	@Param({"LOOKUP_TABLE", "IN_RANGE"})
+	public String threshold;
+
+	private Mat source;
+	private Mat image;
+	private Mat blurred;
+	private Size blurSize;
+	private ColorThreshold colorThreshold;
+	private ForkJoinPool pool;
+	private TiledThreshold tiled;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Dimension resolution = new Dimension(this.width, this.width * 3 / 4);
+		CameraSpecification camera = new CameraSpecification(RobotMap.CAMERA_FOV, resolution, RobotMap.CAMERA_ANGLE);
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(camera, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		renderer.setNoise(8);
+		renderer.setDistractors(6);
+		this.source = new Mat();
+		renderer.render(new CameraPose(60, 10, 5), this.source);
+		this.image = this.source.clone();
+		this.blurred = new Mat();
+		this.blurSize = new Size(3, 3);
+		this.colorThreshold = new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.valueOf(this.threshold));
+		if(this.tiles > 1){
+			this.pool = new ForkJoinPool(this.tiles);
+			this.tiled = new TiledThreshold(this.colorThreshold, this.pool, this.tiles);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		if(this.pool != null){
+			this.pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public Mat thresholdAndBlur(){
+		if(this.tiled != null){
+			return this.tiled.apply(this.image);
+		}
+		Imgproc.blur(this.colorThreshold.apply(this.image), this.blurred, this.blurSize);
+		return this.blurred;
+	}
+}
@@ -0,0 +1,97 @@
+package org.usfirst.frc.team2984.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+import org.usfirst.frc.team2984.robot.util.VisionResult;
+
+/**
+ * Times a whole frame through the VisionPipeline, which is what VisionCamera runs for every frame,
+ * for each detector and threshold mode against frames with no tape, the pair, the pair with one
+ * strip split by the peg, the pair among lots of other blobs, and a noisy frame from the SyntheticTargetRenderer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisionBenchmark {
+
+	private static final Scalar GREEN = new Scalar(0, 255, 0);
+
+	@Param({"none", "pair", "split", "many", "rendered"})
+	public String blobs;
+
+	@Param({"Contours In Window", "Contours", "Components In Window", "Components"})
+	public String detector;
+
+	@Param({"LOOKUP_TABLE", "IN_RANGE"})
+	public String threshold;
+
+	private Mat source;
+	private Frame frame;
+	private VisionPipeline pipeline;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		int width = (int) RobotMap.CAMERA_RESOLUTION.width;
+		int height = (int) RobotMap.CAMERA_RESOLUTION.height;
+		this.source = new Mat(height, width, CvType.CV_8UC3, new Scalar(30, 30, 30));
+		if(!this.blobs.equals("none")){
+			Imgproc.rectangle(this.source, new Point(100, 80), new Point(120, 130), GREEN, -1);
+			Imgproc.rectangle(this.source, new Point(180, 80), new Point(200, 130), GREEN, -1);
+		}
+		if(this.blobs.equals("split")){
+			Imgproc.rectangle(this.source, new Point(100, 100), new Point(120, 104), new Scalar(30, 30, 30), -1);
+		}
+		if(this.blobs.equals("many")){
+			for(int x = 10; x < width - 20; x += 40){
+				for(int y = 150; y < height - 20; y += 30){
+					Imgproc.rectangle(this.source, new Point(x, y), new Point(x + 12, y + 12), GREEN, -1);
+				}
+			}
+		}
+		if(this.blobs.equals("rendered")){
+			SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+			renderer.setNoise(4);
+			renderer.setBlur(3);
+			renderer.setDistractors(6);
+			renderer.render(new CameraPose(60, 15, 5), this.source);
+		}
+		this.frame = new Frame(new Mat());
+		this.source.copyTo(this.frame.getImage());
+		ColorThreshold colorThreshold = new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.valueOf(this.threshold));
+		this.pipeline = new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, colorThreshold);
+		this.pipeline.setDetector(this.pipeline.getDetector(this.detector));
+	}
+
+	@Benchmark
+	public VisionResult process(){
+		return this.pipeline.process(this.frame);
+	}
+}
@@ -1,12 +1,16 @@
 
 package org.usfirst.frc.team2984.robot;
 
+import org.usfirst.frc.team2984.robot.commands.CalibrateVision;
 import org.usfirst.frc.team2984.robot.commands.DropOffGear;
+import org.usfirst.frc.team2984.robot.commands.FitCalibration;
+import org.usfirst.frc.team2984.robot.commands.RecordCalibrationSample;
 import org.usfirst.frc.team2984.robot.subsystems.DriveTrain;
 import org.usfirst.frc.team2984.robot.subsystems.GearGrabber;
 import org.usfirst.frc.team2984.robot.subsystems.Gyroscope;
 import org.usfirst.frc.team2984.robot.subsystems.WallFinder;
 import org.usfirst.frc.team2984.robot.subsystems.Winch;
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
 import org.usfirst.frc.team2984.robot.util.VisionTracker;
 
 import edu.wpi.first.wpilibj.DigitalOutput;
@@ -40,6 +44,9 @@ public class Robot extends IterativeRobot {
 	public void robotInit() {
 		VisionTracker.init();
 		oi = new OI();
+		SmartDashboard.putData("Calibrate Vision", new CalibrateVision());
+		SmartDashboard.putData("Record Calibration Sample", new RecordCalibrationSample());
+		SmartDashboard.putData("Fit Calibration", new FitCalibration());
 		DigitalOutput output = new DigitalOutput(2);
 		output.set(true);
 	}
@@ -51,11 +58,12 @@ public class Robot extends IterativeRobot {
 	 */
 	@Override
 	public void disabledInit() {
+		VisionTracker.getInstance().dumpLatency();
 	}
 
 	@Override
 	public void disabledPeriodic() {
-		Scheduler.getInstance().run();
+		runScheduler();
 	}
 
 	/**
@@ -79,7 +87,7 @@ public class Robot extends IterativeRobot {
 	 */
 	@Override
 	public void autonomousPeriodic() {
-		Scheduler.getInstance().run();
+		runScheduler();
 	}
 
 	@Override
@@ -95,10 +103,23 @@ public class Robot extends IterativeRobot {
 	 */
 	@Override
 	public void teleopPeriodic() {
-		Scheduler.getInstance().run();
+		runScheduler();
 		SmartDashboard.putString("Gyro", Gyroscope.getInstance().getAngle() + "");
 	}
 
+	/**
+	 * Runs the scheduler, and tells vision to back off when it takes longer than the loop period.
+	 * Also sends the counts of any errors that have been held back.
+	 */
+	private void runScheduler() {
+		long start = System.nanoTime();
+		Scheduler.getInstance().run();
+		if(System.nanoTime() - start > RobotMap.SCHEDULER_BUDGET * 1000000000L){
+			VisionTracker.getInstance().reportOverrun();
+		}
+		ErrorReporter.getInstance().flush();
+	}
+
 	/**
 	 * This function is called periodically during test mode
 	 */
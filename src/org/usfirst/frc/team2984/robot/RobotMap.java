@@ -1,6 +1,8 @@
 package org.usfirst.frc.team2984.robot;
 
+import org.opencv.core.Scalar;
 import org.usfirst.frc.team2984.robot.util.CameraSpecification;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
 import org.usfirst.frc.team2984.robot.util.Dimension;
 
 /**
@@ -23,6 +25,17 @@ public class RobotMap {
 	public static final CameraSpecification CAMERA_SPECIFICATION = new CameraSpecification(CAMERA_FOV, CAMERA_RESOLUTION, CAMERA_ANGLE);
 	public static final double CAMERA_OFFSET = 2.5;
 	public static final Dimension TARGET_DIMENSION = new Dimension(10.25, 5);
+	public static final double TARGET_STRIP_WIDTH = 2; // in inches, each of the two strips in TARGET_DIMENSION
+	public static final String GEAR_CAMERA_NAME = "Gear";
+	public static final int GEAR_CAMERA_DEVICE = 0;
+	public static final int GEAR_CAMERA_PRIORITY = 2;
+	public static final boolean CLIMB_CAMERA_PRESENT = false;
+	public static final String CLIMB_CAMERA_NAME = "Climb";
+	public static final int CLIMB_CAMERA_DEVICE = 1;
+	public static final int CLIMB_CAMERA_PRIORITY = 1;
+	public static final CameraSpecification CLIMB_CAMERA_SPECIFICATION = new CameraSpecification(CAMERA_FOV, CAMERA_RESOLUTION, 0);
+	public static final int VISION_WORKERS = Math.max(Runtime.getRuntime().availableProcessors() - 1, 1); // leaves a core for the control loop
+	public static final int VISION_TILES = 1; // horizontal tiles to threshold and blur each frame in at once, 1 for none, worth it from 640x480
 
 	public static int leftDistanceSensorPort = 3; // TODO: set value
 	public static int rightDistanceSensorPort = 1; // TODO: set value
@@ -56,6 +69,44 @@ public class RobotMap {
 	public static final double SENSOR_START_DISTANCE_LEFT = 0D;
 	
 	public static final int VALUE_LOW = 41; //TODO: set to 41
+	public static final Scalar VISION_HSV_MIN = new Scalar(18, 70, VALUE_LOW);
+	public static final Scalar VISION_HSV_MAX = new Scalar(103, 255, 255);
+	public static final int VISION_CALIBRATION_FRAMES = 30; // frames with a track that the colour range is worked out from
+	public static final int VISION_CALIBRATION_MARGIN = 3; // added on both sides of each calibrated channel
+	public static final String VISION_CALIBRATION_DIRECTORY = "/home/lvuser/calibration"; // lens intrinsics, distance and rotation samples and the fitted model, by camera
+	public static final int VISION_CALIBRATION_KNOTS = 8; // knots in each fitted function
+	public static final double VISION_SEARCH_MARGIN = 0.5; // fraction of the pair's size added on each side
+	public static final int VISION_SEARCH_MAX_MISSES = 5; // frames before searching the whole frame again
+	public static final double VISION_MIN_CONFIDENCE = 0.3; // pairs of blobs that look less like the target than this are ignored
+	public static final boolean VISION_REFINE_CORNERS = true; // finds the chosen pair's corners to a fraction of a pixel
+	public static final int VISION_CORNER_WINDOW = 3; // pixels on each side of a corner looked at when refining it
+	public static final int VISION_CORNER_ITERATIONS = 10;
+	public static final double VISION_CORNER_EPSILON = 0.05; // in pixels, refining stops once a corner moves less than this
+	public static final long VISION_MAX_AGE = 250; // in milliseconds, older results are not tracked
+	public static final ColorThreshold.Mode VISION_THRESHOLD_MODE = ColorThreshold.Mode.LOOKUP_TABLE;
+	public static final double VISION_FULL_RATE = 30; // frames per second while a command is aiming with vision
+	public static final double VISION_BACKGROUND_RATE = 5; // frames per second otherwise
+	public static final double VISION_MAX_LOAD = 0.75; // fraction of a core vision may use
+	public static final double VISION_MIN_LOAD = 0.1; // fraction of a core vision is cut back to when the scheduler overruns
+	public static final double VISION_LOAD_RECOVERY_TIME = 2; // in seconds, from the min load back to the max
+	public static final double SCHEDULER_BUDGET = 0.02; // in seconds, a longer Scheduler.run is an overrun
+	public static final boolean VISION_DEBUG_STREAM = true; // it is always off while the field is attached
+	public static final double VISION_DEBUG_RATE = 5; // annotated frames per second sent to the dashboard
+	public static final double VISION_DEBUG_SCALE = 0.5; // of the camera's resolution
+	public static final boolean VISION_RECORD = false; // records frames while enabled to look at after a match
+	public static final String VISION_RECORD_DIRECTORY = "/home/lvuser/frames"; // each camera gets a directory in it
+	public static final int VISION_RECORD_SLOTS = 900; // frames kept, the oldest are overwritten, a whole match at the rate below
+	public static final int VISION_RECORD_SLOT_BYTES = 48 * 1024; // frames that encode to more are skipped
+	public static final int VISION_RECORD_QUALITY = 75; // JPEG quality from 0 to 100
+	public static final double VISION_RECORD_RATE = 6; // frames per second recorded
+	public static final double VISION_LATENCY_PUBLISH_PERIOD = 1; // in seconds, between putting each stage's latency percentiles on the dashboard
+	public static final double ERROR_REPORT_INTERVAL = 1; // in seconds, between reports of the same error
+	public static final double ERROR_REPORT_MAX_RATE = 5; // reports per second across all errors
+	public static final double PEG_TRACK_DISTANCE_NOISE = 3; // in inches, how far off a single detection's distance can be
+	public static final double PEG_TRACK_ANGLE_NOISE = 1.5; // in degrees, how far off a single detection's angles can be
+	public static final double PEG_TRACK_DISTANCE_ACCELERATION = 60; // in inches per second squared, changes the odometry misses
+	public static final double PEG_TRACK_ANGLE_ACCELERATION = 90; // in degrees per second squared, changes the odometry misses
+	public static final double PEG_TRACK_MAX_COAST = 0.5; // in seconds, how long to keep driving on the track without a detection
 	
 	public static final double SPEED_F = 0.12;
 	public static final double SPEED_P = 0.12;
@@ -79,6 +130,8 @@ public class RobotMap {
 	public static final double GEAR_GRABBER_P = 0.003;
 	
 	public static final double ROBOT_START_ANGLE = 0;
+	public static final double GYRO_SAMPLE_PERIOD = 0.005; // in seconds
+	public static final int GYRO_HISTORY_SIZE = 200; // one second of samples
 	public static final double ROBOT_ANGLE_PROPORIONAL_SCALAR = 0.03;
 	public static final long OVER_CURRENT_WAIT_TIME = 1000;
 	public static final long OVER_CURRENT_CUTOUT_TIME = 1000;
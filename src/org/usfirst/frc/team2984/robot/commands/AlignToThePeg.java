@@ -4,6 +4,9 @@ import org.usfirst.frc.team2984.robot.RobotMap;
 import org.usfirst.frc.team2984.robot.subsystems.DriveTrain;
 import org.usfirst.frc.team2984.robot.subsystems.Gyroscope;
 import org.usfirst.frc.team2984.robot.util.Motion;
+import org.usfirst.frc.team2984.robot.util.PegTrack;
+import org.usfirst.frc.team2984.robot.util.TargetCalibration;
+import org.usfirst.frc.team2984.robot.util.VisionResult;
 import org.usfirst.frc.team2984.robot.util.VisionTarget;
 import org.usfirst.frc.team2984.robot.util.VisionTracker;
 
@@ -21,6 +24,8 @@ public class AlignToThePeg extends Command {
 	private boolean done;
 	private boolean reset;
 	private long startMovement;
+	private PegTrack track;
+	private long lastSequence;
 	
     public AlignToThePeg() {
         // Use requires() here to declare subsystem dependencies
@@ -30,6 +35,8 @@ public class AlignToThePeg extends Command {
     	gyro = Gyroscope.getInstance();
     	this.done = false;
     	this.reset = true;
+    	this.track = createTrack();
+    	this.lastSequence = -1;
     	
     	requires(driveTrain);
     }
@@ -39,6 +46,13 @@ public class AlignToThePeg extends Command {
     	this.driveTrain = driveTrain;
     	this.gyro = gyro;
     	this.done = false;
+    	this.track = createTrack();
+    	this.lastSequence = -1;
+    }
+    
+    private static PegTrack createTrack(){
+    	return new PegTrack(RobotMap.PEG_TRACK_DISTANCE_NOISE, RobotMap.PEG_TRACK_ANGLE_NOISE,
+    			RobotMap.PEG_TRACK_DISTANCE_ACCELERATION, RobotMap.PEG_TRACK_ANGLE_ACCELERATION, RobotMap.PEG_TRACK_MAX_COAST);
     }
 
     // Called just before this Command runs the first time
@@ -48,6 +62,9 @@ public class AlignToThePeg extends Command {
     		SmartDashboard.putString("Wrong", "Wrong");
         	this.tracker = VisionTracker.getInstance();
     	}
+    	this.tracker.setDemand(true);
+    	this.track.reset();
+    	this.lastSequence = -1;
     }
 
     // Called repeatedly when this Command is scheduled to run
@@ -57,15 +74,23 @@ public class AlignToThePeg extends Command {
     		this.reset = false;
     	}
     	this.done = true;
-    	VisionTarget target = this.tracker.getTarget();
+    	long now = System.nanoTime();
+    	this.track.predict(now, this.gyro.getAngle(), this.driveTrain.getDisplacementX(), this.driveTrain.getDisplacementY());
+    	VisionResult result = this.tracker.getResult();
     	
-    	if(target == null){
+    	if(result == null || result.getTarget() == null){
     		driveTrain.move(new Motion(0, 0, 0));
     		return;
     	}
     	
-    	if(this.tracker.hasTrack()){
-    		track(target);
+    	if(result.hasTrack() && result.age() < RobotMap.VISION_MAX_AGE && result.getSequence() != this.lastSequence){
+    		this.lastSequence = result.getSequence();
+    		correct(result);
+    	}
+    	
+    	// a few frames without the peg coast on the track instead of stopping
+    	if(this.track.isValid(now)){
+    		track(this.track.getDistance(), this.track.getRotation(), this.track.getClockAngle());
     	} else {
     		driveTrain.move(new Motion(0, 0, 0));
 			this.done = false;
@@ -85,18 +110,44 @@ public class AlignToThePeg extends Command {
     protected void end() {
     	this.reset = true;
     	this.done = false;
+    	this.tracker.setDemand(false);
     }
 
     // Called when another command which requires one or more of the same
     // subsystems is scheduled to run
     protected void interrupted() {
+    	this.tracker.setDemand(false);
     }
     
-    private double getYaw(VisionTarget target, double angleOffset) {
-    	double robotAngle = this.gyro.getAngle();
-    	double clockAngle = target.getClockAngle(RobotMap.CAMERA_SPECIFICATION, robotAngle, RobotMap.pegAngle);
-    	
-    	return clockAngle - angleOffset;
+    /**
+     * Corrects the track from a new detection. The clock angle uses the heading from when the frame
+     * was captured, not the current one, since the robot keeps turning while the frame is processed.
+     * The camera's calibration is used if it has one, otherwise the field of view.
+     */
+    private void correct(VisionResult result) {
+    	VisionTarget target = result.getTarget();
+    	double robotAngle = this.gyro.getAngleAt(result.getTimestamp());
+    	TargetCalibration calibration = this.tracker.getCalibration();
+    	double distance;
+    	double rotation;
+    	double clockAngle;
+    	if(calibration != null){
+    		distance = target.getDistance(calibration);
+    		rotation = target.getRotation(calibration);
+    		clockAngle = target.getClockAngle(calibration, robotAngle, RobotMap.pegAngle);
+    	} else {
+    		distance = target.getDistance(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION);
+    		rotation = target.getRotation(RobotMap.CAMERA_SPECIFICATION);
+    		clockAngle = target.getClockAngle(RobotMap.CAMERA_SPECIFICATION, robotAngle, RobotMap.pegAngle);
+    	}
+    	this.track.correct(result.getTimestamp(), distance, rotation, clockAngle);
+    }
+    
+    /**
+     * @return the filtered track of the peg, which is empty until the first detection
+     */
+    public PegTrack getTrack() {
+    	return this.track;
     }
     
     private double getHeading(double yaw, double distance) {
@@ -133,12 +184,10 @@ public class AlignToThePeg extends Command {
 		return rotation;
     }
     
-    private void track(VisionTarget target) {
-		double distance = target.getDistance(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION);
+    private void track(double distance, double targetRotation, double clockAngle) {
 		double angleOffset = Math.toDegrees(Math.asin(RobotMap.CAMERA_OFFSET/distance));
-		double targetRotation = target.getRotation(RobotMap.CAMERA_SPECIFICATION);
 		double rotation = this.getRotation(targetRotation + angleOffset, distance);
-		double yaw = this.getYaw(target, angleOffset);
+		double yaw = clockAngle - angleOffset;
 		double heading = this.getHeading(yaw, distance);
 		double speed = this.getSpeed(yaw, distance);
 		if (Math.abs(yaw) > RobotMap.DOCKING_YAW_THRESHOLD){
@@ -0,0 +1,50 @@
+package org.usfirst.frc.team2984.robot.commands;
+
+import org.usfirst.frc.team2984.robot.util.VisionTracker;
+
+import edu.wpi.first.wpilibj.command.Command;
+
+/**
+ * Works out the colour range of the tape from the next frames where the peg is found, the robot
+ * should be facing the peg until it finishes. It runs while disabled so it can be done in the pits.
+ * Tracking is put back how it was when it finishes.
+ */
+public class CalibrateVision extends Command {
+
+	private VisionTracker tracker;
+	private boolean wasTracking;
+
+	public CalibrateVision() {
+		super("Calibrate Vision");
+		this.setRunWhenDisabled(true);
+	}
+
+	public CalibrateVision(VisionTracker tracker) {
+		this();
+		this.tracker = tracker;
+	}
+
+	protected void initialize() {
+		if(this.tracker == null){
+			this.tracker = VisionTracker.getInstance();
+		}
+		this.wasTracking = this.tracker.isTracking();
+		this.tracker.shouldTrack(true);
+		this.tracker.setDemand(true);
+		this.tracker.startCalibration();
+	}
+
+	protected boolean isFinished() {
+		return !this.tracker.isCalibrating();
+	}
+
+	protected void end() {
+		this.tracker.setDemand(false);
+		this.tracker.shouldTrack(this.wasTracking);
+	}
+
+	protected void interrupted() {
+		this.tracker.cancelCalibration();
+		this.end();
+	}
+}
@@ -0,0 +1,31 @@
+package org.usfirst.frc.team2984.robot.commands;
+
+import java.io.IOException;
+
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
+import org.usfirst.frc.team2984.robot.util.TargetCalibration;
+import org.usfirst.frc.team2984.robot.util.VisionTracker;
+
+import edu.wpi.first.wpilibj.command.InstantCommand;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Fits the gear camera's distance and rotation calibration to the samples taken with
+ * RecordCalibrationSample, stores it and starts using it.
+ */
+public class FitCalibration extends InstantCommand {
+
+	public FitCalibration() {
+		super("Fit Calibration");
+		this.setRunWhenDisabled(true);
+	}
+
+	protected void initialize() {
+		try{
+			TargetCalibration calibration = VisionTracker.getInstance().fitCalibration();
+			SmartDashboard.putString("Calibration", calibration.toString());
+		} catch(IOException | IllegalArgumentException e){
+			ErrorReporter.getInstance().report("Calibration", e);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.usfirst.frc.team2984.robot.commands;
+
+import java.io.IOException;
+
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
+import org.usfirst.frc.team2984.robot.util.VisionTracker;
+
+import edu.wpi.first.wpilibj.command.InstantCommand;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Records what the gear camera sees along with the true distance and rotation typed into the
+ * dashboard, for FitCalibration. It runs while disabled, so the robot can be pushed between spots.
+ */
+public class RecordCalibrationSample extends InstantCommand {
+
+	private int samples;
+
+	public RecordCalibrationSample() {
+		super("Record Calibration Sample");
+		this.setRunWhenDisabled(true);
+		SmartDashboard.putNumber("Calibration Distance", SmartDashboard.getNumber("Calibration Distance", 0));
+		SmartDashboard.putNumber("Calibration Rotation", SmartDashboard.getNumber("Calibration Rotation", 0));
+	}
+
+	protected void initialize() {
+		double distance = SmartDashboard.getNumber("Calibration Distance", 0);
+		double rotation = SmartDashboard.getNumber("Calibration Rotation", 0);
+		try{
+			if(VisionTracker.getInstance().recordCalibrationSample(distance, rotation)){
+				this.samples++;
+				SmartDashboard.putNumber("Calibration Samples", this.samples);
+			} else {
+				ErrorReporter.getInstance().report("Calibration", "No peg to record");
+			}
+		} catch(IOException e){
+			ErrorReporter.getInstance().report("Calibration", e);
+		}
+	}
+}
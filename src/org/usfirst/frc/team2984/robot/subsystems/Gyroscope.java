@@ -1,8 +1,11 @@
 package org.usfirst.frc.team2984.robot.subsystems;
 
 import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
+import org.usfirst.frc.team2984.robot.util.HeadingHistory;
 
 import edu.wpi.first.wpilibj.ADXRS450_Gyro;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import edu.wpi.first.wpilibj.interfaces.Gyro;
 
@@ -11,24 +14,75 @@ public class Gyroscope extends Subsystem {
 	private static Gyroscope instance;
 	
 	private Gyro gyro;
-	private double deltaAngle;
+	private volatile double deltaAngle;
+	private HeadingHistory history;
+	private Notifier sampler;
 	
 	public static Gyroscope getInstance() {
 		if (instance == null) {
 			
 			instance = new Gyroscope(new ADXRS450_Gyro());
+			instance.startSampling(RobotMap.GYRO_SAMPLE_PERIOD);
 		}
 		return instance;
 	}
 	
 	public Gyroscope(Gyro gyro){
 		this.gyro = gyro;
+		this.history = new HeadingHistory(RobotMap.GYRO_HISTORY_SIZE);
 		this.calibrate(RobotMap.ROBOT_START_ANGLE);
 	}
 	
+	/**
+	 * Calibrates the gyro and sets its current angle. The history is cleared under its own lock, together
+	 * with the new offset, so the sampler can not record an angle from the old offset after the clear.
+	 * @param angle the angle the robot is at now
+	 */
 	public void calibrate(double angle){
 		this.gyro.calibrate();
-		this.deltaAngle = angle - this.gyro.getAngle();
+		synchronized(this.history){
+			this.deltaAngle = angle - this.gyro.getAngle();
+			this.history.clear();
+		}
+	}
+	
+	/**
+	 * Starts recording the angle into the heading history in the background.
+	 * @param period the time between samples in seconds
+	 */
+	public void startSampling(double period){
+		if(this.sampler == null){
+			this.sampler = new Notifier(this::sample);
+		}
+		this.sampler.startPeriodic(period);
+	}
+	
+	/**
+	 * Records the current angle into the heading history.
+	 */
+	public void sample(){
+		try{
+			synchronized(this.history){
+				this.history.record(System.nanoTime(), this.getAngle());
+			}
+		} catch(Exception e){
+			// this runs 200 times a second, so a failing gyro must not flood the driver station
+			ErrorReporter.getInstance().report("Gyroscope", e);
+		}
+	}
+	
+	/**
+	 * Returns the angle the robot was at, at the given time, so that measurements taken in the past
+	 * can be matched with the heading they were taken at.
+	 * @param timestamp the System.nanoTime() to look up
+	 * @return the angle at that time, or the current angle if nothing has been recorded
+	 */
+	public double getAngleAt(long timestamp){
+		double angle = this.history.getAngleAt(timestamp);
+		if(Double.isNaN(angle)){
+			return this.getAngle();
+		}
+		return angle;
 	}
 	
 	public double getRate(){
@@ -0,0 +1,162 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * The measurements of a single contour found in a thresholded image. Blobs are
+ * reused from frame to frame, so they should be copied rather than kept.
+ */
+public class Blob {
+
+	private double area;
+	private double centerX;
+	private double centerY;
+	private double minX;
+	private double minY;
+	private double maxX;
+	private double maxY;
+	private double width;
+	private double height;
+	private double angle;
+	private double[] corners;
+
+	public Blob(){
+		this.corners = new double[8];
+	}
+
+	void setShape(double area, double centerX, double centerY){
+		this.area = area;
+		this.centerX = centerX;
+		this.centerY = centerY;
+	}
+
+	void setBounds(double minX, double minY, double maxX, double maxY){
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	void setRotatedSize(double width, double height, double angle){
+		this.width = width;
+		this.height = height;
+		this.angle = angle;
+	}
+
+	void setCorner(int index, double x, double y){
+		this.corners[index * 2] = x;
+		this.corners[index * 2 + 1] = y;
+	}
+
+	/**
+	 * Moves the blob by the given amount, used when the blob was found in a sub image.
+	 * @param dx the distance to move right in pixels
+	 * @param dy the distance to move down in pixels
+	 */
+	public void translate(double dx, double dy){
+		this.centerX += dx;
+		this.centerY += dy;
+		this.minX += dx;
+		this.minY += dy;
+		this.maxX += dx;
+		this.maxY += dy;
+		for(int i = 0; i < 4; i++){
+			this.corners[i * 2] += dx;
+			this.corners[i * 2 + 1] += dy;
+		}
+	}
+
+	/**
+	 * Copies all of the measurements of the other blob into this one.
+	 * @param other the blob to copy
+	 */
+	public void copy(Blob other){
+		this.area = other.area;
+		this.centerX = other.centerX;
+		this.centerY = other.centerY;
+		this.minX = other.minX;
+		this.minY = other.minY;
+		this.maxX = other.maxX;
+		this.maxY = other.maxY;
+		this.width = other.width;
+		this.height = other.height;
+		this.angle = other.angle;
+		System.arraycopy(other.corners, 0, this.corners, 0, 8);
+	}
+
+	/**
+	 * @return the area enclosed by the contour in pixels
+	 */
+	public double getArea() {
+		return area;
+	}
+
+	public double getCenterX() {
+		return centerX;
+	}
+
+	public double getCenterY() {
+		return centerY;
+	}
+
+	public double getMinX() {
+		return minX;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * @return one past the right most pixel, like the bottom right of an opencv Rect
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * @return one past the bottom most pixel, like the bottom right of an opencv Rect
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * @return the mostly horizontal side of the minimum area rectangle
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the mostly vertical side of the minimum area rectangle
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the angle of the minimum area rectangle's width in degrees [-45, 45]
+	 */
+	public double getAngle() {
+		return angle;
+	}
+
+	/**
+	 * @param index the corner, 0 is the top left, going clockwise
+	 * @return the x of the corner of the minimum area rectangle
+	 */
+	public double getCornerX(int index) {
+		return corners[index * 2];
+	}
+
+	/**
+	 * @param index the corner, 0 is the top left, going clockwise
+	 * @return the y of the corner of the minimum area rectangle
+	 */
+	public double getCornerY(int index) {
+		return corners[index * 2 + 1];
+	}
+
+	public String toString(){
+		return "Blob { Area: " + this.area + ", Center: (" + this.centerX + ", " + this.centerY + "), Width: " + this.width + ", Height: " + this.height + "}";
+	}
+}
@@ -0,0 +1,126 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Thresholds and blurs the image, leaves finding the blobs to the subclass and then pairs them up
+ * with a TargetPairer.
+ */
+public abstract class BlobDetector implements TargetDetector {
+
+	public static final int MAX_BLOBS = 32;
+	protected static final double MIN_AREA = 40;
+
+	private ColorThreshold threshold;
+	private TargetPairer pairer;
+	private Size blurSize;
+	private Mat blurred;
+	private TiledThreshold tiled;
+	private CornerRefiner refiner;
+	private VisionLatency latency;
+	private Blob[] candidates;
+	private int count;
+
+	/**
+	 * @param threshold the colour range of the tape
+	 * @param pairer picks the pair out of the blobs, with a capacity of at least MAX_BLOBS
+	 */
+	public BlobDetector(ColorThreshold threshold, TargetPairer pairer){
+		this.threshold = threshold;
+		this.pairer = pairer;
+		this.blurSize = new Size(3, 3);
+		this.blurred = new Mat();
+		this.candidates = new Blob[MAX_BLOBS];
+		for(int i = 0; i < MAX_BLOBS; i++){
+			this.candidates[i] = new Blob();
+		}
+	}
+
+	/**
+	 * Splits the threshold and blur into tiles run on the pool, for higher resolutions.
+	 * @param pool the pool to run the tiles on, or null to do the whole image on the calling thread
+	 * @param tiles how many horizontal tiles to split the image into
+	 */
+	public void setTiling(ForkJoinPool pool, int tiles){
+		this.tiled = pool == null || tiles < 2 ? null : new TiledThreshold(this.threshold, pool, tiles);
+	}
+
+	/**
+	 * @param refiner refines the corners of the chosen pair, or null to keep their boxes
+	 */
+	public void setCornerRefiner(CornerRefiner refiner){
+		this.refiner = refiner;
+	}
+
+	/**
+	 * @param latency where to time each stage, or null not to, the threshold times its own stages
+	 */
+	public void setLatency(VisionLatency latency){
+		this.latency = latency;
+	}
+
+	@Override
+	public double detect(Mat image, Point offset, SingleTarget[] targets){
+		VisionLatency latency = this.latency;
+		Mat blurred;
+		if(this.tiled != null){
+			long start = latency == null ? 0 : System.nanoTime();
+			blurred = this.tiled.apply(image);
+			if(latency != null){
+				latency.record(VisionLatency.Stage.THRESHOLD, start);
+			}
+		} else {
+			Mat mask = this.threshold.apply(image);
+			long start = latency == null ? 0 : System.nanoTime();
+			Imgproc.blur(mask, this.blurred, this.blurSize);
+			if(latency != null){
+				latency.record(VisionLatency.Stage.BLUR, start);
+			}
+			blurred = this.blurred;
+		}
+		long start = latency == null ? 0 : System.nanoTime();
+		this.count = this.findBlobs(blurred, offset, this.candidates);
+		if(latency != null){
+			start = latency.record(VisionLatency.Stage.BLOBS, start);
+		}
+		double confidence = this.pairer.pair(this.candidates, this.count, targets);
+		if(latency != null){
+			start = latency.record(VisionLatency.Stage.PAIR, start);
+		}
+		if(confidence > 0 && this.refiner != null){
+			this.refiner.refine(blurred, offset, targets);
+			if(latency != null){
+				latency.record(VisionLatency.Stage.REFINE, start);
+			}
+		}
+		return confidence;
+	}
+
+	@Override
+	public int getBlobs(Blob[] blobs){
+		int count = Math.min(this.count, blobs.length);
+		for(int i = 0; i < count; i++){
+			blobs[i].copy(this.candidates[i]);
+		}
+		return count;
+	}
+
+	@Override
+	public void reset(){
+		this.count = 0;
+	}
+
+	/**
+	 * Finds the blobs in the mask with an area of at least MIN_AREA.
+	 * @param mask the blurred binary image
+	 * @param offset where the top left of the mask is in the whole frame
+	 * @param blobs where to put the blobs, in frame pixels
+	 * @return the number of blobs found, at most the length of blobs
+	 */
+	protected abstract int findBlobs(Mat mask, Point offset, Blob[] blobs);
+}
@@ -0,0 +1,168 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+
+/**
+ * The pinhole model of a camera: its focal lengths and principal point in pixels and its lens
+ * distortion coefficients, in the form OpenCV's calib3d functions take. The matrices are made
+ * once, the first time they are asked for, and shared by everything that uses this camera.
+ */
+public class CameraIntrinsics {
+
+	private double focalX;
+	private double focalY;
+	private double centerX;
+	private double centerY;
+	private double[] distortion;
+
+	private Mat cameraMatrix;
+	private MatOfDouble distortionCoefficients;
+
+	/**
+	 * @param focalX the horizontal focal length in pixels
+	 * @param focalY the vertical focal length in pixels
+	 * @param centerX the x of the principal point in pixels
+	 * @param centerY the y of the principal point in pixels
+	 * @param distortion k1, k2, p1, p2 and k3, and optionally k4 to k6, or null for an ideal lens
+	 */
+	public CameraIntrinsics(double focalX, double focalY, double centerX, double centerY, double[] distortion){
+		this.focalX = focalX;
+		this.focalY = focalY;
+		this.centerX = centerX;
+		this.centerY = centerY;
+		this.distortion = distortion == null ? new double[5] : distortion.clone();
+	}
+
+	/**
+	 * Works out the intrinsics of an ideal lens from the camera's field of view, with the
+	 * principal point in the middle of the image. This is what the rest of the vision code assumes.
+	 * @param spec the camera
+	 * @return the intrinsics
+	 */
+	public static CameraIntrinsics fromSpecification(CameraSpecification spec){
+		double centerX = spec.resolution.width / 2;
+		double centerY = spec.resolution.height / 2;
+		double focalX = centerX / Math.tan(Math.toRadians(spec.angularFieldOfView.width / 2));
+		double focalY = centerY / Math.tan(Math.toRadians(spec.angularFieldOfView.height / 2));
+		return new CameraIntrinsics(focalX, focalY, centerX, centerY, null);
+	}
+
+	public double getFocalX(){
+		return this.focalX;
+	}
+
+	public double getFocalY(){
+		return this.focalY;
+	}
+
+	public double getCenterX(){
+		return this.centerX;
+	}
+
+	public double getCenterY(){
+		return this.centerY;
+	}
+
+	/**
+	 * @return a copy of k1, k2, p1, p2 and k3, and any higher order coefficients
+	 */
+	public double[] getDistortion(){
+		return this.distortion.clone();
+	}
+
+	/**
+	 * @return whether or not any of the distortion coefficients are set
+	 */
+	public boolean hasDistortion(){
+		for(double coefficient : this.distortion){
+			if(coefficient != 0){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the same camera with an ideal lens, for points that have already been undistorted
+	 */
+	public CameraIntrinsics withoutDistortion(){
+		return new CameraIntrinsics(this.focalX, this.focalY, this.centerX, this.centerY, null);
+	}
+
+	/**
+	 * Writes the intrinsics as one line, the focal lengths, the principal point and then the distortion coefficients.
+	 * @param file where to write them
+	 * @throws IOException if they couldn't be written
+	 */
+	public void save(File file) throws IOException{
+		try(PrintWriter out = new PrintWriter(file, "US-ASCII")){
+			StringBuilder line = new StringBuilder();
+			line.append(this.focalX).append(',').append(this.focalY).append(',').append(this.centerX).append(',').append(this.centerY);
+			for(double coefficient : this.distortion){
+				line.append(',').append(coefficient);
+			}
+			out.println(line);
+		}
+	}
+
+	/**
+	 * @param file intrinsics written by save, for example by LensCalibration
+	 * @return the intrinsics
+	 * @throws IOException if they couldn't be read
+	 */
+	public static CameraIntrinsics load(File file) throws IOException{
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+		String[] fields = lines.isEmpty() ? new String[0] : lines.get(0).split(",");
+		if(fields.length < 4){
+			throw new IOException("Expected the focal lengths and principal point in " + file);
+		}
+		try{
+			double[] distortion = new double[Math.max(fields.length - 4, 5)];
+			for(int i = 4; i < fields.length; i++){
+				distortion[i - 4] = Double.parseDouble(fields[i].trim());
+			}
+			return new CameraIntrinsics(Double.parseDouble(fields[0].trim()), Double.parseDouble(fields[1].trim()),
+					Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()), distortion);
+		} catch(NumberFormatException e){
+			throw new IOException("Bad intrinsics in " + file, e);
+		}
+	}
+
+	/**
+	 * @return the 3x3 camera matrix, which must not be changed
+	 */
+	public synchronized Mat getCameraMatrix(){
+		if(this.cameraMatrix == null){
+			this.cameraMatrix = new Mat(3, 3, CvType.CV_64FC1);
+			this.cameraMatrix.put(0, 0,
+					this.focalX, 0, this.centerX,
+					0, this.focalY, this.centerY,
+					0, 0, 1);
+		}
+		return this.cameraMatrix;
+	}
+
+	/**
+	 * @return the distortion coefficients, which must not be changed
+	 */
+	public synchronized MatOfDouble getDistortionCoefficients(){
+		if(this.distortionCoefficients == null){
+			this.distortionCoefficients = new MatOfDouble(this.distortion);
+		}
+		return this.distortionCoefficients;
+	}
+
+	public String toString(){
+		return "Camera Intrinsics { Focal: (" + this.focalX + ", " + this.focalY + "), Center: (" + this.centerX + ", " + this.centerY + "), Distortion: " + Arrays.toString(this.distortion) + "}";
+	}
+}
@@ -0,0 +1,51 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * Where the camera is and which way it points, relative to the peg's vision target.
+ */
+public class CameraPose {
+	private double distance;
+	private double clockAngle;
+	private double yaw;
+	private double height;
+
+	/**
+	 * A camera at the same height as the middle of the target.
+	 */
+	public CameraPose(double distance, double clockAngle, double yaw) {
+		this(distance, clockAngle, yaw, 0);
+	}
+
+	/**
+	 * @param distance the distance along the floor from the middle of the target to the camera, in inches
+	 * @param clockAngle the angle around the peg from straight out of the wall, in degrees, + is to the right when facing the peg
+	 * @param yaw how far the camera is turned from looking straight at the target, in degrees, + is clockwise
+	 * @param height the height of the camera above the middle of the target, in inches
+	 */
+	public CameraPose(double distance, double clockAngle, double yaw, double height) {
+		this.distance = distance;
+		this.clockAngle = clockAngle;
+		this.yaw = yaw;
+		this.height = height;
+	}
+
+	public double getDistance() {
+		return this.distance;
+	}
+
+	public double getClockAngle() {
+		return this.clockAngle;
+	}
+
+	public double getYaw() {
+		return this.yaw;
+	}
+
+	public double getHeight() {
+		return this.height;
+	}
+
+	public String toString(){
+		return "Camera Pose { Distance: " + this.distance + ", Clock Angle: " + this.clockAngle + ", Yaw: " + this.yaw + ", Height: " + this.height + "}";
+	}
+}
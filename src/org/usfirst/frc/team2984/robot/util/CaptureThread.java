@@ -0,0 +1,83 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.cscore.CvSink;
+
+/**
+ * Grabs frames from the camera as fast as they come and publishes them to the exchanger,
+ * so waiting on the camera never adds to the time spent processing. When nothing needs
+ * vision it only grabs as often as the frames can be processed.
+ */
+public class CaptureThread extends Thread {
+
+	private CvSink sink;
+	private FrameExchanger exchanger;
+	private VisionGovernor governor;
+	private Runnable listener;
+	private VisionLatency latency;
+	private String source;
+	private volatile boolean capturing;
+
+	/**
+	 * @param name the camera's name
+	 * @param sink the camera's sink
+	 * @param exchanger where to publish frames
+	 * @param governor when nothing needs vision, frames are only grabbed as often as the governor lets them be processed
+	 * @param listener run after each frame is published, or null
+	 * @param latency where to time grabbing each frame, or null
+	 */
+	public CaptureThread(String name, CvSink sink, FrameExchanger exchanger, VisionGovernor governor, Runnable listener, VisionLatency latency){
+		super(name + " Vision Capture");
+		this.sink = sink;
+		this.exchanger = exchanger;
+		this.governor = governor;
+		this.listener = listener;
+		this.latency = latency;
+		this.source = name + " Vision Capture";
+		this.capturing = true;
+		this.setDaemon(true);
+	}
+
+	@Override
+	public void run(){
+		while(true){
+			try{
+				if(this.capturing){
+					if(!this.governor.hasDemand()){
+						// decoding frames that will be dropped still costs CPU
+						this.governor.awaitNextFrame();
+					}
+					Frame frame = this.exchanger.getBack();
+					long start = System.nanoTime();
+					if(this.sink.grabFrame(frame.getImage()) == 0){
+						ErrorReporter.getInstance().report(this.source, this.sink.getError());
+						continue;
+					}
+					long now = System.nanoTime();
+					if(this.latency != null){
+						this.latency.record(VisionLatency.Stage.GRAB, start, now);
+					}
+					this.exchanger.publish(now);
+					if(this.listener != null){
+						this.listener.run();
+					}
+				} else {
+					// parked until setCapturing(true) wakes it
+					LockSupport.park(this);
+				}
+			} catch(Exception e){
+				ErrorReporter.getInstance().report(this.source, e);
+			}
+		}
+	}
+
+	/**
+	 * Sets whether or not frames should be grabbed, the thread is parked while they aren't.
+	 * @param capturing whether or not to capture
+	 */
+	public void setCapturing(boolean capturing){
+		this.capturing = capturing;
+		LockSupport.unpark(this);
+	}
+}
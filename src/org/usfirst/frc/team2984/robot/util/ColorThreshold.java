@@ -0,0 +1,145 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import static org.opencv.core.Core.inRange;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Turns a BGR image into a binary mask of the pixels inside an HSV range, either with opencv's
+ * cvtColor and inRange or with a single pass through an HsvLookupTable.
+ * The range can be changed from any thread, the table is rebuilt on the next frame.
+ */
+public class ColorThreshold {
+
+	public static enum Mode {
+		IN_RANGE,
+		LOOKUP_TABLE
+	}
+
+	private volatile Scalar min;
+	private volatile Scalar max;
+	private volatile Mode mode;
+	private volatile boolean changed;
+
+	private HsvLookupTable table;
+	private Scratch scratch;
+	private Mat mask;
+	private VisionLatency latency;
+
+	public ColorThreshold(Scalar min, Scalar max, Mode mode){
+		this.min = min;
+		this.max = max;
+		this.mode = mode;
+		this.changed = true;
+		this.table = new HsvLookupTable();
+		this.scratch = new Scratch();
+		this.mask = new Mat();
+	}
+
+	/**
+	 * Sets the range of colours to keep.
+	 * @param min the lowest hue, saturation and value
+	 * @param max the highest hue, saturation and value
+	 */
+	public synchronized void setBounds(Scalar min, Scalar max){
+		this.min = min;
+		this.max = max;
+		this.changed = true;
+	}
+
+	public void setMode(Mode mode){
+		this.mode = mode;
+	}
+
+	public Mode getMode(){
+		return this.mode;
+	}
+
+	public Scalar getMin(){
+		return this.min;
+	}
+
+	public Scalar getMax(){
+		return this.max;
+	}
+
+	/**
+	 * Thresholds the image, which is left as it was.
+	 * @param image the BGR image
+	 * @return the mask, 255 for pixels in range and 0 for the rest, reused on the next call
+	 */
+	public Mat apply(Mat image){
+		VisionLatency latency = this.latency;
+		long start = latency == null ? 0 : System.nanoTime();
+		this.mask.create(image.rows(), image.cols(), CvType.CV_8UC1);
+		if(this.mode == Mode.LOOKUP_TABLE){
+			this.prepare();
+			this.apply(image, this.mask, this.scratch);
+		} else {
+			Imgproc.cvtColor(image, this.scratch.hsv, Imgproc.COLOR_BGR2HSV);
+			if(latency != null){
+				start = latency.record(VisionLatency.Stage.CONVERT, start);
+			}
+			inRange(this.scratch.hsv, this.min, this.max, this.mask);
+		}
+		if(latency != null){
+			latency.record(VisionLatency.Stage.THRESHOLD, start);
+		}
+		return this.mask;
+	}
+
+	/**
+	 * @param latency where to time converting and thresholding whole images, or null not to
+	 */
+	public void setLatency(VisionLatency latency){
+		this.latency = latency;
+	}
+
+	/**
+	 * Rebuilds the lookup table if the range changed. Has to be called on one thread before
+	 * tiles are thresholded on several.
+	 */
+	public void prepare(){
+		if(this.changed){
+			synchronized(this){
+				this.changed = false;
+				this.table.build(this.min.val, this.max.val);
+			}
+		}
+	}
+
+	/**
+	 * Thresholds part of an image into part of a mask. Tiles can be thresholded on different threads
+	 * at once, each with its own scratch, as long as prepare was called first. The image tile is left as it was.
+	 * @param image the BGR tile
+	 * @param mask the mask tile to write, already the size of the image tile
+	 * @param scratch buffers only used by the calling thread
+	 */
+	public void apply(Mat image, Mat mask, Scratch scratch){
+		if(this.mode == Mode.IN_RANGE){
+			Imgproc.cvtColor(image, scratch.hsv, Imgproc.COLOR_BGR2HSV);
+			inRange(scratch.hsv, this.min, this.max, mask);
+			return;
+		}
+		int count = image.rows() * image.cols();
+		if(scratch.pixels.length < count * 3){
+			scratch.pixels = new byte[count * 3];
+			scratch.maskPixels = new byte[count];
+		}
+		image.get(0, 0, scratch.pixels);
+		this.table.apply(scratch.pixels, scratch.maskPixels, count);
+		mask.put(0, 0, scratch.maskPixels);
+	}
+
+	/**
+	 * The buffers a thread needs to threshold, so the image it is given is never written to.
+	 */
+	public static class Scratch {
+		private byte[] pixels = new byte[0];
+		private byte[] maskPixels = new byte[0];
+		private Mat hsv = new Mat();
+	}
+}
@@ -0,0 +1,66 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Finds blobs by labelling the connected pixels of the mask, which gives the area, bounding box and
+ * centroid of every blob in one pass without tracing any contours. The blobs are not rotated, so
+ * their width and height are those of the bounding box.
+ */
+public class ConnectedComponentsDetector extends BlobDetector {
+
+	private Mat labels;
+	private Mat stats;
+	private Mat centroids;
+	private int[] statValues;
+	private double[] centroidValues;
+
+	public ConnectedComponentsDetector(ColorThreshold threshold, TargetPairer pairer){
+		super(threshold, pairer);
+		this.labels = new Mat();
+		this.stats = new Mat();
+		this.centroids = new Mat();
+		this.statValues = new int[0];
+		this.centroidValues = new double[0];
+	}
+
+	@Override
+	protected int findBlobs(Mat mask, Point offset, Blob[] blobs){
+		int labelCount = Imgproc.connectedComponentsWithStats(mask, this.labels, this.stats, this.centroids, 8, CvType.CV_32S);
+		if(this.statValues.length < labelCount * Imgproc.CC_STAT_MAX){
+			this.statValues = new int[labelCount * Imgproc.CC_STAT_MAX];
+			this.centroidValues = new double[labelCount * 2];
+		}
+		this.stats.get(0, 0, this.statValues);
+		this.centroids.get(0, 0, this.centroidValues);
+		int count = 0;
+		// label 0 is the background
+		for(int label = 1; label < labelCount && count < blobs.length; label++){
+			int stat = label * Imgproc.CC_STAT_MAX;
+			int area = this.statValues[stat + Imgproc.CC_STAT_AREA];
+			if(area < MIN_AREA){
+				continue;
+			}
+			int left = this.statValues[stat + Imgproc.CC_STAT_LEFT];
+			int top = this.statValues[stat + Imgproc.CC_STAT_TOP];
+			int width = this.statValues[stat + Imgproc.CC_STAT_WIDTH];
+			int height = this.statValues[stat + Imgproc.CC_STAT_HEIGHT];
+			Blob blob = blobs[count++];
+			blob.setShape(area, this.centroidValues[label * 2], this.centroidValues[label * 2 + 1]);
+			blob.setBounds(left, top, left + width, top + height);
+			// sized between the outer pixel centres, the same as a contour through those pixels
+			int right = left + width - 1;
+			int bottom = top + height - 1;
+			blob.setRotatedSize(right - left, bottom - top, 0);
+			blob.setCorner(0, left, top);
+			blob.setCorner(1, right, top);
+			blob.setCorner(2, right, bottom);
+			blob.setCorner(3, left, bottom);
+			blob.translate(offset.x, offset.y);
+		}
+		return count;
+	}
+}
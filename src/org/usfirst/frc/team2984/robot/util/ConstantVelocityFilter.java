@@ -0,0 +1,116 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * A Kalman filter for one value that is assumed to change at a steady rate, with random changes
+ * in that rate between steps. Known changes, like ones from the robot's own motion, are added
+ * on top when predicting so the rate only has to account for what nothing else explains.
+ */
+public class ConstantVelocityFilter {
+
+	private double accelerationVariance;
+	private double measurementVariance;
+	private double initialRateVariance;
+
+	private boolean initialized;
+	private double value;
+	private double rate;
+	// covariance of {value, rate}, it is symmetric so only three entries are kept
+	private double valueVariance;
+	private double covariance;
+	private double rateVariance;
+
+	/**
+	 * @param accelerationNoise the standard deviation of unexplained changes in the rate, per second squared
+	 * @param measurementNoise the standard deviation of a single measurement
+	 * @param initialRateNoise the standard deviation of the rate before it has been measured
+	 */
+	public ConstantVelocityFilter(double accelerationNoise, double measurementNoise, double initialRateNoise){
+		this.accelerationVariance = accelerationNoise * accelerationNoise;
+		this.measurementVariance = measurementNoise * measurementNoise;
+		this.initialRateVariance = initialRateNoise * initialRateNoise;
+		this.reset();
+	}
+
+	/**
+	 * Forgets everything, the next measurement is taken as it is.
+	 */
+	public void reset(){
+		this.initialized = false;
+		this.value = 0;
+		this.rate = 0;
+		this.valueVariance = 0;
+		this.covariance = 0;
+		this.rateVariance = 0;
+	}
+
+	/**
+	 * Moves the estimate forward in time.
+	 * @param dt the time since the last prediction in seconds
+	 * @param shift a known change in the value over that time
+	 */
+	public void predict(double dt, double shift){
+		if(!this.initialized || dt <= 0){
+			return;
+		}
+		this.value += this.rate * dt + shift;
+		double dt2 = dt * dt;
+		this.valueVariance += 2 * dt * this.covariance + dt2 * this.rateVariance + this.accelerationVariance * dt2 * dt2 / 4;
+		this.covariance += dt * this.rateVariance + this.accelerationVariance * dt2 * dt / 2;
+		this.rateVariance += this.accelerationVariance * dt2;
+	}
+
+	/**
+	 * Corrects the estimate from a measurement of the value.
+	 * @param measurement the measured value
+	 */
+	public void correct(double measurement){
+		if(!this.initialized){
+			this.value = measurement;
+			this.rate = 0;
+			this.valueVariance = this.measurementVariance;
+			this.covariance = 0;
+			this.rateVariance = this.initialRateVariance;
+			this.initialized = true;
+			return;
+		}
+		double residual = measurement - this.value;
+		double innovation = this.valueVariance + this.measurementVariance;
+		double valueGain = this.valueVariance / innovation;
+		double rateGain = this.covariance / innovation;
+		this.value += valueGain * residual;
+		this.rate += rateGain * residual;
+		this.rateVariance -= rateGain * this.covariance;
+		this.valueVariance *= 1 - valueGain;
+		this.covariance *= 1 - valueGain;
+	}
+
+	public boolean isInitialized(){
+		return this.initialized;
+	}
+
+	public double getValue(){
+		return this.value;
+	}
+
+	/**
+	 * @return the rate of change of the value per second
+	 */
+	public double getRate(){
+		return this.rate;
+	}
+
+	public double getValueVariance(){
+		return this.valueVariance;
+	}
+
+	public double getRateVariance(){
+		return this.rateVariance;
+	}
+
+	/**
+	 * @return the covariance between the value and its rate
+	 */
+	public double getCovariance(){
+		return this.covariance;
+	}
+}
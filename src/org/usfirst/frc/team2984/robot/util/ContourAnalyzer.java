@@ -0,0 +1,268 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.MatOfPoint;
+
+/**
+ * Measures contours without creating any objects once its buffers have grown to the
+ * largest contour seen. It replaces Imgproc.contourArea, Imgproc.moments,
+ * Imgproc.boundingRect and Imgproc.minAreaRect, each of which returns a new object per call.
+ */
+public class ContourAnalyzer {
+
+	private int[] points;
+	private int[] sorted;
+	private int[] hull;
+
+	/**
+	 * @param capacity the number of contour points to size the buffers for, they grow if needed
+	 */
+	public ContourAnalyzer(int capacity){
+		this.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Copies the contour out of native memory and measures it.
+	 * @param contour the contour from Imgproc.findContours
+	 * @param out the blob to fill in
+	 * @return the area of the contour in pixels
+	 */
+	public double analyze(MatOfPoint contour, Blob out){
+		int count = (int) contour.total();
+		this.ensureCapacity(count);
+		contour.get(0, 0, this.points);
+		return this.analyze(this.points, count, out);
+	}
+
+	/**
+	 * Measures the polygon made by the points.
+	 * @param xy the points as x, y pairs, in the order they appear around the polygon, in pixels so never negative
+	 * @param count the number of points
+	 * @param out the blob to fill in
+	 * @return the area of the polygon in pixels
+	 */
+	public double analyze(int[] xy, int count, Blob out){
+		this.ensureCapacity(count);
+		this.measureShape(xy, count, out);
+		this.measureBounds(xy, count, out);
+		int hullSize = this.convexHull(xy, count);
+		this.measureRotatedRect(hullSize, out);
+		return out.getArea();
+	}
+
+	/**
+	 * Polygon moments using Green's theorem, the same way opencv finds them for contours.
+	 */
+	private void measureShape(int[] xy, int count, Blob out){
+		double m00 = 0;
+		double m10 = 0;
+		double m01 = 0;
+		double sumX = 0;
+		double sumY = 0;
+		for(int i = 0; i < count; i++){
+			int next = (i + 1) % count;
+			double x0 = xy[i * 2];
+			double y0 = xy[i * 2 + 1];
+			double x1 = xy[next * 2];
+			double y1 = xy[next * 2 + 1];
+			double cross = x0 * y1 - x1 * y0;
+			m00 += cross;
+			m10 += (x0 + x1) * cross;
+			m01 += (y0 + y1) * cross;
+			sumX += x0;
+			sumY += y0;
+		}
+		m00 /= 2;
+		m10 /= 6;
+		m01 /= 6;
+		if(m00 == 0){
+			out.setShape(0, count == 0 ? 0 : sumX / count, count == 0 ? 0 : sumY / count);
+		} else {
+			out.setShape(Math.abs(m00), m10 / m00, m01 / m00);
+		}
+	}
+
+	private void measureBounds(int[] xy, int count, Blob out){
+		if(count == 0){
+			out.setBounds(0, 0, 0, 0);
+			return;
+		}
+		int minX = xy[0];
+		int minY = xy[1];
+		int maxX = xy[0];
+		int maxY = xy[1];
+		for(int i = 1; i < count; i++){
+			minX = Math.min(minX, xy[i * 2]);
+			minY = Math.min(minY, xy[i * 2 + 1]);
+			maxX = Math.max(maxX, xy[i * 2]);
+			maxY = Math.max(maxY, xy[i * 2 + 1]);
+		}
+		out.setBounds(minX, minY, maxX + 1, maxY + 1);
+	}
+
+	/**
+	 * Andrew's monotone chain over points packed as x << 16 | y, leaving the hull
+	 * counterclockwise in the hull buffer.
+	 * @return the number of points on the hull
+	 */
+	private int convexHull(int[] xy, int count){
+		for(int i = 0; i < count; i++){
+			this.sorted[i] = (xy[i * 2] << 16) | (xy[i * 2 + 1] & 0xFFFF);
+		}
+		heapSort(this.sorted, count);
+		if(count < 2){
+			this.hull[0] = this.sorted[0];
+			return count;
+		}
+		int size = 0;
+		for(int i = 0; i < count; i++){
+			while(size >= 2 && cross(this.hull[size - 2], this.hull[size - 1], this.sorted[i]) <= 0){
+				size--;
+			}
+			this.hull[size++] = this.sorted[i];
+		}
+		int lower = size + 1;
+		for(int i = count - 2; i >= 0; i--){
+			while(size >= lower && cross(this.hull[size - 2], this.hull[size - 1], this.sorted[i]) <= 0){
+				size--;
+			}
+			this.hull[size++] = this.sorted[i];
+		}
+		return size - 1;
+	}
+
+	/**
+	 * Rotating calipers: the minimum area rectangle has a side on one of the hull's edges.
+	 * Tape contours have very few hull points so every edge is checked against every point.
+	 */
+	private void measureRotatedRect(int hullSize, Blob out){
+		if(hullSize == 0){
+			out.setRotatedSize(0, 0, 0);
+			for(int i = 0; i < 4; i++){
+				out.setCorner(i, 0, 0);
+			}
+			return;
+		}
+		double bestUx = 1;
+		double bestUy = 0;
+		double bestArea = Double.MAX_VALUE;
+		for(int i = 0; i < hullSize; i++){
+			int a = this.hull[i];
+			int b = this.hull[(i + 1) % hullSize];
+			double dx = x(b) - x(a);
+			double dy = y(b) - y(a);
+			double length = Math.sqrt(dx * dx + dy * dy);
+			if(length == 0){
+				continue;
+			}
+			double ux = dx / length;
+			double uy = dy / length;
+			double area = this.extentAlong(hullSize, ux, uy) * this.extentAlong(hullSize, -uy, ux);
+			if(area < bestArea){
+				bestArea = area;
+				bestUx = ux;
+				bestUy = uy;
+			}
+		}
+
+		// turn the side so that it points right and is within 45 degrees of horizontal
+		double ux = bestUx;
+		double uy = bestUy;
+		if(Math.abs(uy) > Math.abs(ux)){
+			double tmp = ux;
+			ux = -uy;
+			uy = tmp;
+		}
+		if(ux < 0){
+			ux = -ux;
+			uy = -uy;
+		}
+		double nx = -uy;
+		double ny = ux;
+
+		double minU = Double.MAX_VALUE;
+		double maxU = -Double.MAX_VALUE;
+		double minN = Double.MAX_VALUE;
+		double maxN = -Double.MAX_VALUE;
+		for(int i = 0; i < hullSize; i++){
+			double u = x(this.hull[i]) * ux + y(this.hull[i]) * uy;
+			double n = x(this.hull[i]) * nx + y(this.hull[i]) * ny;
+			minU = Math.min(minU, u);
+			maxU = Math.max(maxU, u);
+			minN = Math.min(minN, n);
+			maxN = Math.max(maxN, n);
+		}
+		out.setRotatedSize(maxU - minU, maxN - minN, Math.toDegrees(Math.atan2(uy, ux)));
+		out.setCorner(0, minU * ux + minN * nx, minU * uy + minN * ny);
+		out.setCorner(1, maxU * ux + minN * nx, maxU * uy + minN * ny);
+		out.setCorner(2, maxU * ux + maxN * nx, maxU * uy + maxN * ny);
+		out.setCorner(3, minU * ux + maxN * nx, minU * uy + maxN * ny);
+	}
+
+	private double extentAlong(int hullSize, double ux, double uy){
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		for(int i = 0; i < hullSize; i++){
+			double projection = x(this.hull[i]) * ux + y(this.hull[i]) * uy;
+			min = Math.min(min, projection);
+			max = Math.max(max, projection);
+		}
+		return max - min;
+	}
+
+	private void ensureCapacity(int count){
+		if(this.points != null && this.points.length >= count * 2){
+			return;
+		}
+		int capacity = Math.max(count, 16);
+		this.points = new int[capacity * 2];
+		this.sorted = new int[capacity];
+		this.hull = new int[capacity * 2 + 1];
+	}
+
+	private static int x(int packed){
+		return packed >>> 16;
+	}
+
+	private static int y(int packed){
+		return packed & 0xFFFF;
+	}
+
+	private static long cross(int o, int a, int b){
+		long ax = x(a) - x(o);
+		long ay = y(a) - y(o);
+		long bx = x(b) - x(o);
+		long by = y(b) - y(o);
+		return ax * by - ay * bx;
+	}
+
+	/**
+	 * Arrays.sort may allocate a work array for partly ordered input, which contours always are.
+	 */
+	private static void heapSort(int[] values, int count){
+		for(int i = count / 2 - 1; i >= 0; i--){
+			siftDown(values, i, count);
+		}
+		for(int end = count - 1; end > 0; end--){
+			int tmp = values[0];
+			values[0] = values[end];
+			values[end] = tmp;
+			siftDown(values, 0, end);
+		}
+	}
+
+	private static void siftDown(int[] values, int root, int count){
+		while(root * 2 + 1 < count){
+			int child = root * 2 + 1;
+			if(child + 1 < count && values[child + 1] > values[child]){
+				child++;
+			}
+			if(values[root] >= values[child]){
+				return;
+			}
+			int tmp = values[root];
+			values[root] = values[child];
+			values[child] = tmp;
+			root = child;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Finds blobs as the outer contours of the mask, measured with a ContourAnalyzer.
+ * Nothing is created here once the buffers have warmed up, apart from what opencv's findContours makes.
+ */
+public class ContourDetector extends BlobDetector {
+
+	private static final int CONTOUR_CAPACITY = 256;
+
+	private Mat hierarchy;
+	private List<MatOfPoint> contours;
+	private ContourAnalyzer analyzer;
+
+	public ContourDetector(ColorThreshold threshold, TargetPairer pairer){
+		super(threshold, pairer);
+		this.hierarchy = new Mat();
+		this.contours = new ArrayList<MatOfPoint>();
+		this.analyzer = new ContourAnalyzer(CONTOUR_CAPACITY);
+	}
+
+	@Override
+	protected int findBlobs(Mat mask, Point offset, Blob[] blobs){
+		Imgproc.findContours(mask, this.contours, this.hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE, offset);
+		int count = 0;
+		for(int i = 0; i < this.contours.size() && count < blobs.length; i++){
+			if(this.analyzer.analyze(this.contours.get(i), blobs[count]) >= MIN_AREA){
+				count++;
+			}
+		}
+		this.releaseContours();
+		return count;
+	}
+
+	/**
+	 * findContours makes a new native matrix for each contour, they have to be freed every frame.
+	 */
+	private void releaseContours(){
+		for(int i = 0; i < this.contours.size(); i++){
+			this.contours.get(i).release();
+		}
+		this.contours.clear();
+	}
+}
@@ -0,0 +1,89 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.core.TermCriteria;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Moves the corners of the chosen pair of strips to where the edges of the blurred mask cross
+ * with cornerSubPix, which is accurate to a fraction of a pixel where the box from the contour
+ * is only accurate to a pixel or two. Far from the peg a strip is only a few dozen pixels tall,
+ * so that pixel is several inches of distance. Only the two chosen strips are refined, so it
+ * costs little next to finding the blobs.
+ */
+public class CornerRefiner {
+
+	private static final Size ZERO_ZONE = new Size(-1, -1);
+
+	private int window;
+	private TermCriteria criteria;
+	private MatOfPoint2f points;
+	private float[] corners;
+	private float[] seed;
+	private Size windowSize;
+
+	/**
+	 * @param window the most pixels on each side of a corner to look at, it is cut down for small strips
+	 * @param iterations the most times to move each corner
+	 * @param epsilon the distance in pixels a corner moves by at which to stop
+	 */
+	public CornerRefiner(int window, int iterations, double epsilon){
+		this.window = window;
+		this.criteria = new TermCriteria(TermCriteria.COUNT + TermCriteria.EPS, iterations, epsilon);
+		this.corners = new float[8];
+		this.seed = new float[8];
+		this.windowSize = new Size();
+	}
+
+	/**
+	 * Refines the corners of both targets in place, see SingleTarget.setCorners. A target keeps its
+	 * box if it is too small to refine or a corner moved further than it could have been off by.
+	 * @param mask the blurred mask the targets were found in, one channel
+	 * @param offset where the top left of the mask is in the whole frame
+	 * @param targets the targets, in frame pixels
+	 * @return the number of targets that were refined
+	 */
+	public int refine(Mat mask, Point offset, SingleTarget[] targets){
+		if(this.points == null){
+			this.points = new MatOfPoint2f();
+			this.points.alloc(4);
+		}
+		int refined = 0;
+		for(SingleTarget target : targets){
+			if(this.refine(mask, offset, target)){
+				refined++;
+			}
+		}
+		return refined;
+	}
+
+	private boolean refine(Mat mask, Point offset, SingleTarget target){
+		int half = (int) Math.min(this.window, Math.min(target.getWidth(), target.getHeight()) / 4);
+		if(half < 1){
+			return false;
+		}
+		PegPoseEstimator.setCorners(target, this.seed, 0);
+		for(int i = 0; i < 8; i += 2){
+			this.seed[i] -= offset.x;
+			this.seed[i + 1] -= offset.y;
+		}
+		this.points.put(0, 0, this.seed);
+		this.windowSize.width = half;
+		this.windowSize.height = half;
+		Imgproc.cornerSubPix(mask, this.points, this.windowSize, ZERO_ZONE, this.criteria);
+		this.points.get(0, 0, this.corners);
+		for(int i = 0; i < 8; i += 2){
+			// a corner that moved further than its window locked on to something else
+			if(!(Math.abs(this.corners[i] - this.seed[i]) <= half && Math.abs(this.corners[i + 1] - this.seed[i + 1]) <= half)){
+				return false;
+			}
+			this.corners[i] += offset.x;
+			this.corners[i + 1] += offset.y;
+		}
+		target.setCorners(this.corners, 0);
+		return true;
+	}
+}
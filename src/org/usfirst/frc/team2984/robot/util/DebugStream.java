@@ -0,0 +1,172 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import edu.wpi.cscore.CvSource;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Streams a small copy of the camera image with the blobs and the chosen pair drawn on top, a few
+ * times a second. The processing thread only shrinks the image and copies the boxes, the drawing and
+ * the hand off to the camera server happen on this thread. Like the FrameExchanger, three overlays
+ * rotate so the newest one always wins and neither side waits on the other.
+ */
+public class DebugStream extends Thread {
+
+	private static final Scalar BLOB_COLOR = new Scalar(0, 0, 255);
+	private static final Scalar PAIR_COLOR = new Scalar(0, 255, 0);
+	private static final Scalar TEXT_COLOR = new Scalar(255, 255, 255);
+
+	private CvSource output;
+	private double scale;
+	private Size size;
+	private long period;
+	private volatile boolean enabled;
+	private long lastFrame;
+
+	private Overlay back;
+	private Overlay slot;
+	private Overlay front;
+	private Point corner;
+	private Point opposite;
+
+	/**
+	 * @param output where to send the annotated frames, at the scaled resolution
+	 * @param resolution the size of the camera's frames
+	 * @param scale how much to shrink the frames by, 0.5 is half the width and height
+	 * @param rate how many frames to send per second at most
+	 */
+	public DebugStream(CvSource output, Dimension resolution, double scale, double rate){
+		super("Vision Debug Stream");
+		this.output = output;
+		this.scale = scale;
+		this.size = new Size(Math.round(resolution.width * scale), Math.round(resolution.height * scale));
+		this.period = (long) (1000000000L / rate);
+		this.enabled = true;
+		this.back = new Overlay();
+		this.slot = new Overlay();
+		this.front = new Overlay();
+		this.corner = new Point();
+		this.opposite = new Point();
+		this.setDaemon(true);
+		this.setPriority(Thread.MIN_PRIORITY);
+	}
+
+	/**
+	 * Turns the stream on or off, it is always off while the field is attached.
+	 */
+	public void setEnabled(boolean enabled){
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Processing thread only. Returns whether or not the next frame should be streamed, if so
+	 * capture has to be called before the frame is handed back to the exchanger and publish after detecting.
+	 * @param now the System.nanoTime() now
+	 */
+	public boolean isDue(long now){
+		return this.enabled && now - this.lastFrame >= this.period && !DriverStation.getInstance().isFMSAttached();
+	}
+
+	/**
+	 * Processing thread only. Shrinks the image into the next overlay.
+	 * @param image the BGR camera image, before it is thresholded
+	 * @param now the System.nanoTime() now
+	 */
+	public void capture(Mat image, long now){
+		this.lastFrame = now;
+		Imgproc.resize(image, this.back.image, this.size, 0, 0, Imgproc.INTER_NEAREST);
+	}
+
+	/**
+	 * Processing thread only. Adds what was found to the captured overlay and hands it to this thread.
+	 * @param pipeline the pipeline that just processed the frame
+	 */
+	public void publish(VisionPipeline pipeline){
+		Overlay overlay = this.back;
+		overlay.blobCount = pipeline.getBlobs(overlay.blobs);
+		overlay.result = pipeline.getResult();
+		SingleTarget[] targets = pipeline.getTargets();
+		for(int i = 0; i < 2; i++){
+			overlay.pair[i].set(targets[i].getX(), targets[i].getY(), targets[i].getWidth(), targets[i].getHeight());
+		}
+		synchronized(this){
+			overlay.fresh = true;
+			this.back = this.slot;
+			this.slot = overlay;
+			this.notifyAll();
+		}
+	}
+
+	@Override
+	public void run(){
+		while(true){
+			try{
+				synchronized(this){
+					while(!this.slot.fresh){
+						this.wait();
+					}
+					Overlay newest = this.slot;
+					this.slot = this.front;
+					this.front = newest;
+					newest.fresh = false;
+				}
+				this.draw(this.front);
+				this.output.putFrame(this.front.image);
+			} catch(Exception e){
+				ErrorReporter.getInstance().report("Vision Debug Stream", e);
+			}
+		}
+	}
+
+	private void draw(Overlay overlay){
+		for(int i = 0; i < overlay.blobCount; i++){
+			Blob blob = overlay.blobs[i];
+			this.box(overlay.image, blob.getMinX(), blob.getMinY(), blob.getMaxX(), blob.getMaxY(), BLOB_COLOR);
+		}
+		VisionResult result = overlay.result;
+		if(result.hasTrack()){
+			for(SingleTarget target : overlay.pair){
+				this.box(overlay.image, target.getX() - target.getWidth() / 2, target.getY() - target.getHeight() / 2,
+						target.getX() + target.getWidth() / 2, target.getY() + target.getHeight() / 2, PAIR_COLOR);
+			}
+			this.corner.x = 2;
+			this.corner.y = overlay.image.rows() - 4;
+			Imgproc.putText(overlay.image, String.format("%.2f", result.getConfidence()), this.corner, Core.FONT_HERSHEY_SIMPLEX, 0.4, TEXT_COLOR);
+		}
+	}
+
+	private void box(Mat image, double minX, double minY, double maxX, double maxY, Scalar color){
+		this.corner.x = minX * this.scale;
+		this.corner.y = minY * this.scale;
+		this.opposite.x = maxX * this.scale;
+		this.opposite.y = maxY * this.scale;
+		Imgproc.rectangle(image, this.corner, this.opposite, color, 1);
+	}
+
+	/**
+	 * One annotated frame and what to draw on it.
+	 */
+	private static class Overlay {
+		private Mat image;
+		private Blob[] blobs;
+		private int blobCount;
+		private SingleTarget[] pair;
+		private VisionResult result;
+		private boolean fresh;
+
+		private Overlay(){
+			this.image = new Mat();
+			this.blobs = new Blob[BlobDetector.MAX_BLOBS];
+			for(int i = 0; i < this.blobs.length; i++){
+				this.blobs[i] = new Blob();
+			}
+			this.pair = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.usfirst.frc.team2984.robot.RobotMap;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Reports errors from anywhere in the robot code without flooding the driver station. The same
+ * error from the same source is only reported once per interval, with a count of how many times it
+ * happened since, and no more than a set number of reports go out per second across all errors.
+ * Counts that are still waiting go out on the next report or flush after their interval.
+ */
+public class ErrorReporter {
+
+	private static final int MAX_ERRORS = 64;
+
+	private static ErrorReporter instance;
+
+	/**
+	 * Where reports go.
+	 */
+	public interface Sink {
+
+		/**
+		 * @param message the error and how many times it happened
+		 * @param location where it was thrown, or an empty string if it was not an exception
+		 */
+		public void report(String message, String location);
+	}
+
+	private Sink sink;
+	private long interval;
+	private double maxRate;
+	private double allowance;
+	private long lastRefill;
+	private Map<String, Entry> errors;
+
+	public static synchronized ErrorReporter getInstance(){
+		if(instance == null){
+			instance = new ErrorReporter(new Sink(){
+				@Override
+				public void report(String message, String location){
+					DriverStation.reportError(location.isEmpty() ? message : message + " at " + location, false);
+					SmartDashboard.putString("Error", location);
+					SmartDashboard.putString("Error String", message);
+				}
+			}, RobotMap.ERROR_REPORT_INTERVAL, RobotMap.ERROR_REPORT_MAX_RATE);
+		}
+		return instance;
+	}
+
+	/**
+	 * @param sink where to send the reports
+	 * @param interval the shortest time between reports of the same error, in seconds
+	 * @param maxRate the most reports to send per second across all errors
+	 */
+	public ErrorReporter(Sink sink, double interval, double maxRate){
+		this.sink = sink;
+		this.interval = (long) (interval * 1000000000L);
+		this.maxRate = maxRate;
+		this.allowance = maxRate;
+		this.errors = new LinkedHashMap<String, Entry>(16, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest){
+				return this.size() > MAX_ERRORS;
+			}
+		};
+	}
+
+	/**
+	 * Reports an exception, the stack trace is only looked at the first time it goes out.
+	 * @param source what was running, like "Vision"
+	 * @param error the exception
+	 */
+	public void report(String source, Throwable error){
+		this.report(source, error.toString(), error, System.nanoTime());
+	}
+
+	/**
+	 * Reports an error that isn't an exception.
+	 * @param source what was running, like "Vision"
+	 * @param message what went wrong
+	 */
+	public void report(String source, String message){
+		this.report(source, message, null, System.nanoTime());
+	}
+
+	/**
+	 * @param source what was running
+	 * @param message what went wrong
+	 * @param error the exception, or null
+	 * @param now the System.nanoTime() now
+	 */
+	public synchronized void report(String source, String message, Throwable error, long now){
+		String key = source + ": " + message;
+		Entry entry = this.errors.get(key);
+		if(entry == null){
+			entry = new Entry(key);
+			this.errors.put(key, entry);
+		}
+		entry.count++;
+		entry.pending++;
+		if(entry.location == null && error != null){
+			StackTraceElement[] trace = error.getStackTrace();
+			entry.location = trace.length > 0 ? trace[0].toString() : "";
+		}
+		if(!entry.reported || now - entry.lastReported >= this.interval){
+			this.emit(entry, now);
+		}
+	}
+
+	/**
+	 * Sends the counts of errors that happened since they were last reported, once their interval has passed.
+	 * @param now the System.nanoTime() now
+	 */
+	public synchronized void flush(long now){
+		Iterator<Entry> entries = this.errors.values().iterator();
+		while(entries.hasNext()){
+			Entry entry = entries.next();
+			if(entry.pending > 0 && now - entry.lastReported >= this.interval){
+				if(!this.emit(entry, now)){
+					return;
+				}
+			}
+		}
+	}
+
+	public void flush(){
+		this.flush(System.nanoTime());
+	}
+
+	/**
+	 * @return how many times the error has happened in total
+	 */
+	public synchronized long getCount(String source, String message){
+		Entry entry = this.errors.get(source + ": " + message);
+		return entry == null ? 0 : entry.count;
+	}
+
+	private boolean emit(Entry entry, long now){
+		this.allowance = Math.min(this.maxRate, this.allowance + (now - this.lastRefill) / 1e9 * this.maxRate);
+		this.lastRefill = now;
+		if(this.allowance < 1){
+			return false;
+		}
+		this.allowance--;
+		String message = entry.key;
+		if(entry.count > 1){
+			message += " (x" + entry.pending + ", " + entry.count + " total)";
+		}
+		this.sink.report(message, entry.location == null ? "" : entry.location);
+		entry.pending = 0;
+		entry.lastReported = now;
+		entry.reported = true;
+		return true;
+	}
+
+	private static class Entry {
+		private String key;
+		private String location;
+		private long count;
+		private long pending;
+		private long lastReported;
+		private boolean reported;
+
+		private Entry(String key){
+			this.key = key;
+		}
+	}
+}
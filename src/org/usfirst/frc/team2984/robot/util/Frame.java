@@ -0,0 +1,82 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+
+/**
+ * An image from the camera along with when it was captured. Frames are handed between the
+ * capture and processing threads by a FrameExchanger and are refilled, never recreated.
+ */
+public class Frame {
+
+	private Mat image;
+	private long timestamp;
+	private long sequence;
+	boolean fresh;
+
+	private Mat region;
+	private long regionSource;
+	private int regionX;
+	private int regionY;
+	private int regionWidth;
+	private int regionHeight;
+
+	public Frame(Mat image){
+		this.image = image;
+	}
+
+	void stamp(long timestamp, long sequence){
+		this.timestamp = timestamp;
+		this.sequence = sequence;
+	}
+
+	/**
+	 * @return the image, owned by whichever thread holds the frame
+	 */
+	public Mat getImage(){
+		return this.image;
+	}
+
+	/**
+	 * @return the System.nanoTime() that the image was captured at
+	 */
+	public long getTimestamp(){
+		return this.timestamp;
+	}
+
+	/**
+	 * @return the number of frames captured before and including this one
+	 */
+	public long getSequence(){
+		return this.sequence;
+	}
+
+	/**
+	 * Returns part of the image sharing the same memory. The sub matrix is kept and only
+	 * remade when the area changes, the image was reallocated or the sub matrix no longer points
+	 * into the image, which happens if something wrote a different type of Mat into it.
+	 * @return the sub matrix of the image
+	 */
+	public Mat getRegion(int x, int y, int width, int height){
+		if(this.region == null || this.regionSource != this.image.dataAddr() || this.regionX != x || this.regionY != y
+				|| this.regionWidth != width || this.regionHeight != height || !this.isRegionOfImage()){
+			if(this.region != null){
+				this.region.release();
+			}
+			this.regionSource = this.image.dataAddr();
+			this.regionX = x;
+			this.regionY = y;
+			this.regionWidth = width;
+			this.regionHeight = height;
+			this.region = this.image.submat(y, y + height, x, x + width);
+		}
+		return this.region;
+	}
+
+	/**
+	 * @return whether or not the kept sub matrix is still the same type as the image and starts where it should in it
+	 */
+	private boolean isRegionOfImage(){
+		long start = this.image.dataAddr() + this.regionY * this.image.step1() * this.image.elemSize1() + this.regionX * this.image.elemSize();
+		return this.region.type() == this.image.type() && this.region.dataAddr() == start;
+	}
+}
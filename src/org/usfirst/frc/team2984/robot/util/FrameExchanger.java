@@ -0,0 +1,123 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the newest frame from one producer thread to one consumer thread without locking.
+ * Three frames rotate: the producer fills one, the consumer works on one, and the newest
+ * finished frame waits in a single slot. Publishing over a frame that was never taken drops it,
+ * so the consumer always gets the newest frame and the producer never waits.
+ */
+public class FrameExchanger {
+
+	private AtomicReference<Frame> slot;
+	private Frame back;
+	private Frame front;
+	private volatile Thread consumer;
+	private long sequence;
+
+	private AtomicLong published;
+	private AtomicLong dropped;
+	private AtomicLong taken;
+
+	public FrameExchanger(Frame back, Frame slot, Frame front){
+		this.back = back;
+		this.slot = new AtomicReference<Frame>(slot);
+		this.front = front;
+		this.published = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.taken = new AtomicLong();
+	}
+
+	/**
+	 * Producer only.
+	 * @return the frame to fill before calling publish
+	 */
+	public Frame getBack(){
+		return this.back;
+	}
+
+	/**
+	 * Producer only. Makes the filled frame the newest one and wakes the consumer.
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 */
+	public void publish(long timestamp){
+		this.back.stamp(timestamp, ++this.sequence);
+		this.back.fresh = true;
+		Frame previous = this.slot.getAndSet(this.back);
+		if(previous.fresh){
+			this.dropped.incrementAndGet();
+		}
+		this.back = previous;
+		this.published.incrementAndGet();
+		Thread waiting = this.consumer;
+		if(waiting != null){
+			LockSupport.unpark(waiting);
+		}
+	}
+
+	/**
+	 * Consumer only. Takes the newest frame, giving back the one taken before.
+	 * @return the newest frame or null if there has not been one since the last take
+	 */
+	public Frame take(){
+		this.front.fresh = false;
+		Frame newest = this.slot.getAndSet(this.front);
+		this.front = newest;
+		if(!newest.fresh){
+			return null;
+		}
+		this.taken.incrementAndGet();
+		return newest;
+	}
+
+	/**
+	 * @return whether or not there is a frame newer than the last one taken
+	 */
+	public boolean hasFresh(){
+		return this.slot.get().fresh;
+	}
+
+	/**
+	 * Consumer only. Waits for a frame newer than the last one taken.
+	 * @param timeout the longest to wait in nanoseconds
+	 * @return the newest frame or null if none came in time
+	 */
+	public Frame await(long timeout){
+		this.consumer = Thread.currentThread();
+		long deadline = System.nanoTime() + timeout;
+		Frame frame = this.take();
+		while(frame == null){
+			long remaining = deadline - System.nanoTime();
+			if(remaining <= 0){
+				return null;
+			}
+			LockSupport.parkNanos(this, remaining);
+			frame = this.take();
+		}
+		return frame;
+	}
+
+	/**
+	 * @return the number of frames published
+	 */
+	public long getPublished(){
+		return this.published.get();
+	}
+
+	/**
+	 * @return the number of frames replaced by a newer one before the consumer took them
+	 */
+	public long getDropped(){
+		return this.dropped.get();
+	}
+
+	/**
+	 * @return the number of frames the consumer took
+	 */
+	public long getTaken(){
+		return this.taken.get();
+	}
+}
@@ -0,0 +1,302 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Records camera frames while the robot is enabled so failed docking can be looked at after a match.
+ * The processing thread only copies the frame and its result, this thread encodes them as JPEGs
+ * and writes them into a ring of files that are all created at full size up front, so the
+ * recording can never fill the disk. Like the DebugStream three frames rotate, so a frame waiting
+ * to be encoded is replaced by a newer one instead of holding up processing.
+ *
+ * Slot n is frame-n.jpg, which can be given straight to VisionReplay since decoders ignore the
+ * padding after the image. index.csv has one line per slot, padded to the same length, with the
+ * slot, write, sequence, System.nanoTime() timestamp, whether or not there was a track, confidence,
+ * the target's center, width and height, the peg's x, y, z and yaw if it was found and the JPEG's
+ * size. The write counts every frame ever written to the ring and carries on across restarts,
+ * unlike the sequence and timestamp which start again on every boot, so the slot with the highest
+ * write is the newest and recording carries on after it.
+ */
+public class FrameRecorder extends Thread {
+
+	private static final int LINE_LENGTH = 160;
+	private static final byte[] EMPTY_LINE = emptyLine();
+
+	private File directory;
+	private int slots;
+	private int slotBytes;
+	private long period;
+	private MatOfInt parameters;
+	private volatile boolean enabled;
+	private long lastFrame;
+	private int nextSlot;
+	private long writes;
+	private long recorded;
+	private long dropped;
+	private long skipped;
+
+	private Recording back;
+	private Recording slot;
+	private Recording front;
+	private MatOfByte encoded;
+	private byte[] bytes;
+
+	/**
+	 * @param directory where to keep the ring, it is created if it doesn't exist
+	 * @param slots how many frames the ring holds
+	 * @param slotBytes the size of each frame's file, frames that encode to more are skipped
+	 * @param quality the JPEG quality from 0 to 100
+	 * @param rate how many frames to record per second at most
+	 */
+	public FrameRecorder(File directory, int slots, int slotBytes, int quality, double rate){
+		super("Vision Frame Recorder");
+		this.directory = directory;
+		this.slots = slots;
+		this.slotBytes = slotBytes;
+		this.period = (long) (1000000000L / rate);
+		this.parameters = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, quality);
+		this.enabled = true;
+		this.back = new Recording();
+		this.slot = new Recording();
+		this.front = new Recording();
+		this.encoded = new MatOfByte();
+		this.bytes = new byte[slotBytes];
+		this.setDaemon(true);
+		this.setPriority(Thread.MIN_PRIORITY);
+	}
+
+	/**
+	 * Creates any slot files and index lines that are missing and finds where the last recording stopped.
+	 * Slots that are new or a different size are filled with zeros. It has to be called before the thread is started.
+	 * @throws IOException if the ring can't be created, like when there isn't room for it
+	 */
+	public void open() throws IOException{
+		if(!this.directory.isDirectory() && !this.directory.mkdirs()){
+			throw new IOException("Could not create " + this.directory);
+		}
+		for(int i = 0; i < this.slots; i++){
+			try(RandomAccessFile file = new RandomAccessFile(this.getSlotFile(i), "rw")){
+				if(file.length() != this.slotBytes){
+					// writing every byte rather than just setting the length makes the file system give the slot
+					// its blocks now, so a full disk fails here instead of partway through a match
+					file.setLength(0);
+					file.write(new byte[this.slotBytes]);
+				}
+			}
+		}
+		File index = this.getIndexFile();
+		this.nextSlot = 0;
+		this.writes = 0;
+		try(BufferedReader reader = new BufferedReader(new FileReader(index))){
+			String line;
+			for(int i = 0; i < this.slots && (line = reader.readLine()) != null; i++){
+				String[] fields = line.trim().split(",");
+				if(fields.length > 1 && Long.parseLong(fields[1]) > this.writes){
+					this.writes = Long.parseLong(fields[1]);
+					this.nextSlot = (i + 1) % this.slots;
+				}
+			}
+		} catch(IOException | NumberFormatException e){
+			// no index yet, or one from a different size of ring or an older format
+			this.nextSlot = 0;
+			this.writes = 0;
+		}
+		try(RandomAccessFile file = new RandomAccessFile(index, "rw")){
+			for(long i = file.length() / LINE_LENGTH; i < this.slots; i++){
+				file.seek(i * LINE_LENGTH);
+				file.write(EMPTY_LINE);
+			}
+			file.setLength((long) this.slots * LINE_LENGTH);
+		}
+	}
+
+	/**
+	 * Turns recording on or off.
+	 */
+	public void setEnabled(boolean enabled){
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Processing thread only. Returns whether or not the next frame should be recorded, if so
+	 * capture has to be called before the frame is handed back to the exchanger and publish after detecting.
+	 * Frames are only recorded while the robot is enabled.
+	 * @param now the System.nanoTime() now
+	 */
+	public boolean isDue(long now){
+		return this.enabled && now - this.lastFrame >= this.period && DriverStation.getInstance().isEnabled();
+	}
+
+	/**
+	 * Processing thread only. Copies the image to be recorded.
+	 * @param image the BGR camera image, before it is thresholded
+	 * @param now the System.nanoTime() now
+	 */
+	public void capture(Mat image, long now){
+		this.lastFrame = now;
+		image.copyTo(this.back.image);
+	}
+
+	/**
+	 * Processing thread only. Hands the captured image and its result to this thread, replacing
+	 * the last one if it has not been written yet.
+	 * @param result the result for the captured image
+	 */
+	public void publish(VisionResult result){
+		Recording recording = this.back;
+		recording.result = result;
+		synchronized(this){
+			if(this.slot.fresh){
+				this.dropped++;
+			}
+			recording.fresh = true;
+			this.back = this.slot;
+			this.slot = recording;
+			this.notifyAll();
+		}
+	}
+
+	@Override
+	public void run(){
+		while(true){
+			try{
+				synchronized(this){
+					while(!this.slot.fresh){
+						this.wait();
+					}
+				}
+				this.recordNewest();
+			} catch(Exception e){
+				ErrorReporter.getInstance().report("Vision Frame Recorder", e);
+			}
+		}
+	}
+
+	/**
+	 * Encodes and writes the newest published frame, if there is one that hasn't been written.
+	 * @return whether or not there was a frame to write
+	 * @throws IOException if the frame could not be written
+	 */
+	public boolean recordNewest() throws IOException{
+		synchronized(this){
+			if(!this.slot.fresh){
+				return false;
+			}
+			Recording newest = this.slot;
+			this.slot = this.front;
+			this.front = newest;
+			newest.fresh = false;
+		}
+		Imgcodecs.imencode(".jpg", this.front.image, this.encoded, this.parameters);
+		int length = (int) this.encoded.total();
+		if(length > this.slotBytes){
+			this.skipped++;
+			return true;
+		}
+		this.encoded.get(0, 0, this.bytes);
+		int slot = this.nextSlot;
+		try(RandomAccessFile file = new RandomAccessFile(this.getSlotFile(slot), "rw")){
+			file.write(this.bytes, 0, length);
+		}
+		try(RandomAccessFile file = new RandomAccessFile(this.getIndexFile(), "rw")){
+			file.seek((long) slot * LINE_LENGTH);
+			file.write(line(slot, this.writes + 1, this.front.result, length));
+		}
+		this.writes++;
+		this.nextSlot = (slot + 1) % this.slots;
+		this.recorded++;
+		return true;
+	}
+
+	private static byte[] line(int slot, long write, VisionResult result, int length){
+		VisionTarget target = result.getTarget();
+		Peg peg = result.getPeg();
+		String pose = peg == null ? ",,," : String.format("%.2f,%.2f,%.2f,%.2f", peg.getX(), peg.getY(), peg.getZ(), peg.getYaw());
+		String text = String.format("%d,%d,%d,%d,%d,%.3f,%.2f,%.2f,%.2f,%s,%d", slot, write, result.getSequence(), result.getTimestamp(),
+				result.hasTrack() ? 1 : 0, result.getConfidence(), target.getCenter(), target.getWidth(), target.getHeight(), pose, length);
+		byte[] line = Arrays.copyOf(EMPTY_LINE, LINE_LENGTH);
+		byte[] characters = text.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(characters, 0, line, 0, Math.min(characters.length, LINE_LENGTH - 1));
+		return line;
+	}
+
+	private static byte[] emptyLine(){
+		byte[] line = new byte[LINE_LENGTH];
+		Arrays.fill(line, (byte) ' ');
+		line[LINE_LENGTH - 1] = '\n';
+		return line;
+	}
+
+	/**
+	 * @param slot the slot's number
+	 * @return the file the slot's frame is written to
+	 */
+	public File getSlotFile(int slot){
+		return new File(this.directory, String.format("frame-%04d.jpg", slot));
+	}
+
+	public File getIndexFile(){
+		return new File(this.directory, "index.csv");
+	}
+
+	/**
+	 * @return the slot the next frame will be written to
+	 */
+	public int getNextSlot(){
+		return this.nextSlot;
+	}
+
+	/**
+	 * @return the number of frames ever written to the ring, including before a restart
+	 */
+	public long getWrites(){
+		return this.writes;
+	}
+
+	/**
+	 * @return the number of frames written
+	 */
+	public long getRecorded(){
+		return this.recorded;
+	}
+
+	/**
+	 * @return the number of frames replaced by a newer one before they could be written
+	 */
+	public synchronized long getDropped(){
+		return this.dropped;
+	}
+
+	/**
+	 * @return the number of frames that were too big for a slot
+	 */
+	public long getSkipped(){
+		return this.skipped;
+	}
+
+	/**
+	 * One frame waiting to be written and the result it had.
+	 */
+	private static class Recording {
+		private Mat image;
+		private VisionResult result;
+		private boolean fresh;
+
+		private Recording(){
+			this.image = new Mat();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * A ring buffer of timestamped headings, used to look up which way the robot was facing
+ * when an older measurement, like a camera frame, was taken.
+ */
+public class HeadingHistory {
+
+	private long[] times;
+	private double[] angles;
+	private int next;
+	private int size;
+
+	/**
+	 * @param capacity the number of samples to keep, the oldest is overwritten when full
+	 */
+	public HeadingHistory(int capacity){
+		this.times = new long[capacity];
+		this.angles = new double[capacity];
+	}
+
+	/**
+	 * Adds a sample, times must not go backwards.
+	 * @param time the System.nanoTime() the angle was read at
+	 * @param angle the angle in degrees
+	 */
+	public synchronized void record(long time, double angle){
+		this.times[this.next] = time;
+		this.angles[this.next] = angle;
+		this.next = (this.next + 1) % this.times.length;
+		this.size = Math.min(this.size + 1, this.times.length);
+	}
+
+	/**
+	 * Throws away all of the samples.
+	 */
+	public synchronized void clear(){
+		this.next = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the angle at the given time, interpolated between the two samples either side of it.
+	 * Times before the oldest sample or after the newest get the oldest or newest angle.
+	 * @param time the System.nanoTime() to find the angle at
+	 * @return the angle in degrees, or NaN if there are no samples
+	 */
+	public synchronized double getAngleAt(long time){
+		if(this.size == 0){
+			return Double.NaN;
+		}
+		int oldest = this.index(0);
+		int newest = this.index(this.size - 1);
+		if(time - this.times[oldest] <= 0){
+			return this.angles[oldest];
+		}
+		if(time - this.times[newest] >= 0){
+			return this.angles[newest];
+		}
+		// binary search for the first sample after the time
+		int low = 0;
+		int high = this.size - 1;
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(this.times[this.index(mid)] - time > 0){
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		int after = this.index(low);
+		int before = this.index(low - 1);
+		long span = this.times[after] - this.times[before];
+		if(span == 0){
+			return this.angles[after];
+		}
+		double fraction = (double)(time - this.times[before]) / span;
+		return this.angles[before] + (this.angles[after] - this.angles[before]) * fraction;
+	}
+
+	/**
+	 * @return the number of samples kept
+	 */
+	public synchronized int size(){
+		return this.size;
+	}
+
+	/**
+	 * @param age 0 for the oldest sample
+	 */
+	private int index(int age){
+		int start = (this.next - this.size + this.times.length) % this.times.length;
+		return (start + age) % this.times.length;
+	}
+}
@@ -0,0 +1,86 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * A table from a BGR colour straight to whether or not it is inside an HSV range, so that
+ * thresholding is one lookup per pixel instead of a colour conversion and then a range check.
+ * Each channel is cut down to 6 bits, which keeps the table at 256KB and moves the edges of
+ * the range by at most two levels.
+ */
+public class HsvLookupTable {
+
+	private static final int BITS = 6;
+	private static final int SHIFT = 8 - BITS;
+	private static final int SIZE = 1 << BITS;
+
+	private byte[] table;
+
+	public HsvLookupTable(){
+		this.table = new byte[SIZE * SIZE * SIZE];
+	}
+
+	/**
+	 * Fills the table for a new range, using opencv's 8 bit HSV where hue is [0, 180).
+	 * @param min the lowest hue, saturation and value to accept
+	 * @param max the highest hue, saturation and value to accept
+	 */
+	public void build(double[] min, double[] max){
+		double half = (1 << SHIFT) / 2D;
+		for(int b = 0; b < SIZE; b++){
+			for(int g = 0; g < SIZE; g++){
+				for(int r = 0; r < SIZE; r++){
+					double blue = (b << SHIFT) + half;
+					double green = (g << SHIFT) + half;
+					double red = (r << SHIFT) + half;
+					double value = Math.max(red, Math.max(green, blue));
+					double diff = value - Math.min(red, Math.min(green, blue));
+					double saturation = value == 0 ? 0 : diff * 255 / value;
+					double hue;
+					if(diff == 0){
+						hue = 0;
+					} else if(value == red){
+						hue = 60 * (green - blue) / diff;
+					} else if(value == green){
+						hue = 120 + 60 * (blue - red) / diff;
+					} else {
+						hue = 240 + 60 * (red - green) / diff;
+					}
+					if(hue < 0){
+						hue += 360;
+					}
+					hue /= 2;
+					boolean inside = hue >= min[0] && hue <= max[0]
+							&& saturation >= min[1] && saturation <= max[1]
+							&& value >= min[2] && value <= max[2];
+					this.table[index(b, g, r)] = inside ? (byte) 255 : 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Thresholds packed BGR pixels in one pass.
+	 * @param bgr the pixels, three bytes each
+	 * @param mask where to put 255 for pixels in range and 0 for the rest, one byte each
+	 * @param pixels the number of pixels
+	 */
+	public void apply(byte[] bgr, byte[] mask, int pixels){
+		byte[] table = this.table;
+		for(int i = 0, j = 0; i < pixels; i++, j += 3){
+			int b = (bgr[j] & 0xFF) >>> SHIFT;
+			int g = (bgr[j + 1] & 0xFF) >>> SHIFT;
+			int r = (bgr[j + 2] & 0xFF) >>> SHIFT;
+			mask[i] = table[index(b, g, r)];
+		}
+	}
+
+	/**
+	 * @return whether or not the colour is in range
+	 */
+	public boolean contains(int blue, int green, int red){
+		return this.table[index(blue >>> SHIFT, green >>> SHIFT, red >>> SHIFT)] != 0;
+	}
+
+	private static int index(int b, int g, int r){
+		return (b << (BITS * 2)) | (g << BITS) | r;
+	}
+}
@@ -0,0 +1,127 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * Counts durations in fixed buckets so percentiles can be read back without keeping every sample
+ * or allocating anything while recording. Durations are bucketed in microseconds, exactly below
+ * 8 and in eight buckets per doubling above that, so a percentile is never more than an eighth
+ * off. Anything longer than the last bucket is counted in it, the max is always exact.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 8; // buckets per doubling, a power of two
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int MAX_EXPONENT = 24; // the last bucket starts at 2^24 microseconds, about 17 seconds
+	public static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private long[] counts;
+	private long count;
+	private long total;
+	private long max;
+
+	public LatencyHistogram(){
+		this.counts = new long[BUCKETS];
+	}
+
+	/**
+	 * @param nanos how long something took, in nanoseconds
+	 */
+	public synchronized void record(long nanos){
+		if(nanos < 0){
+			nanos = 0;
+		}
+		this.counts[bucket(nanos / 1000)]++;
+		this.count++;
+		this.total += nanos;
+		if(nanos > this.max){
+			this.max = nanos;
+		}
+	}
+
+	/**
+	 * @param fraction the fraction of durations that were as short or shorter, like 0.95
+	 * @return the duration in milliseconds, the top of its bucket but no more than the max, or 0 if nothing was recorded
+	 */
+	public synchronized double getPercentile(double fraction){
+		if(this.count == 0){
+			return 0;
+		}
+		long rank = Math.max((long) Math.ceil(fraction * this.count), 1);
+		long seen = 0;
+		int bucket = 0;
+		for(; bucket < BUCKETS - 1; bucket++){
+			seen += this.counts[bucket];
+			if(seen >= rank){
+				break;
+			}
+		}
+		double top = bucket == BUCKETS - 1 ? Double.POSITIVE_INFINITY : getBucketEnd(bucket) * 1000D;
+		return Math.min(top, this.max) / 1000000D;
+	}
+
+	/**
+	 * @return the longest duration in milliseconds
+	 */
+	public synchronized double getMax(){
+		return this.max / 1000000D;
+	}
+
+	/**
+	 * @return the average duration in milliseconds, or 0 if nothing was recorded
+	 */
+	public synchronized double getMean(){
+		return this.count == 0 ? 0 : this.total / (double) this.count / 1000000D;
+	}
+
+	/**
+	 * @return the number of durations recorded
+	 */
+	public synchronized long getCount(){
+		return this.count;
+	}
+
+	/**
+	 * Forgets every duration.
+	 */
+	public synchronized void reset(){
+		for(int i = 0; i < BUCKETS; i++){
+			this.counts[i] = 0;
+		}
+		this.count = 0;
+		this.total = 0;
+		this.max = 0;
+	}
+
+	/**
+	 * @param micros a duration in microseconds
+	 * @return the bucket it is counted in
+	 */
+	static int bucket(long micros){
+		if(micros < SUB_BUCKETS){
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if(exponent > MAX_EXPONENT){
+			return BUCKETS - 1;
+		}
+		int mantissa = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+	}
+
+	/**
+	 * @param bucket a bucket
+	 * @return the first duration in microseconds past the bucket
+	 */
+	static long getBucketEnd(int bucket){
+		if(bucket < SUB_BUCKETS){
+			return bucket + 1;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (SUB_BUCKETS + bucket % SUB_BUCKETS) * width + width;
+	}
+
+	public synchronized String toString(){
+		return String.format("n %d, mean %.2f, p50 %.2f, p95 %.2f, p99 %.2f, max %.2f ms", this.count, this.getMean(),
+				this.getPercentile(0.5), this.getPercentile(0.95), this.getPercentile(0.99), this.getMax());
+	}
+}
@@ -0,0 +1,144 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.calib3d.Calib3d;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.MatOfPoint3f;
+import org.opencv.core.Point3;
+import org.opencv.core.Size;
+import org.opencv.core.TermCriteria;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Works out a camera's focal lengths, center and lens distortion from pictures of a checkerboard,
+ * off the robot, and writes them where VisionCamera loads them from. Take the pictures at the
+ * resolution the robot uses, with the board filling the corners of the frame in some of them.
+ *
+ * Usage: LensCalibration directory columns rows square output
+ *
+ * The columns and rows are the inside corners of the board, the square is its size in inches and
+ * the output is the camera's lens file, for example "Gear Lens.csv" in the calibration directory.
+ */
+public class LensCalibration {
+
+	private Size pattern;
+	private MatOfPoint3f board;
+	private List<Mat> objectPoints;
+	private List<Mat> imagePoints;
+	private Size imageSize;
+	private Mat gray;
+	private TermCriteria criteria;
+	private double error;
+
+	/**
+	 * @param columns the number of inside corners across the board
+	 * @param rows the number of inside corners down the board
+	 * @param square the size of each square, in inches
+	 */
+	public LensCalibration(int columns, int rows, double square){
+		this.pattern = new Size(columns, rows);
+		Point3[] corners = new Point3[columns * rows];
+		for(int row = 0; row < rows; row++){
+			for(int column = 0; column < columns; column++){
+				corners[row * columns + column] = new Point3(column * square, row * square, 0);
+			}
+		}
+		this.board = new MatOfPoint3f(corners);
+		this.objectPoints = new ArrayList<Mat>();
+		this.imagePoints = new ArrayList<Mat>();
+		this.gray = new Mat();
+		this.criteria = new TermCriteria(TermCriteria.COUNT + TermCriteria.EPS, 30, 0.01);
+	}
+
+	/**
+	 * Finds the board in the image and keeps its corners.
+	 * @param image a BGR or grey picture of the board
+	 * @return whether or not the whole board was found
+	 */
+	public boolean add(Mat image){
+		if(this.imageSize != null && !this.imageSize.equals(image.size())){
+			throw new IllegalArgumentException("Image is " + image.size() + " but the others are " + this.imageSize);
+		}
+		if(image.channels() == 1){
+			image.copyTo(this.gray);
+		} else {
+			Imgproc.cvtColor(image, this.gray, Imgproc.COLOR_BGR2GRAY);
+		}
+		MatOfPoint2f corners = new MatOfPoint2f();
+		boolean found = Calib3d.findChessboardCorners(this.gray, this.pattern, corners,
+				Calib3d.CALIB_CB_ADAPTIVE_THRESH + Calib3d.CALIB_CB_NORMALIZE_IMAGE);
+		if(!found){
+			return false;
+		}
+		Imgproc.cornerSubPix(this.gray, corners, new Size(5, 5), new Size(-1, -1), this.criteria);
+		this.imageSize = image.size();
+		this.objectPoints.add(this.board);
+		this.imagePoints.add(corners);
+		return true;
+	}
+
+	/**
+	 * @return the number of pictures the board was found in
+	 */
+	public int getViews(){
+		return this.imagePoints.size();
+	}
+
+	/**
+	 * Fits the camera to every picture added so far.
+	 * @return the camera's intrinsics
+	 */
+	public CameraIntrinsics calibrate(){
+		if(this.imagePoints.size() < 3){
+			throw new IllegalStateException("Need the board in at least 3 pictures, found it in " + this.imagePoints.size());
+		}
+		Mat cameraMatrix = new Mat(3, 3, CvType.CV_64FC1);
+		Mat distortion = new Mat();
+		List<Mat> rotations = new ArrayList<Mat>();
+		List<Mat> translations = new ArrayList<Mat>();
+		this.error = Calib3d.calibrateCamera(this.objectPoints, this.imagePoints, this.imageSize, cameraMatrix, distortion, rotations, translations);
+		double[] coefficients = new double[(int) distortion.total()];
+		distortion.get(0, 0, coefficients);
+		return new CameraIntrinsics(cameraMatrix.get(0, 0)[0], cameraMatrix.get(1, 1)[0], cameraMatrix.get(0, 2)[0], cameraMatrix.get(1, 2)[0], coefficients);
+	}
+
+	/**
+	 * @return the root mean square distance in pixels between where the corners were found and where the fitted camera puts them
+	 */
+	public double getError(){
+		return this.error;
+	}
+
+	public static void main(String[] args) throws IOException{
+		if(args.length < 5){
+			System.err.println("Usage: LensCalibration directory columns rows square output");
+			System.exit(1);
+		}
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File[] files = new File(args[0]).listFiles();
+		if(files == null || files.length == 0){
+			System.err.println("No pictures in " + args[0]);
+			System.exit(1);
+		}
+		Arrays.sort(files);
+		LensCalibration calibration = new LensCalibration(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]));
+		for(File file : files){
+			Mat image = VisionReplay.read(file);
+			if(image.empty()){
+				continue;
+			}
+			System.out.println(file.getName() + (calibration.add(image) ? " found" : " no board"));
+		}
+		CameraIntrinsics intrinsics = calibration.calibrate();
+		System.out.printf("%d views, %.3f px error%n%s%n", calibration.getViews(), calibration.getError(), intrinsics);
+		intrinsics.save(new File(args[4]));
+	}
+}
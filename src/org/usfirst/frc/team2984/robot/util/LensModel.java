@@ -0,0 +1,54 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Takes the lens distortion out of the corners of the chosen pair of strips with undistortPoints,
+ * so the measurements near the edges of the frame are as good as in the middle. Undistorting the
+ * whole frame would cost a remap of every pixel, this only moves eight points. The undistorted
+ * points are still in pixels, as seen by an ideal camera with the same focal lengths and center.
+ */
+public class LensModel {
+
+	private CameraIntrinsics intrinsics;
+	private MatOfPoint2f distorted;
+	private MatOfPoint2f undistorted;
+	private Mat rectification;
+	private float[] corners;
+
+	/**
+	 * @param intrinsics the camera, with its distortion coefficients, see LensCalibration
+	 */
+	public LensModel(CameraIntrinsics intrinsics){
+		this.intrinsics = intrinsics;
+		this.corners = new float[16];
+	}
+
+	/**
+	 * Undistorts the corners of both targets, see SingleTarget.setCorners.
+	 * @param targets the targets as found in the frame
+	 * @param out where to put the undistorted targets, which can be the same targets
+	 */
+	public void undistort(SingleTarget[] targets, SingleTarget[] out){
+		if(this.distorted == null){
+			this.distorted = new MatOfPoint2f();
+			this.distorted.alloc(8);
+			this.undistorted = new MatOfPoint2f();
+			this.rectification = new Mat();
+		}
+		PegPoseEstimator.setCorners(targets[0], this.corners, 0);
+		PegPoseEstimator.setCorners(targets[1], this.corners, 4);
+		this.distorted.put(0, 0, this.corners);
+		Imgproc.undistortPoints(this.distorted, this.undistorted, this.intrinsics.getCameraMatrix(),
+				this.intrinsics.getDistortionCoefficients(), this.rectification, this.intrinsics.getCameraMatrix());
+		this.undistorted.get(0, 0, this.corners);
+		out[0].setCorners(this.corners, 0);
+		out[1].setCorners(this.corners, 4);
+	}
+
+	public CameraIntrinsics getIntrinsics(){
+		return this.intrinsics;
+	}
+}
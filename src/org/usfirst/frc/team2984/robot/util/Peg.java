@@ -15,6 +15,15 @@ public class Peg {
 	private long time;
 	
 	public Peg(Mat tvec, Mat rvec){
+		this(tvec, rvec, System.nanoTime());
+	}
+	
+	/**
+	 * @param tvec the translation from solvePnP
+	 * @param rvec the axis rotation from solvePnP
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 */
+	public Peg(Mat tvec, Mat rvec, long timestamp){
 		this.x = tvec.get(0, 0)[0];
 		this.y = tvec.get(1, 0)[0];
 		this.z = tvec.get(2, 0)[0];
@@ -22,7 +31,7 @@ public class Peg {
 		this.yaw = rotations[0];
 		this.pitch = rotations[1];
 		this.roll = rotations[2];
-		this.time = System.currentTimeMillis();
+		this.time = timestamp;
 	}
 	
 	public Peg(double x, double y, double z, double yaw, double pitch, double roll){
@@ -32,7 +41,7 @@ public class Peg {
 		this.yaw = yaw;
 		this.pitch = pitch;
 		this.roll = roll;
-		this.time = System.currentTimeMillis();
+		this.time = System.nanoTime();
 	}
 	
 	/**
@@ -102,8 +111,25 @@ public class Peg {
 		return roll;
 	}
 	
+	/**
+	 * @return the straight line distance to the peg
+	 */
+	public double getDistance() {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+	
+	/**
+	 * @return the System.nanoTime() the frame was captured at
+	 */
+	public long getTimestamp() {
+		return time;
+	}
+	
+	/**
+	 * @return how long ago the frame was captured in milliseconds
+	 */
 	public long age(){
-		return System.currentTimeMillis() - this.time;
+		return (System.nanoTime() - this.time) / 1000000L;
 	}
 	
 	public String toString(){
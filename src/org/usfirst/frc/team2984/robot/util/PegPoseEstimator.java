@@ -0,0 +1,124 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.calib3d.Calib3d;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.MatOfPoint3f;
+import org.opencv.core.Point3;
+
+/**
+ * Finds the full pose of the peg from the corners of the two strips of tape with solvePnP.
+ * Every solve after a good one starts from the last pose, which takes far fewer iterations
+ * than solving from scratch while the robot only moves a little between frames.
+ * The points and the pose are kept in the same matrices from frame to frame.
+ */
+public class PegPoseEstimator {
+
+	private static final int CORNERS = 8;
+
+	private CameraIntrinsics intrinsics;
+	private Point3[] objectCorners;
+	private float[] imageCorners;
+
+	private MatOfPoint3f objectPoints;
+	private MatOfPoint2f imagePoints;
+	private Mat rvec;
+	private Mat tvec;
+	private boolean hasGuess;
+
+	/**
+	 * The pose is in the camera's coordinates, x to the right, y down and z out of the lens, in inches.
+	 * The origin of the target is halfway between the strips, with x to the right, y down and z into the wall.
+	 * @param intrinsics the camera the frames come from
+	 * @param targetSize the outside size of both strips together, in inches
+	 * @param stripWidth the width of each strip, in inches
+	 */
+	public PegPoseEstimator(CameraIntrinsics intrinsics, Dimension targetSize, double stripWidth){
+		this.intrinsics = intrinsics;
+		this.objectCorners = new Point3[CORNERS];
+		this.imageCorners = new float[CORNERS * 2];
+		double outside = targetSize.width / 2;
+		double top = targetSize.height / 2;
+		for(int strip = 0; strip < 2; strip++){
+			double left = strip == 0 ? -outside : outside - stripWidth;
+			double right = left + stripWidth;
+			this.objectCorners[strip * 4] = new Point3(left, -top, 0);
+			this.objectCorners[strip * 4 + 1] = new Point3(right, -top, 0);
+			this.objectCorners[strip * 4 + 2] = new Point3(right, top, 0);
+			this.objectCorners[strip * 4 + 3] = new Point3(left, top, 0);
+		}
+	}
+
+	/**
+	 * Estimates the pose from the two strips' boxes.
+	 * @param left the left strip
+	 * @param right the right strip
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @return the pose, or null if it could not be found
+	 */
+	public Peg estimate(SingleTarget left, SingleTarget right, long timestamp){
+		setCorners(left, this.imageCorners, 0);
+		setCorners(right, this.imageCorners, 4);
+		return this.estimate(this.imageCorners, timestamp);
+	}
+
+	/**
+	 * Estimates the pose from the corners of the strips.
+	 * @param corners 16 values, the x and y of the left strip's top left, top right, bottom right and bottom left,
+	 * then the same for the right strip, in pixels
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @return the pose, or null if it could not be found
+	 */
+	public Peg estimate(float[] corners, long timestamp){
+		if(this.objectPoints == null){
+			this.objectPoints = new MatOfPoint3f(this.objectCorners);
+			this.imagePoints = new MatOfPoint2f();
+			this.imagePoints.alloc(CORNERS);
+			this.rvec = new Mat(3, 1, CvType.CV_64FC1);
+			this.tvec = new Mat(3, 1, CvType.CV_64FC1);
+		}
+		this.imagePoints.put(0, 0, corners);
+		boolean solved = Calib3d.solvePnP(this.objectPoints, this.imagePoints, this.intrinsics.getCameraMatrix(),
+				this.intrinsics.getDistortionCoefficients(), this.rvec, this.tvec, this.hasGuess, Calib3d.SOLVEPNP_ITERATIVE);
+		double depth = this.tvec.get(2, 0)[0];
+		if(!solved || !(depth > 0) || Double.isInfinite(depth)){
+			// a bad pose would only pull the next solve the wrong way
+			this.hasGuess = false;
+			return null;
+		}
+		this.hasGuess = true;
+		return new Peg(this.tvec, this.rvec, timestamp);
+	}
+
+	/**
+	 * Forgets the last pose, so the next solve starts from scratch. Called when the peg is lost.
+	 */
+	public void reset(){
+		this.hasGuess = false;
+	}
+
+	/**
+	 * Writes the corners of the strip, top left, top right, bottom right then bottom left. They are
+	 * the refined corners if the target has them, otherwise the corners of its box.
+	 */
+	static void setCorners(SingleTarget target, float[] out, int index){
+		if(target.hasCorners()){
+			target.getCorners(out, index);
+			return;
+		}
+		float left = (float) (target.getX() - target.getWidth() / 2);
+		float right = (float) (target.getX() + target.getWidth() / 2);
+		float top = (float) (target.getY() - target.getHeight() / 2);
+		float bottom = (float) (target.getY() + target.getHeight() / 2);
+		int i = index * 2;
+		out[i] = left;
+		out[i + 1] = top;
+		out[i + 2] = right;
+		out[i + 3] = top;
+		out[i + 4] = right;
+		out[i + 5] = bottom;
+		out[i + 6] = left;
+		out[i + 7] = bottom;
+	}
+}
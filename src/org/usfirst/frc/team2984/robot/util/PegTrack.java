@@ -0,0 +1,207 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * A filtered track of the peg: the distance to it, the angle it is off of the camera's center
+ * and the clock angle around it, each with its rate of change. Between frames the track is moved
+ * by the robot's own motion from the gyro and the encoders, and every detection corrects it,
+ * so a few bad or missing frames don't lose the peg. Frames are processed a while after they are
+ * captured, so each detection is first moved on by however much the track was predicted to change
+ * since its frame was captured.
+ */
+public class PegTrack {
+
+	private static final double RATE_NOISE_SCALE = 10; // how unsure the rates are before they have been measured, in measurement noises per second
+	private static final int HISTORY_SIZE = 32; // predictions kept to look up where the track was when a frame was captured, over half a second at 50 Hz
+
+	private ConstantVelocityFilter distance;
+	private ConstantVelocityFilter rotation;
+	private ConstantVelocityFilter clockAngle;
+	private long maxCoast;
+	private HeadingHistory distanceHistory;
+	private HeadingHistory rotationHistory;
+	private HeadingHistory clockAngleHistory;
+
+	private boolean hasOdometry;
+	private long lastPrediction;
+	private double lastHeading;
+	private double lastX;
+	private double lastY;
+	private long lastMeasurement;
+
+	/**
+	 * @param distanceNoise the standard deviation of a measured distance in inches
+	 * @param angleNoise the standard deviation of a measured angle in degrees
+	 * @param distanceAcceleration the standard deviation of unexplained changes in the distance's rate in inches per second squared
+	 * @param angleAcceleration the standard deviation of unexplained changes in the angles' rates in degrees per second squared
+	 * @param maxCoast how long the track is kept without a detection, in seconds
+	 */
+	public PegTrack(double distanceNoise, double angleNoise, double distanceAcceleration, double angleAcceleration, double maxCoast){
+		this.distance = new ConstantVelocityFilter(distanceAcceleration, distanceNoise, distanceNoise * RATE_NOISE_SCALE);
+		this.rotation = new ConstantVelocityFilter(angleAcceleration, angleNoise, angleNoise * RATE_NOISE_SCALE);
+		this.clockAngle = new ConstantVelocityFilter(angleAcceleration, angleNoise, angleNoise * RATE_NOISE_SCALE);
+		this.maxCoast = (long) (maxCoast * 1000000000L);
+		this.distanceHistory = new HeadingHistory(HISTORY_SIZE);
+		this.rotationHistory = new HeadingHistory(HISTORY_SIZE);
+		this.clockAngleHistory = new HeadingHistory(HISTORY_SIZE);
+		this.reset();
+	}
+
+	/**
+	 * Forgets the peg and the robot's motion.
+	 */
+	public synchronized void reset(){
+		this.distance.reset();
+		this.rotation.reset();
+		this.clockAngle.reset();
+		this.clearHistory();
+		this.hasOdometry = false;
+	}
+
+	/**
+	 * Moves the track forward to the given time using how the robot moved since the last prediction.
+	 * @param time the System.nanoTime() now
+	 * @param heading the gyro's angle in degrees, clockwise
+	 * @param x how far the robot has moved to its right in inches
+	 * @param y how far the robot has moved forward in inches
+	 */
+	public synchronized void predict(long time, double heading, double x, double y){
+		if(this.hasOdometry && this.distance.isInitialized()){
+			double dt = (time - this.lastPrediction) / 1e9;
+			double range = this.distance.getValue();
+			double bearing = Math.toRadians(this.rotation.getValue());
+			// where the peg is from the robot after driving, before turning
+			double pegX = range * Math.sin(bearing) - (x - this.lastX);
+			double pegY = range * Math.cos(bearing) - (y - this.lastY);
+			double bearingChange = Math.toDegrees(Math.atan2(pegX, pegY) - bearing);
+			this.distance.predict(dt, Math.hypot(pegX, pegY) - range);
+			// turning moves the peg across the camera but not the robot around the peg
+			this.rotation.predict(dt, bearingChange - (heading - this.lastHeading));
+			this.clockAngle.predict(dt, -bearingChange);
+		}
+		this.hasOdometry = true;
+		this.lastPrediction = time;
+		this.lastHeading = heading;
+		this.lastX = x;
+		this.lastY = y;
+		if(this.distance.isInitialized()){
+			this.recordHistory(time);
+		}
+	}
+
+	/**
+	 * Corrects the track from a detection. The measurements are of the peg when the frame was
+	 * captured, so they are moved on by the change in the predicted track since then before being used.
+	 * The first detection is taken as it is.
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @param distance the measured distance in inches
+	 * @param rotation the measured angle off of the camera's center in degrees
+	 * @param clockAngle the measured clock angle in degrees
+	 */
+	public synchronized void correct(long timestamp, double distance, double rotation, double clockAngle){
+		if(this.distanceHistory.size() > 0){
+			distance += this.distance.getValue() - this.distanceHistory.getAngleAt(timestamp);
+			rotation += this.rotation.getValue() - this.rotationHistory.getAngleAt(timestamp);
+			clockAngle += this.clockAngle.getValue() - this.clockAngleHistory.getAngleAt(timestamp);
+		}
+		this.distance.correct(distance);
+		this.rotation.correct(rotation);
+		this.clockAngle.correct(clockAngle);
+		this.lastMeasurement = timestamp;
+		// the older predictions are from before this correction, so only the corrected track is kept
+		this.clearHistory();
+		if(this.hasOdometry){
+			this.recordHistory(this.lastPrediction);
+		}
+	}
+
+	private void recordHistory(long time){
+		this.distanceHistory.record(time, this.distance.getValue());
+		this.rotationHistory.record(time, this.rotation.getValue());
+		this.clockAngleHistory.record(time, this.clockAngle.getValue());
+	}
+
+	private void clearHistory(){
+		this.distanceHistory.clear();
+		this.rotationHistory.clear();
+		this.clockAngleHistory.clear();
+	}
+
+	/**
+	 * Returns whether or not there has been a detection recently enough to keep following the track.
+	 * @param time the System.nanoTime() now
+	 * @return whether or not the track can be used
+	 */
+	public synchronized boolean isValid(long time){
+		return this.distance.isInitialized() && time - this.lastMeasurement <= this.maxCoast;
+	}
+
+	public synchronized double getDistance(){
+		return this.distance.getValue();
+	}
+
+	public synchronized double getRotation(){
+		return this.rotation.getValue();
+	}
+
+	public synchronized double getClockAngle(){
+		return this.clockAngle.getValue();
+	}
+
+	/**
+	 * @return the rate the distance is changing at in inches per second
+	 */
+	public synchronized double getDistanceRate(){
+		return this.distance.getRate();
+	}
+
+	/**
+	 * @return the rate the rotation is changing at, not counting the robot's motion, in degrees per second
+	 */
+	public synchronized double getRotationRate(){
+		return this.rotation.getRate();
+	}
+
+	/**
+	 * @return the rate the clock angle is changing at, not counting the robot's motion, in degrees per second
+	 */
+	public synchronized double getClockAngleRate(){
+		return this.clockAngle.getRate();
+	}
+
+	public synchronized double getDistanceVariance(){
+		return this.distance.getValueVariance();
+	}
+
+	public synchronized double getRotationVariance(){
+		return this.rotation.getValueVariance();
+	}
+
+	public synchronized double getClockAngleVariance(){
+		return this.clockAngle.getValueVariance();
+	}
+
+	/**
+	 * @return the covariance of the distance and its rate as {value variance, covariance, rate variance}
+	 */
+	public synchronized double[] getDistanceCovariance(){
+		return covariance(this.distance);
+	}
+
+	public synchronized double[] getRotationCovariance(){
+		return covariance(this.rotation);
+	}
+
+	public synchronized double[] getClockAngleCovariance(){
+		return covariance(this.clockAngle);
+	}
+
+	private static double[] covariance(ConstantVelocityFilter filter){
+		return new double[]{filter.getValueVariance(), filter.getCovariance(), filter.getRateVariance()};
+	}
+
+	public synchronized String toString(){
+		return "Peg Track { Distance: " + this.distance.getValue() + " +/- " + Math.sqrt(this.distance.getValueVariance())
+				+ ", Rotation: " + this.rotation.getValue() + " +/- " + Math.sqrt(this.rotation.getValueVariance())
+				+ ", Clock Angle: " + this.clockAngle.getValue() + " +/- " + Math.sqrt(this.clockAngle.getValueVariance()) + "}";
+	}
+}
@@ -0,0 +1,133 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * A function made of straight lines between values at evenly spaced knots, so evaluating it is a
+ * multiply to find the knot and one interpolation. Past the first or last knot the end lines carry on.
+ */
+public class PiecewiseLinear {
+
+	private static final double SMOOTHING = 1e-6; // how much knots are pulled towards their neighbours, only matters for knots without samples
+
+	private double start;
+	private double step;
+	private double[] values;
+
+	/**
+	 * @param start where the first knot is
+	 * @param end where the last knot is
+	 * @param values the value at each knot, at least two
+	 */
+	public PiecewiseLinear(double start, double end, double[] values){
+		if(values.length < 2 || !(end > start)){
+			throw new IllegalArgumentException("Need at least two knots over a range, got " + values.length + " from " + start + " to " + end);
+		}
+		this.start = start;
+		this.step = (end - start) / (values.length - 1);
+		this.values = values.clone();
+	}
+
+	/**
+	 * @param x where to evaluate the function
+	 * @return the value at x
+	 */
+	public double evaluate(double x){
+		double position = (x - this.start) / this.step;
+		int knot = (int) Math.floor(position);
+		if(knot < 0){
+			knot = 0;
+		} else if(knot > this.values.length - 2){
+			knot = this.values.length - 2;
+		}
+		double fraction = position - knot;
+		return this.values[knot] + (this.values[knot + 1] - this.values[knot]) * fraction;
+	}
+
+	public double getStart(){
+		return this.start;
+	}
+
+	public double getEnd(){
+		return this.start + this.step * (this.values.length - 1);
+	}
+
+	/**
+	 * @return a copy of the value at each knot
+	 */
+	public double[] getValues(){
+		return this.values.clone();
+	}
+
+	/**
+	 * Fits the function to the samples by least squares, with the knots spread evenly from the
+	 * smallest to the largest x. A knot with no samples next to it is interpolated from its neighbours.
+	 * @param x where each sample was taken
+	 * @param y the value of each sample
+	 * @param knots how many knots to use, at least two
+	 * @return the fitted function
+	 */
+	public static PiecewiseLinear fit(double[] x, double[] y, int knots){
+		if(x.length != y.length || x.length < 2 || knots < 2){
+			throw new IllegalArgumentException("Need at least two samples and two knots, got " + x.length + " samples and " + knots + " knots");
+		}
+		double start = Double.POSITIVE_INFINITY;
+		double end = Double.NEGATIVE_INFINITY;
+		for(double value : x){
+			start = Math.min(start, value);
+			end = Math.max(end, value);
+		}
+		if(!(end > start)){
+			throw new IllegalArgumentException("Samples all at " + start);
+		}
+		double step = (end - start) / (knots - 1);
+		// each sample only touches the two knots around it, so the normal equations are tridiagonal
+		double[] diagonal = new double[knots];
+		double[] upper = new double[knots];
+		double[] right = new double[knots];
+		for(int i = 0; i < x.length; i++){
+			double position = (x[i] - start) / step;
+			int knot = Math.min((int) position, knots - 2);
+			double b = position - knot;
+			double a = 1 - b;
+			diagonal[knot] += a * a;
+			diagonal[knot + 1] += b * b;
+			upper[knot] += a * b;
+			right[knot] += a * y[i];
+			right[knot + 1] += b * y[i];
+		}
+		double smoothing = SMOOTHING * x.length;
+		for(int i = 0; i < knots - 1; i++){
+			diagonal[i] += smoothing;
+			diagonal[i + 1] += smoothing;
+			upper[i] -= smoothing;
+		}
+		return new PiecewiseLinear(start, end, solveTridiagonal(diagonal, upper, right));
+	}
+
+	/**
+	 * Solves a symmetric tridiagonal system with the Thomas algorithm.
+	 */
+	private static double[] solveTridiagonal(double[] diagonal, double[] upper, double[] right){
+		int n = diagonal.length;
+		double[] c = new double[n];
+		double[] d = new double[n];
+		c[0] = upper[0] / diagonal[0];
+		d[0] = right[0] / diagonal[0];
+		for(int i = 1; i < n; i++){
+			double m = diagonal[i] - upper[i - 1] * c[i - 1];
+			c[i] = upper[i] / m;
+			d[i] = (right[i] - upper[i - 1] * d[i - 1]) / m;
+		}
+		double[] result = new double[n];
+		result[n - 1] = d[n - 1];
+		for(int i = n - 2; i >= 0; i--){
+			result[i] = d[i] - c[i] * result[i + 1];
+		}
+		return result;
+	}
+
+	public String toString(){
+		return "Piecewise Linear { From: " + this.start + ", To: " + this.getEnd() + ", Values: " + Arrays.toString(this.values) + "}";
+	}
+}
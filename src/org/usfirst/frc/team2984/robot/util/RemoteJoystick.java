@@ -1,12 +1,12 @@
 package org.usfirst.frc.team2984.robot.util;
 
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.networktables.NetworkTable;
 
 public class RemoteJoystick {
 	private static RemoteJoystick instance;
 	
 	private NetworkTable table;
+	private ErrorReporter errors;
 	
 	public static RemoteJoystick getInstance() {
 		if (instance == null) {
@@ -19,7 +19,12 @@ public class RemoteJoystick {
 	}
 	
 	public RemoteJoystick(NetworkTable table) {
+		this(table, ErrorReporter.getInstance());
+	}
+	
+	public RemoteJoystick(NetworkTable table, ErrorReporter errors) {
 		this.table = table;
+		this.errors = errors;
 	}
 	
 	public Motion getMotion() {
@@ -67,7 +72,7 @@ public class RemoteJoystick {
 
 	private void testConnection() {
 		if (!table.isConnected()) {
-			DriverStation.reportError("ArduinoReader is not running!", false);
+			errors.report("Remote Joystick", "ArduinoReader is not running!");
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * The part of the frame to look for the peg in. After a track it is the area around the last
+ * pair of targets grown by a margin, after too many misses in a row it goes back to the whole frame.
+ */
+public class SearchWindow {
+
+	private static final int ALIGNMENT = 8;
+	private static final int MIN_MARGIN = 16;
+
+	private int frameWidth;
+	private int frameHeight;
+	private double margin;
+	private int maxMisses;
+
+	private int x;
+	private int y;
+	private int width;
+	private int height;
+	private int misses;
+	private boolean active;
+
+	/**
+	 * @param frameWidth the width of the whole frame in pixels
+	 * @param frameHeight the height of the whole frame in pixels
+	 * @param margin how far to grow the window on each side, as a fraction of the larger side of the last pair
+	 * @param maxMisses how many frames in a row can miss before searching the whole frame again
+	 */
+	public SearchWindow(int frameWidth, int frameHeight, double margin, int maxMisses){
+		this.frameWidth = frameWidth;
+		this.frameHeight = frameHeight;
+		this.margin = margin;
+		this.maxMisses = maxMisses;
+		this.reset();
+	}
+
+	/**
+	 * Goes back to searching the whole frame.
+	 */
+	public void reset(){
+		this.x = 0;
+		this.y = 0;
+		this.width = this.frameWidth;
+		this.height = this.frameHeight;
+		this.misses = 0;
+		this.active = false;
+	}
+
+	/**
+	 * Moves the window around the bounding box of the targets that were just found.
+	 * The window is snapped to an 8 pixel grid so it only changes when the targets move a fair amount.
+	 */
+	public void found(double minX, double minY, double maxX, double maxY){
+		double grow = Math.max(Math.max(maxX - minX, maxY - minY) * this.margin, MIN_MARGIN);
+		int left = clamp(floor(minX - grow), this.frameWidth);
+		int top = clamp(floor(minY - grow), this.frameHeight);
+		int right = clamp(ceil(maxX + grow), this.frameWidth);
+		int bottom = clamp(ceil(maxY + grow), this.frameHeight);
+		this.x = left;
+		this.y = top;
+		this.width = right - left;
+		this.height = bottom - top;
+		this.misses = 0;
+		this.active = this.width > 0 && this.height > 0 && (this.width < this.frameWidth || this.height < this.frameHeight);
+		if(!this.active){
+			this.reset();
+		}
+	}
+
+	/**
+	 * Records a frame without a track, going back to the whole frame after too many.
+	 */
+	public void missed(){
+		this.misses++;
+		if(this.misses >= this.maxMisses){
+			this.reset();
+		}
+	}
+
+	/**
+	 * Returns whether or not only part of the frame is being searched.
+	 * @return whether or not only part of the frame is being searched
+	 */
+	public boolean isActive(){
+		return this.active;
+	}
+
+	public int getX(){
+		return this.x;
+	}
+
+	public int getY(){
+		return this.y;
+	}
+
+	public int getWidth(){
+		return this.width;
+	}
+
+	public int getHeight(){
+		return this.height;
+	}
+
+	private static int floor(double value){
+		return (int) Math.floor(value / ALIGNMENT) * ALIGNMENT;
+	}
+
+	private static int ceil(double value){
+		return (int) Math.ceil(value / ALIGNMENT) * ALIGNMENT;
+	}
+
+	private static int clamp(int value, int max){
+		return Math.min(Math.max(value, 0), max);
+	}
+
+	public String toString(){
+		return "Search Window { X: " + this.x + ", Y: " + this.y + ", Width: " + this.width + ", Height: " + this.height + "}";
+	}
+}
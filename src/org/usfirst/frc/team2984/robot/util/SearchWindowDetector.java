@@ -0,0 +1,80 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * Runs another detector on only the part of the image around the last pair of targets, see SearchWindow.
+ */
+public class SearchWindowDetector implements TargetDetector {
+
+	private TargetDetector detector;
+	private SearchWindow window;
+	private Point offset;
+	private Frame frame;
+
+	/**
+	 * @param detector the detector to run on the window
+	 * @param window the window, sized to the whole frame
+	 */
+	public SearchWindowDetector(TargetDetector detector, SearchWindow window){
+		this.detector = detector;
+		this.window = window;
+		this.offset = new Point();
+	}
+
+	/**
+	 * Looks in the image, for callers without a Frame. The image is wrapped in a Frame of its own
+	 * the first time it is seen, so its window is still only cut out again when the window moves.
+	 */
+	@Override
+	public double detect(Mat image, Point offset, SingleTarget[] targets){
+		if(this.frame == null || this.frame.getImage() != image){
+			this.frame = new Frame(image);
+		}
+		return this.detect(this.frame, offset, targets);
+	}
+
+	/**
+	 * Looks in the frame. The window is cut out of the frame with Frame.getRegion, so each of the
+	 * buffers the FrameExchanger rotates keeps its own sub matrix instead of it being remade every frame.
+	 */
+	@Override
+	public double detect(Frame frame, Point offset, SingleTarget[] targets){
+		Mat image = frame.getImage();
+		SearchWindow window = this.window;
+		if(window.isActive() && (window.getX() + window.getWidth() > image.cols() || window.getY() + window.getHeight() > image.rows())){
+			window.reset();
+		}
+		double confidence;
+		if(window.isActive()){
+			this.offset.x = offset.x + window.getX();
+			this.offset.y = offset.y + window.getY();
+			Mat region = frame.getRegion(window.getX(), window.getY(), window.getWidth(), window.getHeight());
+			confidence = this.detector.detect(region, this.offset, targets);
+		} else {
+			confidence = this.detector.detect(image, offset, targets);
+		}
+		if(confidence > 0){
+			double minX = Math.min(targets[0].getX() - targets[0].getWidth()/2, targets[1].getX() - targets[1].getWidth()/2);
+			double minY = Math.min(targets[0].getY() - targets[0].getHeight()/2, targets[1].getY() - targets[1].getHeight()/2);
+			double maxX = Math.max(targets[0].getX() + targets[0].getWidth()/2, targets[1].getX() + targets[1].getWidth()/2);
+			double maxY = Math.max(targets[0].getY() + targets[0].getHeight()/2, targets[1].getY() + targets[1].getHeight()/2);
+			window.found(minX - offset.x, minY - offset.y, maxX - offset.x, maxY - offset.y);
+		} else {
+			window.missed();
+		}
+		return confidence;
+	}
+
+	@Override
+	public int getBlobs(Blob[] blobs){
+		return this.detector.getBlobs(blobs);
+	}
+
+	@Override
+	public void reset(){
+		this.window.reset();
+		this.detector.reset();
+	}
+}
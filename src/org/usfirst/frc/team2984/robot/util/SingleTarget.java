@@ -9,6 +9,14 @@ public class SingleTarget {
 	private double y;
 	private double width;
 	private double height;
+	private float[] corners = new float[8];
+	private boolean hasCorners;
+	
+	/**
+	 * Creates an empty target that can be filled in with set, so that it can be reused every frame.
+	 */
+	public SingleTarget(){
+	}
 	
 	public SingleTarget(RotatedRect boundingRect, Moments mu){
 		this.x = (mu.get_m10() / mu.get_m00());
@@ -22,6 +30,54 @@ public class SingleTarget {
 		}
 	}
 
+	/**
+	 * Sets the target from the blob's centroid and minimum area rectangle.
+	 * @param blob the blob to copy the measurements from
+	 */
+	public void set(Blob blob){
+		this.set(blob.getCenterX(), blob.getCenterY(), blob.getWidth(), blob.getHeight());
+	}
+	
+	public void set(double x, double y, double width, double height){
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+		this.hasCorners = false;
+	}
+	
+	/**
+	 * Sets the target from its four corners, found more precisely than the box. The center is their
+	 * mean, the width the mean of the top and bottom sides and the height the mean of the left and right.
+	 * @param corners the x and y of the top left, top right, bottom right and bottom left
+	 * @param index the first corner to use, each corner is two values
+	 */
+	public void setCorners(float[] corners, int index){
+		System.arraycopy(corners, index * 2, this.corners, 0, 8);
+		float[] c = this.corners;
+		this.x = (c[0] + c[2] + c[4] + c[6]) / 4D;
+		this.y = (c[1] + c[3] + c[5] + c[7]) / 4D;
+		this.width = (Math.hypot(c[2] - c[0], c[3] - c[1]) + Math.hypot(c[4] - c[6], c[5] - c[7])) / 2;
+		this.height = (Math.hypot(c[6] - c[0], c[7] - c[1]) + Math.hypot(c[4] - c[2], c[5] - c[3])) / 2;
+		this.hasCorners = true;
+	}
+	
+	/**
+	 * @return whether or not the target was set from its corners rather than a box
+	 */
+	public boolean hasCorners(){
+		return this.hasCorners;
+	}
+	
+	/**
+	 * Writes the corners set with setCorners, top left, top right, bottom right then bottom left.
+	 * @param out where to write the x and y of each corner
+	 * @param index the first corner to write, each corner is two values
+	 */
+	public void getCorners(float[] out, int index){
+		System.arraycopy(this.corners, 0, out, index * 2, 8);
+	}
+
 	public double getX() {
 		return x;
 	}
@@ -0,0 +1,189 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.Random;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Draws what the camera would see of the two strips of tape around the peg from a known pose, so
+ * that the vision code can be tested and benchmarked against ground truth without a field.
+ * The strips are projected with a pinhole model of the camera, pitched up by the camera's angle.
+ * Noise, blur and distractor blobs of the same colour can be added on top.
+ */
+public class SyntheticTargetRenderer {
+
+	public static final Scalar TAPE_COLOR = new Scalar(40, 255, 60);
+	public static final Scalar BACKGROUND_COLOR = new Scalar(30, 30, 30);
+
+	private CameraSpecification camera;
+	private Dimension targetSize;
+	private double stripWidth;
+	private double focalX;
+	private double focalY;
+	private double centerX;
+	private double centerY;
+
+	private double noise;
+	private int blur;
+	private int distractors;
+	private Random random;
+
+	private double[] corners;
+	private Point[][] polygons;
+	private MatOfPoint polygon;
+	private Mat noiseMat;
+
+	/**
+	 * @param camera the camera to render for
+	 * @param targetSize the outside size of both strips together, in inches
+	 * @param stripWidth the width of each strip, in inches
+	 */
+	public SyntheticTargetRenderer(CameraSpecification camera, Dimension targetSize, double stripWidth){
+		this.camera = camera;
+		this.targetSize = targetSize;
+		this.stripWidth = stripWidth;
+		this.centerX = camera.resolution.width / 2;
+		this.centerY = camera.resolution.height / 2;
+		this.focalX = this.centerX / Math.tan(Math.toRadians(camera.angularFieldOfView.width / 2));
+		this.focalY = this.centerY / Math.tan(Math.toRadians(camera.angularFieldOfView.height / 2));
+		this.random = new Random(0);
+		this.corners = new double[16];
+		this.polygons = new Point[2][4];
+		for(int i = 0; i < 2; i++){
+			for(int j = 0; j < 4; j++){
+				this.polygons[i][j] = new Point();
+			}
+		}
+	}
+
+	/**
+	 * @param sigma the standard deviation of the gaussian noise added to every channel, 0 for none
+	 */
+	public void setNoise(double sigma){
+		this.noise = sigma;
+	}
+
+	/**
+	 * @param kernel the size of the gaussian blur, 0 for none, otherwise odd
+	 */
+	public void setBlur(int kernel){
+		this.blur = kernel;
+	}
+
+	/**
+	 * @param count the number of tape coloured blobs to scatter around the frame
+	 */
+	public void setDistractors(int count){
+		this.distractors = count;
+	}
+
+	/**
+	 * Restarts the random noise and distractors so frames can be repeated.
+	 */
+	public void setSeed(long seed){
+		this.random.setSeed(seed);
+	}
+
+	/**
+	 * Finds where the corners of both strips land in the image.
+	 * @param pose where the camera is
+	 * @param out 16 values, the x and y of the left strip's top left, top right, bottom right and bottom left,
+	 * then the same for the right strip, in pixels
+	 * @return whether or not every corner is in front of the camera
+	 */
+	public boolean project(CameraPose pose, double[] out){
+		double clock = Math.toRadians(pose.getClockAngle());
+		double yaw = Math.toRadians(pose.getYaw());
+		double pitch = Math.toRadians(this.camera.angle);
+
+		// target coordinates, x to the right when facing the peg, y up and z out of the wall
+		double cameraX = pose.getDistance() * Math.sin(clock);
+		double cameraY = pose.getHeight();
+		double cameraZ = pose.getDistance() * Math.cos(clock);
+
+		// the direction that looks straight at the target along the floor, turned by the yaw
+		double heading = Math.atan2(-cameraX, -cameraZ) - yaw;
+		double flatX = Math.sin(heading);
+		double flatZ = Math.cos(heading);
+		double forwardX = flatX * Math.cos(pitch);
+		double forwardY = Math.sin(pitch);
+		double forwardZ = flatZ * Math.cos(pitch);
+		double rightX = -flatZ;
+		double rightZ = flatX;
+		double upX = -flatX * Math.sin(pitch);
+		double upY = Math.cos(pitch);
+		double upZ = -flatZ * Math.sin(pitch);
+
+		double outside = this.targetSize.width / 2;
+		double top = this.targetSize.height / 2;
+		boolean visible = true;
+		for(int strip = 0; strip < 2; strip++){
+			double left = strip == 0 ? -outside : outside - this.stripWidth;
+			double right = left + this.stripWidth;
+			for(int corner = 0; corner < 4; corner++){
+				double x = corner == 0 || corner == 3 ? left : right;
+				double y = corner < 2 ? top : -top;
+				double dx = x - cameraX;
+				double dy = y - cameraY;
+				double dz = -cameraZ;
+				double depth = dx * forwardX + dy * forwardY + dz * forwardZ;
+				double across = dx * rightX + dz * rightZ;
+				double up = dx * upX + dy * upY + dz * upZ;
+				int index = (strip * 4 + corner) * 2;
+				visible &= depth > 0;
+				out[index] = this.centerX + this.focalX * across / depth;
+				out[index + 1] = this.centerY - this.focalY * up / depth;
+			}
+		}
+		return visible;
+	}
+
+	/**
+	 * Draws the frame the camera would see. Unlike project, this needs opencv's native library.
+	 * @param pose where the camera is
+	 * @param out the image to draw into, made BGR at the camera's resolution
+	 */
+	public void render(CameraPose pose, Mat out){
+		int width = (int) (this.camera.resolution.width + 0.5);
+		int height = (int) (this.camera.resolution.height + 0.5);
+		if(this.polygon == null){
+			this.polygon = new MatOfPoint();
+			this.noiseMat = new Mat();
+		}
+		out.create(height, width, CvType.CV_8UC3);
+		out.setTo(BACKGROUND_COLOR);
+		for(int i = 0; i < this.distractors; i++){
+			int size = 4 + this.random.nextInt(Math.max(height / 8, 1));
+			int x = this.random.nextInt(width);
+			int y = this.random.nextInt(height);
+			Imgproc.rectangle(out, new Point(x, y), new Point(x + size, y + size * (1 + this.random.nextInt(3))), TAPE_COLOR, -1);
+		}
+		if(this.project(pose, this.corners)){
+			for(int strip = 0; strip < 2; strip++){
+				for(int corner = 0; corner < 4; corner++){
+					int index = (strip * 4 + corner) * 2;
+					this.polygons[strip][corner].x = this.corners[index];
+					this.polygons[strip][corner].y = this.corners[index + 1];
+				}
+				this.polygon.fromArray(this.polygons[strip]);
+				Imgproc.fillConvexPoly(out, this.polygon, TAPE_COLOR);
+			}
+		}
+		if(this.blur > 0){
+			Imgproc.GaussianBlur(out, out, new Size(this.blur, this.blur), 0);
+		}
+		if(this.noise > 0){
+			this.noiseMat.create(out.size(), CvType.CV_16SC3);
+			Core.setRNGSeed(this.random.nextInt());
+			Core.randn(this.noiseMat, 0, this.noise);
+			Core.add(out, this.noiseMat, out, new Mat(), CvType.CV_8UC3);
+		}
+	}
+}
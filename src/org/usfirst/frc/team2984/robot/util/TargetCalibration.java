@@ -0,0 +1,198 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Distance and rotation to the peg measured from samples taken with the robot at known spots,
+ * instead of worked out from the field of view, so lens distortion and how the camera is mounted
+ * are taken into account. The distance is a PiecewiseLinear of one over the target's height in
+ * pixels, which is close to a straight line, and the rotation is one of the target's offset from
+ * the center, so neither needs any trig.
+ *
+ * Samples are kept one per line as the height, offset, true distance in inches and true rotation in
+ * degrees. The fitted model is kept as a line for each function with its name, first knot, last
+ * knot and the value at every knot.
+ */
+public class TargetCalibration {
+
+	private PiecewiseLinear distance;
+	private PiecewiseLinear rotation;
+
+	/**
+	 * @param distance the distance in inches from one over the target's height in pixels
+	 * @param rotation the rotation in degrees from the target's offset from the center in pixels
+	 */
+	public TargetCalibration(PiecewiseLinear distance, PiecewiseLinear rotation){
+		this.distance = distance;
+		this.rotation = rotation;
+	}
+
+	/**
+	 * @param height the target's height in pixels
+	 * @return the distance to the target in inches
+	 */
+	public double getDistance(double height){
+		return this.distance.evaluate(1 / height);
+	}
+
+	/**
+	 * @param offset the target's offset from the center in pixels
+	 * @return the rotation of the camera in degrees, the same way as VisionTarget.getRotation
+	 */
+	public double getRotation(double offset){
+		return this.rotation.evaluate(offset);
+	}
+
+	public PiecewiseLinear getDistanceFunction(){
+		return this.distance;
+	}
+
+	public PiecewiseLinear getRotationFunction(){
+		return this.rotation;
+	}
+
+	/**
+	 * Fits both functions to the samples.
+	 * @param heights the target's height in pixels in each sample
+	 * @param offsets the target's offset from the center in pixels in each sample
+	 * @param distances the true distance in inches of each sample
+	 * @param rotations the true rotation in degrees of each sample
+	 * @param knots how many knots each function has
+	 * @return the calibration
+	 */
+	public static TargetCalibration fit(double[] heights, double[] offsets, double[] distances, double[] rotations, int knots){
+		double[] inverseHeights = new double[heights.length];
+		for(int i = 0; i < heights.length; i++){
+			inverseHeights[i] = 1 / heights[i];
+		}
+		return new TargetCalibration(PiecewiseLinear.fit(inverseHeights, distances, knots), PiecewiseLinear.fit(offsets, rotations, knots));
+	}
+
+	/**
+	 * Fits both functions to the samples in a file written by record.
+	 * @param samples the file of samples
+	 * @param knots how many knots each function has
+	 * @return the calibration
+	 * @throws IOException if the samples couldn't be read
+	 */
+	public static TargetCalibration fit(File samples, int knots) throws IOException{
+		List<double[]> rows = read(samples);
+		int count = rows.size();
+		double[] heights = new double[count];
+		double[] offsets = new double[count];
+		double[] distances = new double[count];
+		double[] rotations = new double[count];
+		for(int i = 0; i < count; i++){
+			double[] row = rows.get(i);
+			if(row.length != 4){
+				throw new IOException("Expected height, offset, distance and rotation in " + samples + " line " + (i + 1));
+			}
+			heights[i] = row[0];
+			offsets[i] = row[1];
+			distances[i] = row[2];
+			rotations[i] = row[3];
+		}
+		return fit(heights, offsets, distances, rotations, knots);
+	}
+
+	/**
+	 * Adds a sample to the end of the file, creating it if it doesn't exist.
+	 * @param samples the file of samples
+	 * @param target what the camera saw
+	 * @param distance the true distance in inches
+	 * @param rotation the true rotation in degrees
+	 * @throws IOException if the sample couldn't be written
+	 */
+	public static void record(File samples, VisionTarget target, double distance, double rotation) throws IOException{
+		try(PrintWriter out = new PrintWriter(new FileWriter(samples, true))){
+			out.println(target.getHeight() + "," + target.getCenter() + "," + distance + "," + rotation);
+		}
+	}
+
+	/**
+	 * @param file where to write the calibration
+	 * @throws IOException if it couldn't be written
+	 */
+	public void save(File file) throws IOException{
+		try(PrintWriter out = new PrintWriter(new FileWriter(file))){
+			write(out, "distance", this.distance);
+			write(out, "rotation", this.rotation);
+		}
+	}
+
+	private static void write(PrintWriter out, String name, PiecewiseLinear function){
+		StringBuilder line = new StringBuilder(name);
+		line.append(',').append(function.getStart()).append(',').append(function.getEnd());
+		for(double value : function.getValues()){
+			line.append(',').append(value);
+		}
+		out.println(line);
+	}
+
+	/**
+	 * @param file a calibration written by save
+	 * @return the calibration
+	 * @throws IOException if it couldn't be read or is missing a function
+	 */
+	public static TargetCalibration load(File file) throws IOException{
+		PiecewiseLinear distance = null;
+		PiecewiseLinear rotation = null;
+		try(BufferedReader in = new BufferedReader(new FileReader(file))){
+			String line;
+			while((line = in.readLine()) != null){
+				String[] fields = line.split(",");
+				if(fields.length < 5){
+					continue;
+				}
+				double[] values = new double[fields.length - 3];
+				for(int i = 0; i < values.length; i++){
+					values[i] = Double.parseDouble(fields[i + 3]);
+				}
+				PiecewiseLinear function = new PiecewiseLinear(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), values);
+				if(fields[0].equals("distance")){
+					distance = function;
+				} else if(fields[0].equals("rotation")){
+					rotation = function;
+				}
+			}
+		} catch(IllegalArgumentException e){
+			throw new IOException("Bad calibration in " + file, e);
+		}
+		if(distance == null || rotation == null){
+			throw new IOException("Calibration in " + file + " is missing the distance or rotation");
+		}
+		return new TargetCalibration(distance, rotation);
+	}
+
+	private static List<double[]> read(File file) throws IOException{
+		List<double[]> rows = new ArrayList<double[]>();
+		try(BufferedReader in = new BufferedReader(new FileReader(file))){
+			String line;
+			while((line = in.readLine()) != null){
+				if(line.trim().isEmpty()){
+					continue;
+				}
+				String[] fields = line.split(",");
+				double[] row = new double[fields.length];
+				for(int i = 0; i < fields.length; i++){
+					row[i] = Double.parseDouble(fields[i].trim());
+				}
+				rows.add(row);
+			}
+		} catch(NumberFormatException e){
+			throw new IOException("Bad sample in " + file, e);
+		}
+		return rows;
+	}
+
+	public String toString(){
+		return "Target Calibration { Distance: " + this.distance + ", Rotation: " + this.rotation + "}";
+	}
+}
@@ -0,0 +1,43 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * Finds the two pieces of tape around the peg in a camera image.
+ */
+public interface TargetDetector {
+
+	/**
+	 * Looks for the pair of targets. The image is left as it was.
+	 * @param image the BGR image to look in
+	 * @param offset where the top left of the image is in the whole frame, targets are given in frame pixels
+	 * @param targets the two targets to fill in
+	 * @return how sure the detector is that the targets were found, from 0 to 1, 0 if they were not
+	 */
+	public double detect(Mat image, Point offset, SingleTarget[] targets);
+
+	/**
+	 * Looks for the pair of targets in a frame from the camera, which lets detectors keep things
+	 * that belong to the frame's buffer, like a sub matrix, in the frame. The image is left as it was.
+	 * @param frame the frame to look in
+	 * @param offset where the top left of the image is in the whole frame, targets are given in frame pixels
+	 * @param targets the two targets to fill in
+	 * @return how sure the detector is that the targets were found, from 0 to 1, 0 if they were not
+	 */
+	public default double detect(Frame frame, Point offset, SingleTarget[] targets){
+		return this.detect(frame.getImage(), offset, targets);
+	}
+
+	/**
+	 * Copies out every blob seen in the last frame, whether or not it was paired, for drawing.
+	 * @param blobs where to copy the blobs to, in frame pixels
+	 * @return the number of blobs copied
+	 */
+	public int getBlobs(Blob[] blobs);
+
+	/**
+	 * Forgets anything kept from earlier frames, used when tracking stops or the detector is swapped in.
+	 */
+	public void reset();
+}
@@ -0,0 +1,187 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * Picks the two strips of tape around the peg out of any number of blobs. Every pair of blobs, and
+ * every blob made by joining two that are stacked on top of each other where the peg splits a strip,
+ * is scored on how well it matches the shape of the target. Cheap checks run first so most pairs are
+ * thrown out before they are fully scored, and blobs are sorted left to right so the search for a
+ * partner stops once they are too far apart.
+ */
+public class TargetPairer {
+
+	private static final double MIN_HEIGHT_RATIO = 0.5;
+	private static final double MAX_VERTICAL_OFFSET = 0.5; // in strip heights
+	private static final double MIN_SPACING_RATIO = 0.25;
+	private static final double MAX_SPACING_RATIO = 1.5;
+	private static final double MIN_STACK_OVERLAP = 0.5; // of the narrower blob's width
+	private static final double MAX_STACK_GAP = 0.5; // in the taller blob's heights
+
+	private double expectedSpacing;
+	private double expectedAspect;
+	private double minConfidence;
+	private int capacity;
+
+	private Blob[] candidates;
+	private long[] members;
+	private int[] order;
+
+	/**
+	 * @param targetSize the outside size of both strips together
+	 * @param stripWidth the width of each strip
+	 * @param minConfidence the lowest confidence a pair can have and still be returned
+	 * @param capacity the most blobs that will be given at once, up to 64
+	 */
+	public TargetPairer(Dimension targetSize, double stripWidth, double minConfidence, int capacity){
+		this.expectedSpacing = (targetSize.width - stripWidth) / targetSize.height;
+		this.expectedAspect = stripWidth / targetSize.height;
+		this.minConfidence = minConfidence;
+		this.capacity = Math.min(capacity, 64);
+		// every blob, and then as many blobs joined from two as fit
+		int size = this.capacity * 2;
+		this.candidates = new Blob[size];
+		for(int i = 0; i < size; i++){
+			this.candidates[i] = new Blob();
+		}
+		this.members = new long[size];
+		this.order = new int[size];
+	}
+
+	/**
+	 * Finds the best pair.
+	 * @param blobs the blobs
+	 * @param count the number of blobs, at most the capacity
+	 * @param targets the two targets to set to the best pair, left then right
+	 * @return the confidence of the best pair from 0 to 1, 0 if there is none good enough
+	 */
+	public double pair(Blob[] blobs, int count, SingleTarget[] targets){
+		count = Math.min(count, this.capacity);
+		int size = 0;
+		for(int i = 0; i < count; i++){
+			this.candidates[size].copy(blobs[i]);
+			this.members[size] = 1L << i;
+			size++;
+		}
+		for(int i = 0; i < count && size < this.candidates.length; i++){
+			for(int j = i + 1; j < count && size < this.candidates.length; j++){
+				if(isStacked(blobs[i], blobs[j])){
+					stack(blobs[i], blobs[j], this.candidates[size]);
+					this.members[size] = (1L << i) | (1L << j);
+					size++;
+				}
+			}
+		}
+		this.sortByX(size);
+
+		double best = 0;
+		int bestLeft = -1;
+		int bestRight = -1;
+		for(int i = 0; i < size; i++){
+			Blob left = this.candidates[this.order[i]];
+			double reach = left.getHeight() / MIN_HEIGHT_RATIO * this.expectedSpacing * MAX_SPACING_RATIO;
+			for(int j = i + 1; j < size; j++){
+				Blob right = this.candidates[this.order[j]];
+				if(right.getCenterX() - left.getCenterX() > reach){
+					break;
+				}
+				if((this.members[this.order[i]] & this.members[this.order[j]]) != 0){
+					continue;
+				}
+				double score = this.score(left, right);
+				if(score > best){
+					best = score;
+					bestLeft = this.order[i];
+					bestRight = this.order[j];
+				}
+			}
+		}
+		if(bestLeft < 0 || best < this.minConfidence){
+			return 0;
+		}
+		targets[0].set(this.candidates[bestLeft]);
+		targets[1].set(this.candidates[bestRight]);
+		return best;
+	}
+
+	/**
+	 * Scores how much the two blobs look like the target, from 0 to 1.
+	 * @param left the blob further left
+	 * @param right the blob further right
+	 */
+	private double score(Blob left, Blob right){
+		double shorter = Math.min(left.getHeight(), right.getHeight());
+		double taller = Math.max(left.getHeight(), right.getHeight());
+		if(shorter <= 0 || shorter / taller < MIN_HEIGHT_RATIO){
+			return 0;
+		}
+		double height = (shorter + taller) / 2;
+		double offset = Math.abs(left.getCenterY() - right.getCenterY()) / height;
+		if(offset > MAX_VERTICAL_OFFSET){
+			return 0;
+		}
+		// turning the target only ever makes it look narrower
+		double spacing = (right.getCenterX() - left.getCenterX()) / height / this.expectedSpacing;
+		if(spacing < MIN_SPACING_RATIO || spacing > MAX_SPACING_RATIO){
+			return 0;
+		}
+		double spacingScore = spacing > 1 ? 1 - (spacing - 1) / (MAX_SPACING_RATIO - 1) : 1 - (1 - spacing) / 2;
+		double heightScore = (shorter / taller - MIN_HEIGHT_RATIO) / (1 - MIN_HEIGHT_RATIO);
+		double offsetScore = 1 - offset / MAX_VERTICAL_OFFSET;
+		double aspectScore = this.aspectScore(left) * this.aspectScore(right);
+		return Math.sqrt(Math.sqrt(heightScore * offsetScore * spacingScore * aspectScore));
+	}
+
+	/**
+	 * Scores how close the blob's width to height is to a strip's, wider than a strip is much worse
+	 * than narrower since turning only makes strips narrower.
+	 */
+	private double aspectScore(Blob blob){
+		double aspect = blob.getWidth() / blob.getHeight() / this.expectedAspect;
+		if(aspect > 1){
+			return 1 / (aspect * aspect);
+		}
+		return 0.5 + aspect / 2;
+	}
+
+	private static boolean isStacked(Blob a, Blob b){
+		double overlap = Math.min(a.getMaxX(), b.getMaxX()) - Math.max(a.getMinX(), b.getMinX());
+		double narrower = Math.min(a.getMaxX() - a.getMinX(), b.getMaxX() - b.getMinX());
+		if(overlap < narrower * MIN_STACK_OVERLAP){
+			return false;
+		}
+		double gap = Math.max(a.getMinY(), b.getMinY()) - Math.min(a.getMaxY(), b.getMaxY());
+		return gap < Math.max(a.getHeight(), b.getHeight()) * MAX_STACK_GAP;
+	}
+
+	/**
+	 * Sets the blob to the bounding box around both blobs.
+	 */
+	private static void stack(Blob a, Blob b, Blob out){
+		double minX = Math.min(a.getMinX(), b.getMinX());
+		double minY = Math.min(a.getMinY(), b.getMinY());
+		double maxX = Math.max(a.getMaxX(), b.getMaxX());
+		double maxY = Math.max(a.getMaxY(), b.getMaxY());
+		out.setShape(a.getArea() + b.getArea(), (minX + maxX) / 2, (minY + maxY) / 2);
+		out.setBounds(minX, minY, maxX, maxY);
+		out.setRotatedSize(maxX - minX, maxY - minY, 0);
+		out.setCorner(0, minX, minY);
+		out.setCorner(1, maxX, minY);
+		out.setCorner(2, maxX, maxY);
+		out.setCorner(3, minX, maxY);
+	}
+
+	/**
+	 * Insertion sort of the candidate indexes by center x, there are few candidates and it does not allocate.
+	 */
+	private void sortByX(int size){
+		for(int i = 0; i < size; i++){
+			int index = i;
+			double x = this.candidates[index].getCenterX();
+			int j = i - 1;
+			while(j >= 0 && this.candidates[this.order[j]].getCenterX() > x){
+				this.order[j + 1] = this.order[j];
+				j--;
+			}
+			this.order[j + 1] = index;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import edu.wpi.first.wpilibj.Preferences;
+
+/**
+ * Works out tight HSV bounds for the tape while the robot faces the peg. Over a number of frames it
+ * builds a histogram of each channel inside the targets that were found and another of the rest of
+ * the frame, then for each channel picks the range that holds as much of the tape and as little of
+ * the background as possible. Like the DebugStream, the frame is copied with capture before the
+ * detector runs and the targets are added with accumulate once it has.
+ * The hue is not wrapped around, which is fine for the green ring light.
+ */
+public class ThresholdCalibrator {
+
+	private static final int[] BINS = {180, 256, 256};
+	private static final double INSET = 0.15; // fraction of a target's size left out of the tape on each side, its edges are blurred
+	private static final double GROW = 0.5; // fraction of a target's size around it left out of the background
+
+	private int frames;
+	private int margin;
+	private int accumulated;
+	private double[][] tape;
+	private double[][] background;
+	private float[] bins;
+
+	private Mat hsv;
+	private Mat tapeMask;
+	private Mat backgroundMask;
+	private Mat histogram;
+	private List<Mat> images;
+	private MatOfFloat[] ranges;
+	private MatOfInt[] sizes;
+	private MatOfInt[] channels;
+	private Point corner;
+	private Point opposite;
+
+	private Scalar min;
+	private Scalar max;
+
+	/**
+	 * @param frames how many frames with a track to build the histograms from
+	 * @param margin how many bins to widen each bound by, so small changes in the lighting are still kept
+	 */
+	public ThresholdCalibrator(int frames, int margin){
+		this.frames = frames;
+		this.margin = margin;
+		this.tape = new double[BINS.length][];
+		this.background = new double[BINS.length][];
+		this.ranges = new MatOfFloat[BINS.length];
+		this.sizes = new MatOfInt[BINS.length];
+		this.channels = new MatOfInt[BINS.length];
+		for(int i = 0; i < BINS.length; i++){
+			this.tape[i] = new double[BINS[i]];
+			this.background[i] = new double[BINS[i]];
+			this.ranges[i] = new MatOfFloat(0, BINS[i]);
+			this.sizes[i] = new MatOfInt(BINS[i]);
+			this.channels[i] = new MatOfInt(i);
+		}
+		this.bins = new float[256];
+		this.hsv = new Mat();
+		this.tapeMask = new Mat();
+		this.backgroundMask = new Mat();
+		this.histogram = new Mat();
+		this.images = Arrays.asList(this.hsv);
+		this.corner = new Point();
+		this.opposite = new Point();
+	}
+
+	/**
+	 * Copies the frame to HSV, so the targets found in it can be accumulated once the detector has run.
+	 * @param image the camera's BGR frame
+	 */
+	public void capture(Mat image){
+		Imgproc.cvtColor(image, this.hsv, Imgproc.COLOR_BGR2HSV);
+	}
+
+	/**
+	 * Adds the captured frame to the histograms, only call it for frames where the pair was found.
+	 * @param targets the targets found in the frame, in the whole frame's pixels
+	 */
+	public void accumulate(SingleTarget[] targets){
+		if(this.isFinished() || this.hsv.empty()){
+			return;
+		}
+		this.tapeMask.create(this.hsv.size(), CvType.CV_8UC1);
+		this.backgroundMask.create(this.hsv.size(), CvType.CV_8UC1);
+		this.tapeMask.setTo(Scalar.all(0));
+		this.backgroundMask.setTo(Scalar.all(255));
+		for(SingleTarget target : targets){
+			this.fill(this.tapeMask, target, -INSET, 255);
+			this.fill(this.backgroundMask, target, GROW, 0);
+		}
+		for(int i = 0; i < BINS.length; i++){
+			this.add(this.tape[i], i, this.tapeMask);
+			this.add(this.background[i], i, this.backgroundMask);
+		}
+		this.accumulated++;
+		if(this.isFinished()){
+			this.compute();
+		}
+	}
+
+	private void fill(Mat mask, SingleTarget target, double grow, double value){
+		double halfWidth = target.getWidth() * (0.5 + grow);
+		double halfHeight = target.getHeight() * (0.5 + grow);
+		this.corner.x = Math.round(target.getX() - halfWidth);
+		this.corner.y = Math.round(target.getY() - halfHeight);
+		this.opposite.x = Math.round(target.getX() + halfWidth) - 1;
+		this.opposite.y = Math.round(target.getY() + halfHeight) - 1;
+		Imgproc.rectangle(mask, this.corner, this.opposite, Scalar.all(value), -1);
+	}
+
+	private void add(double[] counts, int channel, Mat mask){
+		Imgproc.calcHist(this.images, this.channels[channel], mask, this.histogram, this.sizes[channel], this.ranges[channel]);
+		this.histogram.get(0, 0, this.bins);
+		for(int i = 0; i < counts.length; i++){
+			counts[i] += this.bins[i];
+		}
+	}
+
+	private void compute(){
+		double[] low = new double[BINS.length];
+		double[] high = new double[BINS.length];
+		for(int i = 0; i < BINS.length; i++){
+			int[] range = separate(this.tape[i], this.background[i]);
+			low[i] = Math.max(range[0] - this.margin, 0);
+			high[i] = Math.min(range[1] + this.margin, BINS[i] - 1);
+		}
+		this.min = new Scalar(low);
+		this.max = new Scalar(high);
+	}
+
+	/**
+	 * Finds the range of bins where the fraction of the tape inside it minus the fraction of the
+	 * background inside it is largest, which is the largest sum of any run of the differences.
+	 * @return the first and last bin of the range
+	 */
+	private static int[] separate(double[] tape, double[] background){
+		double tapeTotal = Math.max(sum(tape), 1);
+		double backgroundTotal = Math.max(sum(background), 1);
+		double best = 0;
+		int bestStart = 0;
+		int bestEnd = tape.length - 1;
+		double run = 0;
+		int start = 0;
+		for(int i = 0; i < tape.length; i++){
+			if(run <= 0){
+				run = 0;
+				start = i;
+			}
+			run += tape[i] / tapeTotal - background[i] / backgroundTotal;
+			if(run > best){
+				best = run;
+				bestStart = start;
+				bestEnd = i;
+			}
+		}
+		return new int[]{bestStart, bestEnd};
+	}
+
+	private static double sum(double[] values){
+		double total = 0;
+		for(double value : values){
+			total += value;
+		}
+		return total;
+	}
+
+	/**
+	 * @return whether or not enough frames have been added to work out the bounds
+	 */
+	public boolean isFinished(){
+		return this.accumulated >= this.frames;
+	}
+
+	/**
+	 * @return how many frames have been added
+	 */
+	public int getFrames(){
+		return this.accumulated;
+	}
+
+	/**
+	 * @return the lowest hue, saturation and value to keep, or null until finished
+	 */
+	public Scalar getMin(){
+		return this.min;
+	}
+
+	/**
+	 * @return the highest hue, saturation and value to keep, or null until finished
+	 */
+	public Scalar getMax(){
+		return this.max;
+	}
+
+	/**
+	 * Stores the bounds so they are used again after a restart.
+	 * @param preferences where to store them
+	 * @param key the name to store them under, each channel gets its own key after it
+	 * @param bounds the hue, saturation and value
+	 */
+	public static void save(Preferences preferences, String key, Scalar bounds){
+		preferences.putDouble(key + " H", bounds.val[0]);
+		preferences.putDouble(key + " S", bounds.val[1]);
+		preferences.putDouble(key + " V", bounds.val[2]);
+	}
+
+	/**
+	 * Reads bounds stored with save.
+	 * @param preferences where they were stored
+	 * @param key the name they were stored under
+	 * @param fallback the bounds to use for any channel that was never stored
+	 * @return the hue, saturation and value
+	 */
+	public static Scalar load(Preferences preferences, String key, Scalar fallback){
+		return new Scalar(
+				preferences.getDouble(key + " H", fallback.val[0]),
+				preferences.getDouble(key + " S", fallback.val[1]),
+				preferences.getDouble(key + " V", fallback.val[2]));
+	}
+}
@@ -0,0 +1,211 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Thresholds and blurs an image in horizontal tiles on a fork-join pool, for resolutions that are
+ * too slow to do on one thread. All tiles are thresholded into one mask before any are blurred, and
+ * each tile is blurred with the rows on either side of it, so the result is the same as doing the
+ * whole image at once. Blobs are then found in the whole mask, so nothing has to be merged at the seams.
+ */
+public class TiledThreshold {
+
+	private static final int OVERLAP = 1; // rows on each side a 3x3 blur reads
+	private static final int SOURCES = 4; // images whose tiles are kept, one for each buffer the FrameExchanger rotates and a spare
+
+	private ColorThreshold threshold;
+	private ForkJoinPool pool;
+	private Size blurSize;
+	private Mat mask;
+	private Mat blurred;
+	private Tile[] tiles;
+	private Source[] sources;
+	private int nextSource;
+	private int rows;
+	private int cols;
+	private Stage thresholdStage;
+	private Stage blurStage;
+
+	/**
+	 * @param threshold the colour range of the tape
+	 * @param pool the pool to run tiles on
+	 * @param tiles how many tiles to split the image into
+	 */
+	public TiledThreshold(ColorThreshold threshold, ForkJoinPool pool, int tiles){
+		this.threshold = threshold;
+		this.pool = pool;
+		this.blurSize = new Size(3, 3);
+		this.mask = new Mat();
+		this.blurred = new Mat();
+		this.tiles = new Tile[tiles];
+		for(int i = 0; i < tiles; i++){
+			this.tiles[i] = new Tile();
+		}
+		this.sources = new Source[SOURCES];
+		for(int i = 0; i < SOURCES; i++){
+			this.sources[i] = new Source(tiles);
+		}
+		this.thresholdStage = new Stage(true);
+		this.blurStage = new Stage(false);
+	}
+
+	/**
+	 * Thresholds and blurs the image, which is left as it was.
+	 * @param image the BGR image
+	 * @return the blurred mask, reused on the next call
+	 */
+	public Mat apply(Mat image){
+		this.threshold.prepare();
+		this.mask.create(image.rows(), image.cols(), CvType.CV_8UC1);
+		this.blurred.create(image.rows(), image.cols(), CvType.CV_8UC1);
+		if(this.rows != image.rows() || this.cols != image.cols()){
+			this.split(image.rows(), image.cols());
+		}
+		Mat[] images = this.getSource(image).images;
+		for(int i = 0; i < this.tiles.length; i++){
+			this.tiles[i].image = images[i];
+		}
+		this.thresholdStage.reinitialize();
+		this.pool.invoke(this.thresholdStage);
+		this.blurStage.reinitialize();
+		this.pool.invoke(this.blurStage);
+		return this.blurred;
+	}
+
+	/**
+	 * Finds the tiles of the image, cutting them out if the image hasn't been seen or has been
+	 * reallocated since. The frames rotate through a few buffers, so the tiles of each are kept.
+	 */
+	private Source getSource(Mat image){
+		for(Source source : this.sources){
+			if(source.image == image && source.address == image.dataAddr() && source.rows == image.rows() && source.cols == image.cols()){
+				return source;
+			}
+		}
+		Source source = this.sources[this.nextSource];
+		this.nextSource = (this.nextSource + 1) % SOURCES;
+		source.split(image);
+		return source;
+	}
+
+	/**
+	 * Cuts the mask and blurred mask into tiles. The sub matrices are kept until the size of the image changes.
+	 */
+	private void split(int rows, int cols){
+		this.rows = rows;
+		this.cols = cols;
+		int count = this.tiles.length;
+		for(int i = 0; i < count; i++){
+			Tile tile = this.tiles[i];
+			tile.release();
+			int top = this.rows * i / count;
+			int bottom = this.rows * (i + 1) / count;
+			int readTop = Math.max(top - OVERLAP, 0);
+			int readBottom = Math.min(bottom + OVERLAP, this.rows);
+			tile.mask = this.mask.rowRange(top, bottom);
+			tile.around = this.mask.rowRange(readTop, readBottom);
+			tile.blurred.create(readBottom - readTop, this.cols, CvType.CV_8UC1);
+			tile.inner = tile.blurred.rowRange(top - readTop, bottom - readTop);
+			tile.output = this.blurred.rowRange(top, bottom);
+		}
+	}
+
+	/**
+	 * Runs either the threshold or the blur of every tile and waits for all of them. Made once and
+	 * reinitialized for every image, as are the tasks of the tiles.
+	 */
+	private class Stage extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private ForkJoinTask<?>[] tasks;
+
+		private Stage(boolean threshold){
+			Tile[] tiles = TiledThreshold.this.tiles;
+			this.tasks = new ForkJoinTask<?>[tiles.length];
+			for(int i = 0; i < tiles.length; i++){
+				this.tasks[i] = threshold ? tiles[i].thresholdTask : tiles[i].blurTask;
+			}
+		}
+
+		@Override
+		protected void compute(){
+			for(ForkJoinTask<?> task : this.tasks){
+				task.reinitialize();
+			}
+			invokeAll(this.tasks);
+		}
+	}
+
+	/**
+	 * An image that has been cut into tiles and the tiles of it.
+	 */
+	private class Source {
+		private Mat image;
+		private long address;
+		private int rows;
+		private int cols;
+		private Mat[] images;
+
+		private Source(int tiles){
+			this.images = new Mat[tiles];
+		}
+
+		private void split(Mat image){
+			this.image = image;
+			this.address = image.dataAddr();
+			this.rows = image.rows();
+			this.cols = image.cols();
+			int count = this.images.length;
+			for(int i = 0; i < count; i++){
+				if(this.images[i] != null){
+					this.images[i].release();
+				}
+				this.images[i] = image.rowRange(this.rows * i / count, this.rows * (i + 1) / count);
+			}
+		}
+	}
+
+	/**
+	 * One band of rows and the work done on it.
+	 */
+	private class Tile {
+		private Mat image;
+		private Mat mask;
+		private Mat around;
+		private Mat blurred;
+		private Mat inner;
+		private Mat output;
+		private ColorThreshold.Scratch scratch;
+		private ForkJoinTask<?> thresholdTask;
+		private ForkJoinTask<?> blurTask;
+
+		private Tile(){
+			this.blurred = new Mat();
+			this.scratch = new ColorThreshold.Scratch();
+			this.thresholdTask = ForkJoinTask.adapt(() -> TiledThreshold.this.threshold.apply(this.image, this.mask, this.scratch));
+			this.blurTask = ForkJoinTask.adapt(() -> {
+				Imgproc.blur(this.around, this.blurred, TiledThreshold.this.blurSize);
+				this.inner.copyTo(this.output);
+			});
+		}
+
+		/**
+		 * Frees the sub matrices of the masks, the image's belong to its Source.
+		 */
+		private void release(){
+			if(this.mask != null){
+				this.mask.release();
+				this.around.release();
+				this.inner.release();
+				this.output.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * Keeps track of how long another detector takes per frame, so detectors can be compared on the robot.
+ */
+public class TimedDetector implements TargetDetector {
+
+	private static final double SMOOTHING = 0.1;
+
+	private String name;
+	private TargetDetector detector;
+	private long lastTime;
+	private double averageTime;
+	private long frames;
+
+	/**
+	 * @param name the name to show on the dashboard
+	 * @param detector the detector to time
+	 */
+	public TimedDetector(String name, TargetDetector detector){
+		this.name = name;
+		this.detector = detector;
+	}
+
+	@Override
+	public double detect(Mat image, Point offset, SingleTarget[] targets){
+		long start = System.nanoTime();
+		double confidence = this.detector.detect(image, offset, targets);
+		this.timed(start);
+		return confidence;
+	}
+
+	@Override
+	public double detect(Frame frame, Point offset, SingleTarget[] targets){
+		long start = System.nanoTime();
+		double confidence = this.detector.detect(frame, offset, targets);
+		this.timed(start);
+		return confidence;
+	}
+
+	private void timed(long start){
+		this.lastTime = System.nanoTime() - start;
+		if(this.frames == 0){
+			this.averageTime = this.lastTime;
+		} else {
+			this.averageTime += (this.lastTime - this.averageTime) * SMOOTHING;
+		}
+		this.frames++;
+	}
+
+	@Override
+	public int getBlobs(Blob[] blobs){
+		return this.detector.getBlobs(blobs);
+	}
+
+	@Override
+	public void reset(){
+		this.detector.reset();
+	}
+
+	public String getName(){
+		return this.name;
+	}
+
+	/**
+	 * @return how long the last frame took in nanoseconds
+	 */
+	public long getLastTime(){
+		return this.lastTime;
+	}
+
+	/**
+	 * @return the smoothed time per frame in milliseconds
+	 */
+	public double getAverageMillis(){
+		return this.averageTime / 1000000D;
+	}
+
+	/**
+	 * @return the number of frames run through the detector
+	 */
+	public long getFrames(){
+		return this.frames;
+	}
+
+	public String toString(){
+		return this.name;
+	}
+}
@@ -0,0 +1,480 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.RobotMap;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.CvSource;
+import edu.wpi.cscore.UsbCamera;
+import edu.wpi.first.wpilibj.CameraServer;
+import edu.wpi.first.wpilibj.Preferences;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * One camera and everything that processes its frames. Frames are grabbed on the camera's own
+ * capture thread, since grabbing blocks, and processed on one of the VisionScheduler's workers
+ * whenever there is a new frame and the camera's VisionGovernor allows it.
+ * Dashboard keys start with the camera's name.
+ */
+public class VisionCamera implements VisionScheduler.Job {
+
+	private String name;
+	private int device;
+	private CameraSpecification spec;
+	private int priority;
+	private VisionPipeline pipeline;
+	private FrameExchanger exchanger;
+	private volatile CaptureThread capture;
+	private SendableChooser<TimedDetector> chooser;
+	private VisionGovernor governor;
+	private DebugStream debug;
+	private FrameRecorder recorder;
+	private VisionScheduler scheduler;
+	private volatile ThresholdCalibrator calibrator;
+	private volatile TargetCalibration calibration;
+	private VisionLatency latency;
+	private long nextLatencyPublish;
+
+	private volatile boolean shouldProcess;
+	private volatile VisionResult result;
+	private volatile long enabledAt;
+	private volatile boolean firstFrame;
+	private volatile boolean awaitingTrack;
+	private volatile double enableLatency;
+
+	/**
+	 * @param name the name of the camera, shown on the dashboard
+	 * @param device the USB camera's device number
+	 * @param spec the camera's field of view, resolution and angle
+	 * @param priority frames from higher priority cameras are processed first when workers are busy
+	 * @param threshold the colour range to look for
+	 */
+	public VisionCamera(String name, int device, CameraSpecification spec, int priority, ColorThreshold threshold){
+		this(name, device, spec, priority, threshold, new FrameExchanger(new Frame(new Mat()), new Frame(new Mat()), new Frame(new Mat())));
+	}
+
+	/**
+	 * @param name the name of the camera, shown on the dashboard
+	 * @param device the USB camera's device number
+	 * @param spec the camera's field of view, resolution and angle
+	 * @param priority frames from higher priority cameras are processed first when workers are busy
+	 * @param threshold the colour range to look for
+	 * @param exchanger where the capture thread hands frames over to be processed
+	 */
+	public VisionCamera(String name, int device, CameraSpecification spec, int priority, ColorThreshold threshold, FrameExchanger exchanger){
+		this.name = name;
+		this.device = device;
+		this.spec = spec;
+		this.priority = priority;
+		this.shouldProcess = true;
+		this.enabledAt = System.nanoTime();
+		this.firstFrame = true;
+		this.awaitingTrack = true;
+		this.enableLatency = Double.NaN;
+		this.pipeline = new VisionPipeline(this.spec, threshold);
+		this.latency = new VisionLatency(this.name);
+		this.pipeline.setLatency(this.latency);
+		TimedDetector[] detectors = this.pipeline.getDetectors();
+		this.chooser = new SendableChooser<TimedDetector>();
+		this.chooser.addDefault(detectors[0].getName(), detectors[0]);
+		for(int i = 1; i < detectors.length; i++){
+			this.chooser.addObject(detectors[i].getName(), detectors[i]);
+		}
+		SmartDashboard.putData(this.name + " Vision Detector", this.chooser);
+		this.governor = new VisionGovernor(RobotMap.VISION_FULL_RATE, RobotMap.VISION_BACKGROUND_RATE, RobotMap.VISION_MAX_LOAD, RobotMap.VISION_MIN_LOAD, RobotMap.VISION_LOAD_RECOVERY_TIME);
+		this.exchanger = exchanger;
+		this.result = new VisionResult(new VisionTarget(0,0,0), false, 0, 0);
+	}
+	
+	/**
+	 * Starts the camera, sets resolution and exposure, and starts capturing. The frames are processed
+	 * by the scheduler's workers, as often as the VisionGovernor allows.
+	 * @param scheduler the scheduler to process frames on
+	 */
+	public synchronized void start(VisionScheduler scheduler){
+		int width = (int)(this.spec.resolution.width + 0.5);
+		int height = (int)(this.spec.resolution.height + 0.5);
+		UsbCamera camera = CameraServer.getInstance().startAutomaticCapture(this.name, this.device);
+		camera.setResolution(width, height);
+		camera.setExposureManual(0);
+		CvSink cvSink = CameraServer.getInstance().getVideo(camera);
+		int debugWidth = (int)(this.spec.resolution.width * RobotMap.VISION_DEBUG_SCALE + 0.5);
+		int debugHeight = (int)(this.spec.resolution.height * RobotMap.VISION_DEBUG_SCALE + 0.5);
+		CvSource debugOutput = CameraServer.getInstance().putVideo(this.name + " Vision Debug", debugWidth, debugHeight);
+		this.debug = new DebugStream(debugOutput, this.spec.resolution, RobotMap.VISION_DEBUG_SCALE, RobotMap.VISION_DEBUG_RATE);
+		this.debug.setEnabled(RobotMap.VISION_DEBUG_STREAM);
+		this.debug.start();
+		this.loadCalibration();
+		if(RobotMap.VISION_RECORD){
+			this.startRecorder();
+		}
+
+		this.scheduler = scheduler;
+		CaptureThread capture = new CaptureThread(this.name, cvSink, this.exchanger, this.governor, scheduler::wake, this.latency);
+		this.capture = capture;
+		capture.setCapturing(this.shouldProcess);
+		capture.start();
+		scheduler.add(this);
+	}
+
+	private void startRecorder(){
+		FrameRecorder recorder = new FrameRecorder(new File(RobotMap.VISION_RECORD_DIRECTORY, this.name), RobotMap.VISION_RECORD_SLOTS,
+				RobotMap.VISION_RECORD_SLOT_BYTES, RobotMap.VISION_RECORD_QUALITY, RobotMap.VISION_RECORD_RATE);
+		try{
+			recorder.open();
+		} catch(IOException e){
+			ErrorReporter.getInstance().report(this.name + " Vision Frame Recorder", e);
+			return;
+		}
+		recorder.start();
+		this.recorder = recorder;
+	}
+
+	private void loadCalibration(){
+		File lens = new File(RobotMap.VISION_CALIBRATION_DIRECTORY, this.name + " Lens.csv");
+		File file = this.getCalibrationFile();
+		try{
+			if(lens.exists()){
+				this.pipeline.setIntrinsics(CameraIntrinsics.load(lens));
+			}
+			if(file.exists()){
+				this.calibration = TargetCalibration.load(file);
+			}
+		} catch(IOException e){
+			ErrorReporter.getInstance().report(this.name + " Vision Calibration", e);
+		}
+	}
+
+	@Override
+	public int getPriority(){
+		return this.priority;
+	}
+
+	/**
+	 * Due as soon as there is a new frame and the governor allows another one, the first frame
+	 * after tracking is turned on does not wait for the governor.
+	 */
+	@Override
+	public long getNextRunTime(long now){
+		if(!this.shouldProcess || !this.exchanger.hasFresh()){
+			return Long.MAX_VALUE;
+		}
+		if(this.firstFrame){
+			return now;
+		}
+		return this.governor.getNextFrameTime(now);
+	}
+
+	/**
+	 * Processes the newest frame and publishes the result, only ever run on one worker at a time.
+	 */
+	@Override
+	public void run(){
+		Frame frame = this.exchanger.take();
+		if(frame == null || frame.getImage().empty() || frame.getTimestamp() < this.enabledAt){
+			// frames captured before tracking was turned back on are stale
+			return;
+		}
+		if(this.firstFrame){
+			this.pipeline.reset();
+			this.firstFrame = false;
+		}
+		long start = System.nanoTime();
+		DebugStream debug = this.debug;
+		boolean streaming = debug != null && debug.isDue(start);
+		if(streaming){
+			debug.capture(frame.getImage(), start);
+		}
+		FrameRecorder recorder = this.recorder;
+		boolean recording = recorder != null && recorder.isDue(start);
+		if(recording){
+			recorder.capture(frame.getImage(), start);
+		}
+		ThresholdCalibrator calibrator = this.calibrator;
+		if(calibrator != null){
+			calibrator.capture(frame.getImage());
+		}
+		process(frame);
+		if(streaming){
+			debug.publish(this.pipeline);
+		}
+		if(recording){
+			recorder.publish(this.result);
+		}
+		if(calibrator != null){
+			calibrate(calibrator);
+		}
+		long end = System.nanoTime();
+		this.governor.frameProcessed(start, end - start);
+		this.latency.record(VisionLatency.Stage.FRAME, start, end);
+		this.latency.record(VisionLatency.Stage.AGE, frame.getTimestamp(), end);
+		if(end - this.nextLatencyPublish >= 0){
+			this.latency.publish();
+			this.nextLatencyPublish = end + (long) (RobotMap.VISION_LATENCY_PUBLISH_PERIOD * 1000000000L);
+		}
+		if(this.awaitingTrack && this.result.hasTrack()){
+			this.awaitingTrack = false;
+			this.enableLatency = (end - this.enabledAt) / 1000000D;
+			SmartDashboard.putNumber(this.name + " Vision Enable To Track", this.enableLatency);
+		}
+		SmartDashboard.putNumber(this.name + " Peg Distance", this.getDistance(this.result.getTarget()));
+		Peg peg = this.result.getPeg();
+		if(peg != null){
+			SmartDashboard.putString(this.name + " Peg Pose", peg.toString());
+		}
+		SmartDashboard.putNumber(this.name + " Vision Frames Dropped", this.exchanger.getDropped());
+		SmartDashboard.putNumber(this.name + " Vision Detect Time", this.pipeline.getDetector().getAverageMillis());
+		SmartDashboard.putNumber(this.name + " Vision Load", this.governor.getLoad());
+	}
+	
+	/**
+	 * Runs the frame through the pipeline with the detector picked on the dashboard and publishes the result.
+	 * @param frame The frame to process
+	 */
+	public void process(Frame frame){
+		this.pipeline.setDetector(this.chooser.getSelected());
+		this.result = this.pipeline.process(frame);
+	}
+	
+	/**
+	 * Sets whether or not the camera should be tracking. While it isn't, its capture thread is parked
+	 * and it is never scheduled, turning tracking back on drops any frame captured before then.
+	 * @param tracking whether or not to track
+	 */
+	public synchronized void setTracking(boolean tracking){
+		if(tracking && !this.shouldProcess){
+			this.enabledAt = System.nanoTime();
+			this.firstFrame = true;
+			this.awaitingTrack = true;
+		}
+		this.shouldProcess = tracking;
+		CaptureThread capture = this.capture;
+		if(capture != null){
+			capture.setCapturing(tracking);
+		}
+	}
+	
+	/**
+	 * @return whether or not the camera is tracking, see setTracking
+	 */
+	public boolean isTracking(){
+		return this.shouldProcess;
+	}
+	
+	/**
+	 * Sets the range of colours that are kept, it is used from the next frame.
+	 * @param min the lowest hue, saturation and value
+	 * @param max the highest hue, saturation and value
+	 */
+	public void setThresholds(Scalar min, Scalar max){
+		this.pipeline.setThresholds(min, max);
+	}
+	
+	/**
+	 * Starts working out the colour range from the next frames, the robot should be facing the peg
+	 * until isCalibrating is false. The new range is used as soon as it is found and stored in the
+	 * Preferences so it is loaded again after a restart.
+	 */
+	public void startCalibration(){
+		this.calibrator = new ThresholdCalibrator(RobotMap.VISION_CALIBRATION_FRAMES, RobotMap.VISION_CALIBRATION_MARGIN);
+		SmartDashboard.putNumber(this.name + " Vision Calibration Frames", 0);
+	}
+	
+	/**
+	 * Stops calibrating without changing the colour range.
+	 */
+	public void cancelCalibration(){
+		this.calibrator = null;
+	}
+	
+	/**
+	 * @return whether or not the colour range is still being worked out
+	 */
+	public boolean isCalibrating(){
+		return this.calibrator != null;
+	}
+	
+	private void calibrate(ThresholdCalibrator calibrator){
+		if(this.result.hasTrack()){
+			calibrator.accumulate(this.pipeline.getTargets());
+			SmartDashboard.putNumber(this.name + " Vision Calibration Frames", calibrator.getFrames());
+		}
+		if(calibrator.isFinished()){
+			Scalar min = calibrator.getMin();
+			Scalar max = calibrator.getMax();
+			this.setThresholds(min, max);
+			Preferences preferences = Preferences.getInstance();
+			ThresholdCalibrator.save(preferences, this.name + " Vision HSV Min", min);
+			ThresholdCalibrator.save(preferences, this.name + " Vision HSV Max", max);
+			SmartDashboard.putString(this.name + " Vision HSV", min + " - " + max);
+			this.calibrator = null;
+		}
+	}
+	
+	/**
+	 * @param target a target this camera saw
+	 * @return the distance to the target in inches, from the calibration if there is one
+	 */
+	public double getDistance(VisionTarget target){
+		TargetCalibration calibration = this.calibration;
+		if(calibration != null){
+			return target.getDistance(calibration);
+		}
+		return target.getDistance(this.spec, RobotMap.TARGET_DIMENSION);
+	}
+	
+	/**
+	 * @return the distance and rotation calibration, or null if the camera hasn't been calibrated
+	 */
+	public TargetCalibration getCalibration(){
+		return this.calibration;
+	}
+	
+	/**
+	 * Adds the target in the newest frame to the calibration samples, along with where the robot really is.
+	 * @param distance the true distance to the peg in inches
+	 * @param rotation the true rotation of the camera in degrees, the same way as VisionTarget.getRotation
+	 * @return whether or not there was a target to add
+	 * @throws IOException if the sample couldn't be stored
+	 */
+	public boolean recordCalibrationSample(double distance, double rotation) throws IOException{
+		VisionResult result = this.result;
+		if(!result.hasTrack() || result.age() > RobotMap.VISION_MAX_AGE){
+			return false;
+		}
+		File samples = this.getSamplesFile();
+		samples.getParentFile().mkdirs();
+		TargetCalibration.record(samples, result.getTarget(), distance, rotation);
+		return true;
+	}
+	
+	/**
+	 * Fits the calibration to every sample recorded so far, stores it and starts using it.
+	 * @return the new calibration
+	 * @throws IOException if the samples couldn't be read or the calibration couldn't be stored
+	 */
+	public TargetCalibration fitCalibration() throws IOException{
+		TargetCalibration calibration = TargetCalibration.fit(this.getSamplesFile(), RobotMap.VISION_CALIBRATION_KNOTS);
+		calibration.save(this.getCalibrationFile());
+		this.calibration = calibration;
+		return calibration;
+	}
+	
+	private File getCalibrationFile(){
+		return new File(RobotMap.VISION_CALIBRATION_DIRECTORY, this.name + ".csv");
+	}
+	
+	private File getSamplesFile(){
+		return new File(RobotMap.VISION_CALIBRATION_DIRECTORY, this.name + " Samples.csv");
+	}
+	
+	/**
+	 * Sets how frames are thresholded, so the two ways can be compared on the robot.
+	 * @param mode the way to threshold
+	 */
+	public void setThresholdMode(ColorThreshold.Mode mode){
+		this.pipeline.setThresholdMode(mode);
+	}
+	
+	/**
+	 * Sets whether or not a command needs frames at the full rate.
+	 * @param demand whether or not to process at the full rate
+	 */
+	public void setDemand(boolean demand){
+		this.governor.setDemand(demand);
+		VisionScheduler scheduler = this.scheduler;
+		if(scheduler != null){
+			scheduler.wake();
+		}
+	}
+	
+	/**
+	 * Cuts back how much vision processes because the control loop did not keep up.
+	 */
+	public void reportOverrun(){
+		this.governor.overrun(System.nanoTime());
+	}
+	
+	/**
+	 * @return how long each stage of this camera's vision has taken since the last dump
+	 */
+	public VisionLatency getLatency(){
+		return this.latency;
+	}
+	
+	/**
+	 * Prints how long each stage has taken since the last dump and starts counting again.
+	 * @param out where to print
+	 */
+	public void dumpLatency(PrintStream out){
+		this.latency.dump(out);
+	}
+	
+	public VisionPipeline getPipeline(){
+		return this.pipeline;
+	}
+	
+	public String getName(){
+		return this.name;
+	}
+	
+	/**
+	 * @return the number of frames captured
+	 */
+	public long getFramesCaptured(){
+		return this.exchanger.getPublished();
+	}
+	
+	/**
+	 * @return the number of frames that were replaced by a newer one before they could be processed
+	 */
+	public long getFramesDropped(){
+		return this.exchanger.getDropped();
+	}
+	
+	/**
+	 * Returns the result of the newest processed frame without blocking.
+	 * @return the newest result
+	 */
+	public VisionResult getResult(){
+		return this.result;
+	}
+	
+	/**
+	 * Gets the angle offset from the peg's view, 0 is dead center, + is clockwise
+	 * @return the angle [-90, 90]
+	 */
+	public VisionTarget getTarget(){
+		return this.result.getTarget();
+	}
+	
+	/**
+	 * @return how long it took from the last time tracking was turned on to the first track, in milliseconds, or NaN if there hasn't been one yet
+	 */
+	public double getEnableLatency(){
+		return this.enableLatency;
+	}
+	
+	/**
+	 * Returns the full pose of the peg from the newest frame, if it was found in that frame.
+	 * @return the pose, or null
+	 */
+	public Peg getPeg(){
+		return this.result.getPeg();
+	}
+	
+	/**
+	 * Returns whether or not the camera has a track.
+	 * @return whether or not the camera has a track.
+	 */
+	public boolean hasTrack(){
+		return this.result.hasTrack() && this.shouldProcess;
+	}
+	
+}
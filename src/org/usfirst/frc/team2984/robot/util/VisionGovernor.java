@@ -0,0 +1,130 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * Decides how often the vision thread may process a frame, so that it does not starve the control loop
+ * that shares the roboRIO's two cores. Frames are processed at the full rate while a command needs them
+ * and at a low background rate otherwise, and never so often that vision uses more than its share of a
+ * core given how long frames have been taking. The share is halved every time the scheduler overruns
+ * and grows back over time.
+ */
+public class VisionGovernor {
+
+	private static final double COST_SMOOTHING = 0.2;
+
+	private long fullPeriod;
+	private long backgroundPeriod;
+	private double maxLoad;
+	private double minLoad;
+	private double recoveryPerNano;
+
+	private boolean demand;
+	private double load;
+	private double averageCost;
+	private long lastFrame;
+	private long lastRecovery;
+
+	/**
+	 * @param fullRate the most frames per second to process while there is demand
+	 * @param backgroundRate the most frames per second to process otherwise
+	 * @param maxLoad the largest fraction of a core vision may use
+	 * @param minLoad the smallest fraction of a core vision is cut back to
+	 * @param recoveryTime the seconds it takes to grow back from minLoad to maxLoad
+	 */
+	public VisionGovernor(double fullRate, double backgroundRate, double maxLoad, double minLoad, double recoveryTime){
+		this.fullPeriod = (long) (1000000000L / fullRate);
+		this.backgroundPeriod = (long) (1000000000L / backgroundRate);
+		this.maxLoad = maxLoad;
+		this.minLoad = minLoad;
+		this.recoveryPerNano = (maxLoad - minLoad) / (recoveryTime * 1000000000L);
+		this.load = maxLoad;
+	}
+
+	/**
+	 * Sets whether or not something needs vision right now, like a command that is aiming with it.
+	 * @param demand whether or not to process at the full rate
+	 */
+	public synchronized void setDemand(boolean demand){
+		this.demand = demand;
+		this.notifyAll();
+	}
+
+	public synchronized boolean hasDemand(){
+		return this.demand;
+	}
+
+	/**
+	 * Cuts vision back because the control loop did not keep up.
+	 * @param now the System.nanoTime() of the overrun
+	 */
+	public synchronized void overrun(long now){
+		this.recover(now);
+		this.load = Math.max(this.load / 2, this.minLoad);
+	}
+
+	/**
+	 * Records how long a frame took.
+	 * @param start the System.nanoTime() processing started at
+	 * @param cost how long it took in nanoseconds
+	 */
+	public synchronized void frameProcessed(long start, long cost){
+		this.lastFrame = start;
+		if(this.averageCost == 0){
+			this.averageCost = cost;
+		} else {
+			this.averageCost += (cost - this.averageCost) * COST_SMOOTHING;
+		}
+	}
+
+	/**
+	 * @param now the current System.nanoTime()
+	 * @return the shortest time allowed between the starts of two frames, in nanoseconds
+	 */
+	public synchronized long getPeriod(long now){
+		this.recover(now);
+		long period = this.demand ? this.fullPeriod : this.backgroundPeriod;
+		return Math.max(period, (long) (this.averageCost / this.load));
+	}
+
+	/**
+	 * @param now the current System.nanoTime()
+	 * @return the System.nanoTime() the next frame may start at
+	 */
+	public synchronized long getNextFrameTime(long now){
+		return this.lastFrame + this.getPeriod(now);
+	}
+
+	/**
+	 * Waits until the next frame may start, waking early if demand goes up.
+	 */
+	public synchronized void awaitNextFrame() throws InterruptedException{
+		while(true){
+			long now = System.nanoTime();
+			long wait = this.getNextFrameTime(now) - now;
+			if(wait <= 0){
+				return;
+			}
+			this.wait(wait / 1000000, (int) (wait % 1000000));
+		}
+	}
+
+	/**
+	 * @return the fraction of a core vision may use right now
+	 */
+	public synchronized double getLoad(){
+		return this.load;
+	}
+
+	/**
+	 * @return the smoothed time per frame in milliseconds
+	 */
+	public synchronized double getAverageCostMillis(){
+		return this.averageCost / 1000000D;
+	}
+
+	private void recover(long now){
+		if(this.lastRecovery != 0){
+			this.load = Math.min(this.load + (now - this.lastRecovery) * this.recoveryPerNano, this.maxLoad);
+		}
+		this.lastRecovery = now;
+	}
+}
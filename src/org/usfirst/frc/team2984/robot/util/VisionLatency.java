@@ -0,0 +1,120 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.PrintStream;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * A LatencyHistogram for each stage of one camera's vision, so a slow frame can be pinned on a
+ * stage on the robot. Stages are timed with System.nanoTime() around the calls that do the work,
+ * which allocates nothing. The percentiles go to the dashboard as "[camera] Vision Latency [stage]
+ * P50", "P95", "P99" and "Max", in milliseconds.
+ */
+public class VisionLatency {
+
+	public static enum Stage {
+		GRAB("Grab"), // waiting on the camera for a frame, on the capture thread
+		CONVERT("Convert"), // BGR to HSV, only when thresholding with inRange
+		THRESHOLD("Threshold"), // inRange or the lookup table, and the blur too when tiled
+		BLUR("Blur"),
+		BLOBS("Blobs"), // findContours or connectedComponents and measuring the blobs
+		PAIR("Pair"),
+		REFINE("Refine"), // refining the chosen pair's corners
+		MEASURE("Measure"), // undistorting, the target's measurements and the peg's pose
+		FRAME("Frame"), // everything done with a frame on the worker, including streaming and recording
+		AGE("Age"); // from capturing a frame to its result
+
+		private String name;
+
+		private Stage(String name){
+			this.name = name;
+		}
+
+		public String toString(){
+			return this.name;
+		}
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	private String name;
+	private LatencyHistogram[] histograms;
+	private String[][] keys;
+
+	/**
+	 * @param name the camera's name
+	 */
+	public VisionLatency(String name){
+		this.name = name;
+		this.histograms = new LatencyHistogram[STAGES.length];
+		this.keys = new String[STAGES.length][];
+		for(Stage stage : STAGES){
+			this.histograms[stage.ordinal()] = new LatencyHistogram();
+			String key = name + " Vision Latency " + stage + " ";
+			this.keys[stage.ordinal()] = new String[]{key + "P50", key + "P95", key + "P99", key + "Max"};
+		}
+	}
+
+	/**
+	 * Records how long a stage took, and returns now so the next stage can start from it.
+	 * @param stage the stage that just finished
+	 * @param start the System.nanoTime() the stage started at
+	 * @return the System.nanoTime() now
+	 */
+	public long record(Stage stage, long start){
+		long now = System.nanoTime();
+		this.histograms[stage.ordinal()].record(now - start);
+		return now;
+	}
+
+	/**
+	 * @param stage the stage
+	 * @param start the System.nanoTime() the stage started at
+	 * @param end the System.nanoTime() the stage finished at
+	 */
+	public void record(Stage stage, long start, long end){
+		this.histograms[stage.ordinal()].record(end - start);
+	}
+
+	public LatencyHistogram get(Stage stage){
+		return this.histograms[stage.ordinal()];
+	}
+
+	/**
+	 * Puts the percentiles of every stage that has been timed on the dashboard.
+	 */
+	public void publish(){
+		for(Stage stage : STAGES){
+			LatencyHistogram histogram = this.histograms[stage.ordinal()];
+			if(histogram.getCount() == 0){
+				continue;
+			}
+			String[] keys = this.keys[stage.ordinal()];
+			SmartDashboard.putNumber(keys[0], histogram.getPercentile(0.5));
+			SmartDashboard.putNumber(keys[1], histogram.getPercentile(0.95));
+			SmartDashboard.putNumber(keys[2], histogram.getPercentile(0.99));
+			SmartDashboard.putNumber(keys[3], histogram.getMax());
+		}
+	}
+
+	/**
+	 * Prints every stage that has been timed, one per line, then forgets them all so the next dump
+	 * only covers what happened after this one.
+	 * @param out where to print
+	 */
+	public void dump(PrintStream out){
+		for(Stage stage : STAGES){
+			LatencyHistogram histogram = this.histograms[stage.ordinal()];
+			if(histogram.getCount() > 0){
+				out.println(this.name + " Vision Latency " + stage + ": " + histogram);
+			}
+		}
+		this.reset();
+	}
+
+	public void reset(){
+		for(LatencyHistogram histogram : this.histograms){
+			histogram.reset();
+		}
+	}
+}
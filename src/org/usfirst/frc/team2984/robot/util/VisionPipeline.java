@@ -0,0 +1,232 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.RobotMap;
+
+/**
+ * Everything that turns a frame into a VisionResult, kept apart from the camera and the dashboard
+ * so that it can also be run on recorded frames, see VisionReplay.
+ */
+public class VisionPipeline {
+
+	private CameraSpecification spec;
+	private ColorThreshold threshold;
+	private BlobDetector[] blobDetectors;
+	private TimedDetector[] detectors;
+	private TimedDetector detector;
+	private PegPoseEstimator estimator;
+	private LensModel lens;
+	private VisionLatency latency;
+	private SingleTarget[] rects;
+	private SingleTarget[] undistorted;
+	private Point origin;
+	private VisionResult result;
+
+	/**
+	 * The search window and the target's shape are set from the RobotMap.
+	 * @param spec the camera the frames come from
+	 * @param threshold the colour range of the tape
+	 */
+	public VisionPipeline(CameraSpecification spec, ColorThreshold threshold){
+		this.spec = spec;
+		this.threshold = threshold;
+		this.blobDetectors = new BlobDetector[]{
+			new ContourDetector(threshold, this.pairer()),
+			new ContourDetector(threshold, this.pairer()),
+			new ConnectedComponentsDetector(threshold, this.pairer()),
+			new ConnectedComponentsDetector(threshold, this.pairer())
+		};
+		this.detectors = new TimedDetector[]{
+			new TimedDetector("Contours In Window", new SearchWindowDetector(this.blobDetectors[0], this.window())),
+			new TimedDetector("Contours", this.blobDetectors[1]),
+			new TimedDetector("Components In Window", new SearchWindowDetector(this.blobDetectors[2], this.window())),
+			new TimedDetector("Components", this.blobDetectors[3])
+		};
+		this.detector = this.detectors[0];
+		this.setCornerRefinement(RobotMap.VISION_REFINE_CORNERS);
+		this.rects = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+		this.undistorted = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+		this.setIntrinsics(CameraIntrinsics.fromSpecification(spec));
+		this.origin = new Point();
+		this.result = new VisionResult(new VisionTarget(0,0,0), false, 0, 0);
+	}
+
+	private TargetPairer pairer(){
+		return new TargetPairer(RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH, RobotMap.VISION_MIN_CONFIDENCE, BlobDetector.MAX_BLOBS);
+	}
+
+	private SearchWindow window(){
+		int width = (int)(this.spec.resolution.width + 0.5);
+		int height = (int)(this.spec.resolution.height + 0.5);
+		return new SearchWindow(width, height, RobotMap.VISION_SEARCH_MARGIN, RobotMap.VISION_SEARCH_MAX_MISSES);
+	}
+
+	/**
+	 * Sets the camera's focal lengths, center and lens distortion. If the lens has distortion the
+	 * corners of the chosen pair are undistorted with a LensModel before anything is measured from them.
+	 * @param intrinsics the camera's intrinsics, see LensCalibration
+	 */
+	public void setIntrinsics(CameraIntrinsics intrinsics){
+		if(intrinsics.hasDistortion()){
+			this.lens = new LensModel(intrinsics);
+			intrinsics = intrinsics.withoutDistortion();
+		} else {
+			this.lens = null;
+		}
+		this.estimator = new PegPoseEstimator(intrinsics, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+	}
+
+	/**
+	 * Finds the rectangles with the current detector, then calculates each of the measurements and the peg's pose and returns them as one result.
+	 * If the targets are not found the last target is kept, without a track. getTargets stays in the
+	 * frame's pixels, only the measurements are made from the undistorted targets.
+	 * @param frame The frame to process
+	 * @return the result for the frame
+	 */
+	public VisionResult process(Frame frame){
+		double confidence = this.detector.detect(frame, this.origin, this.rects);
+		if(confidence > 0){
+			VisionLatency latency = this.latency;
+			long start = latency == null ? 0 : System.nanoTime();
+			SingleTarget[] measured = this.rects;
+			if(this.lens != null){
+				this.lens.undistort(this.rects, this.undistorted);
+				measured = this.undistorted;
+			}
+			VisionTarget target = new VisionTarget(measured[0], measured[1], this.spec);
+			Peg peg = this.estimator.estimate(measured[0], measured[1], frame.getTimestamp());
+			this.result = new VisionResult(target, peg, true, confidence, frame.getTimestamp(), frame.getSequence());
+			if(latency != null){
+				latency.record(VisionLatency.Stage.MEASURE, start);
+			}
+		} else {
+			this.estimator.reset();
+			this.result = new VisionResult(this.result.getTarget(), false, 0, frame.getTimestamp(), frame.getSequence());
+		}
+		return this.result;
+	}
+
+	/**
+	 * Switches to the given detector, resetting it if it was not already in use.
+	 * @param detector one of getDetectors, or null for the default
+	 */
+	public void setDetector(TimedDetector detector){
+		if(detector == null){
+			detector = this.detectors[0];
+		}
+		if(detector != this.detector){
+			detector.reset();
+			this.detector = detector;
+		}
+	}
+
+	/**
+	 * @param name the name of the detector
+	 * @return the detector with that name, or null if there isn't one
+	 */
+	public TimedDetector getDetector(String name){
+		for(TimedDetector detector : this.detectors){
+			if(detector.getName().equals(name)){
+				return detector;
+			}
+		}
+		return null;
+	}
+
+	public TimedDetector getDetector(){
+		return this.detector;
+	}
+
+	/**
+	 * @return all of the detectors, the first is the default
+	 */
+	public TimedDetector[] getDetectors(){
+		return this.detectors;
+	}
+
+	/**
+	 * Forgets anything kept from earlier frames.
+	 */
+	public void reset(){
+		this.detector.reset();
+		this.estimator.reset();
+	}
+
+	/**
+	 * Sets the range of colours that are kept, it is used from the next frame.
+	 * @param min the lowest hue, saturation and value
+	 * @param max the highest hue, saturation and value
+	 */
+	public void setThresholds(Scalar min, Scalar max){
+		this.threshold.setBounds(min, max);
+	}
+
+	/**
+	 * Splits thresholding and blurring into horizontal tiles run on the pool, see TiledThreshold.
+	 * Only worth it at resolutions where one thread can't keep up.
+	 * @param pool the pool to run the tiles on, or null to do the whole frame on the calling thread
+	 * @param tiles how many tiles to split each frame into
+	 */
+	public void setTiling(ForkJoinPool pool, int tiles){
+		for(BlobDetector detector : this.blobDetectors){
+			detector.setTiling(pool, tiles);
+		}
+	}
+
+	/**
+	 * Times each stage of every frame from the next one on, see VisionLatency.
+	 * @param latency where to record the times, or null not to time anything
+	 */
+	public void setLatency(VisionLatency latency){
+		this.latency = latency;
+		this.threshold.setLatency(latency);
+		for(BlobDetector detector : this.blobDetectors){
+			detector.setLatency(latency);
+		}
+	}
+
+	/**
+	 * Sets whether or not the corners of the chosen pair are refined to a fraction of a pixel, see CornerRefiner.
+	 * @param refine whether or not to refine the corners
+	 */
+	public void setCornerRefinement(boolean refine){
+		CornerRefiner refiner = refine ? new CornerRefiner(RobotMap.VISION_CORNER_WINDOW, RobotMap.VISION_CORNER_ITERATIONS, RobotMap.VISION_CORNER_EPSILON) : null;
+		for(BlobDetector detector : this.blobDetectors){
+			detector.setCornerRefiner(refiner);
+		}
+	}
+
+	/**
+	 * Sets how frames are thresholded.
+	 * @param mode the way to threshold
+	 */
+	public void setThresholdMode(ColorThreshold.Mode mode){
+		this.threshold.setMode(mode);
+	}
+
+	/**
+	 * @return the pair of targets from the last frame, only meaningful if it has a track
+	 */
+	public SingleTarget[] getTargets(){
+		return this.rects;
+	}
+
+	/**
+	 * Copies out every blob the current detector saw in the last frame.
+	 * @param blobs where to copy the blobs to
+	 * @return the number of blobs copied
+	 */
+	public int getBlobs(Blob[] blobs){
+		return this.detector.getBlobs(blobs);
+	}
+
+	/**
+	 * @return the result of the last frame processed
+	 */
+	public VisionResult getResult(){
+		return this.result;
+	}
+}
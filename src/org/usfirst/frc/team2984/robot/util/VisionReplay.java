@@ -0,0 +1,197 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.usfirst.frc.team2984.robot.RobotMap;
+
+/**
+ * Runs recorded frames through the VisionPipeline without a camera or the robot, printing the
+ * result and time of every frame and then the throughput and how long each stage took.
+ * 
+ * Usage: VisionReplay directory [detector] [repeats] [IN_RANGE|LOOKUP_TABLE]
+ * 
+ * The directory can hold png and jpg images, and raw .mat dumps which are the rows, columns and
+ * opencv type as big endian ints followed by the pixel bytes.
+ */
+public class VisionReplay {
+
+	private VisionPipeline pipeline;
+	private Frame frame;
+	private long frames;
+	private long lastTime;
+	private long totalTime;
+	private long maxTime;
+
+	public VisionReplay(VisionPipeline pipeline){
+		this.pipeline = pipeline;
+		this.frame = new Frame(new Mat());
+	}
+
+	/**
+	 * Processes a copy of the image, only the pipeline is timed.
+	 * @param image the recorded BGR image
+	 * @return the result for the image
+	 */
+	public VisionResult replay(Mat image){
+		image.copyTo(this.frame.getImage());
+		this.frame.stamp(System.nanoTime(), this.frames + 1);
+		long start = System.nanoTime();
+		VisionResult result = this.pipeline.process(this.frame);
+		long time = System.nanoTime() - start;
+		this.frames++;
+		this.lastTime = time;
+		this.totalTime += time;
+		this.maxTime = Math.max(this.maxTime, time);
+		return result;
+	}
+
+	public long getFrames(){
+		return this.frames;
+	}
+
+	/**
+	 * @return the time of the last frame in milliseconds
+	 */
+	public double getLastMillis(){
+		return this.lastTime / 1000000D;
+	}
+
+	/**
+	 * @return the mean time per frame in milliseconds
+	 */
+	public double getMeanMillis(){
+		return this.frames == 0 ? 0 : this.totalTime / 1000000D / this.frames;
+	}
+
+	/**
+	 * @return the longest time of any frame in milliseconds
+	 */
+	public double getMaxMillis(){
+		return this.maxTime / 1000000D;
+	}
+
+	/**
+	 * @return the frames per second the pipeline could keep up with
+	 */
+	public double getFramesPerSecond(){
+		return this.totalTime == 0 ? 0 : this.frames * 1000000000D / this.totalTime;
+	}
+
+	/**
+	 * Reads a frame, either an image opencv can decode or a raw .mat dump.
+	 * @return the image, empty if it could not be read
+	 */
+	public static Mat read(File file){
+		if(!file.getName().endsWith(".mat")){
+			return Imgcodecs.imread(file.getPath());
+		}
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+			int rows = in.readInt();
+			int cols = in.readInt();
+			int type = in.readInt();
+			if(rows <= 0 || cols <= 0 || file.length() - 12 != (long) rows * cols * CvType.ELEM_SIZE(type)){
+				return new Mat();
+			}
+			Mat image = new Mat(rows, cols, type);
+			byte[] data = new byte[(int) (image.total() * image.elemSize())];
+			in.readFully(data);
+			image.put(0, 0, data);
+			return image;
+		} catch(IOException | UnsupportedOperationException e){
+			// a short file, or a type opencv doesn't know
+			return new Mat();
+		}
+	}
+
+	/**
+	 * Reads every frame and replays them in order. Frames that can't be read, or aren't BGR, are
+	 * reported and skipped rather than stopping the replay.
+	 * @param files the frames, in the order to replay them
+	 * @param repeats how many times to replay all of them
+	 * @param out where to print each result of the last repeat and the frames that were skipped
+	 * @return the result of each frame in the last repeat, null for the frames that were skipped
+	 */
+	public VisionResult[] replay(File[] files, int repeats, PrintStream out){
+		Mat[] images = new Mat[files.length];
+		for(int i = 0; i < files.length; i++){
+			images[i] = read(files[i]);
+			if(images[i].empty() || images[i].type() != CvType.CV_8UC3){
+				out.println("Could not read " + files[i]);
+			}
+		}
+		VisionResult[] results = new VisionResult[files.length];
+		for(int r = 0; r < repeats; r++){
+			for(int i = 0; i < files.length; i++){
+				if(images[i].empty() || images[i].type() != CvType.CV_8UC3){
+					continue;
+				}
+				results[i] = this.replay(images[i]);
+				if(r == repeats - 1){
+					out.printf("%s %.3f ms %s%n", files[i].getName(), this.getLastMillis(), results[i]);
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * @param directory the directory of recorded frames
+	 * @return the png, jpg and .mat files in it sorted by name, or null if it can't be listed
+	 */
+	public static File[] list(File directory){
+		File[] files = directory.listFiles(VisionReplay::isFrame);
+		if(files != null){
+			Arrays.sort(files);
+		}
+		return files;
+	}
+
+	private static boolean isFrame(File file){
+		String name = file.getName().toLowerCase();
+		return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".mat");
+	}
+
+	public static void main(String[] args){
+		if(args.length < 1){
+			System.err.println("Usage: VisionReplay directory [detector] [repeats] [IN_RANGE|LOOKUP_TABLE]");
+			System.exit(1);
+		}
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File[] files = list(new File(args[0]));
+		if(files == null || files.length == 0){
+			System.err.println("No frames in " + args[0]);
+			System.exit(1);
+		}
+		int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		ColorThreshold.Mode mode = args.length > 3 ? ColorThreshold.Mode.valueOf(args[3]) : RobotMap.VISION_THRESHOLD_MODE;
+
+		ColorThreshold threshold = new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, mode);
+		VisionPipeline pipeline = new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, threshold);
+		if(args.length > 1){
+			TimedDetector detector = pipeline.getDetector(args[1]);
+			if(detector == null){
+				System.err.println("No detector called " + args[1] + ", pick one of " + Arrays.toString(pipeline.getDetectors()));
+				System.exit(1);
+			}
+			pipeline.setDetector(detector);
+		}
+
+		VisionLatency latency = new VisionLatency("Replay");
+		pipeline.setLatency(latency);
+		VisionReplay replay = new VisionReplay(pipeline);
+		replay.replay(files, repeats, System.out);
+		System.out.printf("%s: %d frames, mean %.3f ms, max %.3f ms, %.1f fps%n", pipeline.getDetector().getName(),
+				replay.getFrames(), replay.getMeanMillis(), replay.getMaxMillis(), replay.getFramesPerSecond());
+		latency.dump(System.out);
+	}
+}
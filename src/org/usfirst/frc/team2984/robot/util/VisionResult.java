@@ -0,0 +1,101 @@
+package org.usfirst.frc.team2984.robot.util;
+
+/**
+ * Everything the vision thread found in one frame. Results are never changed after being made,
+ * so the tracker publishes each one through a single volatile reference and readers never
+ * see the target from one frame with the track from another.
+ */
+public class VisionResult {
+
+	private final VisionTarget target;
+	private final boolean hasTrack;
+	private final double confidence;
+	private final Peg peg;
+	private final long timestamp;
+	private final long sequence;
+
+	/**
+	 * @param target the last target seen, which is from an older frame if there is no track
+	 * @param hasTrack whether or not the target was found in this frame
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @param sequence the frame's sequence number
+	 */
+	public VisionResult(VisionTarget target, boolean hasTrack, long timestamp, long sequence){
+		this(target, hasTrack, hasTrack ? 1 : 0, timestamp, sequence);
+	}
+
+	/**
+	 * @param target the last target seen, which is from an older frame if there is no track
+	 * @param hasTrack whether or not the target was found in this frame
+	 * @param confidence how sure the detector is of the target, from 0 to 1
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @param sequence the frame's sequence number
+	 */
+	public VisionResult(VisionTarget target, boolean hasTrack, double confidence, long timestamp, long sequence){
+		this(target, null, hasTrack, confidence, timestamp, sequence);
+	}
+
+	/**
+	 * @param target the last target seen, which is from an older frame if there is no track
+	 * @param peg the pose of the peg in this frame, or null if it was not found
+	 * @param hasTrack whether or not the target was found in this frame
+	 * @param confidence how sure the detector is of the target, from 0 to 1
+	 * @param timestamp the System.nanoTime() the frame was captured at
+	 * @param sequence the frame's sequence number
+	 */
+	public VisionResult(VisionTarget target, Peg peg, boolean hasTrack, double confidence, long timestamp, long sequence){
+		this.target = target;
+		this.peg = peg;
+		this.hasTrack = hasTrack;
+		this.confidence = confidence;
+		this.timestamp = timestamp;
+		this.sequence = sequence;
+	}
+
+	public VisionTarget getTarget(){
+		return this.target;
+	}
+
+	/**
+	 * @return the full pose of the peg from this frame, or null if it was not found
+	 */
+	public Peg getPeg(){
+		return this.peg;
+	}
+
+	public boolean hasTrack(){
+		return this.hasTrack;
+	}
+
+	/**
+	 * @return how sure the detector is of the target, from 0 to 1, 0 if there is no track
+	 */
+	public double getConfidence(){
+		return this.confidence;
+	}
+
+	/**
+	 * @return the System.nanoTime() the frame was captured at
+	 */
+	public long getTimestamp(){
+		return this.timestamp;
+	}
+
+	/**
+	 * @return the frame's sequence number, a result with the same number as the last one read is a repeat
+	 */
+	public long getSequence(){
+		return this.sequence;
+	}
+
+	/**
+	 * @return how long ago the frame was captured in milliseconds
+	 */
+	public long age(){
+		return (System.nanoTime() - this.timestamp) / 1000000L;
+	}
+
+	public String toString(){
+		return "Vision Result { Track: " + this.hasTrack + ", Confidence: " + this.confidence + ", Frame: " + this.sequence + ", Target: " + this.target + ", Peg: " + this.peg + "}";
+	}
+}
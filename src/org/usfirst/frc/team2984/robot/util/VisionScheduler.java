@@ -0,0 +1,169 @@
+package org.usfirst.frc.team2984.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the vision work of every camera on a fixed number of worker threads instead of one thread
+ * per camera. Whenever a worker is free it takes the highest priority job that is due, a job is never
+ * run on two workers at once, and idle workers sleep until a job is due or wake is called.
+ */
+public class VisionScheduler {
+
+	private static final long MAX_IDLE = 100000000L; // in nanoseconds, how long a worker sleeps without being woken
+
+	/**
+	 * One camera's worth of work.
+	 */
+	public interface Job {
+
+		/**
+		 * @return the priority, higher runs first when more than one job is due
+		 */
+		public int getPriority();
+
+		/**
+		 * @param now the System.nanoTime() now
+		 * @return the System.nanoTime() the job may run at, or Long.MAX_VALUE if it has nothing to do
+		 */
+		public long getNextRunTime(long now);
+
+		/**
+		 * Does one unit of work, like processing the newest frame.
+		 */
+		public void run();
+	}
+
+	private int workerCount;
+	private List<Job> jobs;
+	private List<Job> running;
+	private Thread[] workers;
+
+	/**
+	 * @param workers the number of worker threads, at least 1
+	 */
+	public VisionScheduler(int workers){
+		this.workerCount = Math.max(workers, 1);
+		this.jobs = new ArrayList<Job>();
+		this.running = new ArrayList<Job>();
+	}
+
+	/**
+	 * Adds a job, it can be added before or after start.
+	 */
+	public synchronized void add(Job job){
+		this.jobs.add(job);
+		this.notifyAll();
+	}
+
+	/**
+	 * Starts the worker threads.
+	 */
+	public synchronized void start(){
+		if(this.workers != null){
+			return;
+		}
+		this.workers = new Thread[this.workerCount];
+		for(int i = 0; i < this.workerCount; i++){
+			Thread worker = new Thread(this::work, "Vision Worker " + i);
+			worker.setDaemon(true);
+			this.workers[i] = worker;
+			worker.start();
+		}
+	}
+
+	/**
+	 * Wakes the idle workers to look for work again, called when a job may have become due early,
+	 * like when a new frame comes in.
+	 */
+	public synchronized void wake(){
+		this.notifyAll();
+	}
+
+	/**
+	 * Takes the highest priority job that is due and not already running, and marks it as running.
+	 * @param now the System.nanoTime() now
+	 * @return the job, or null if none is due
+	 */
+	public synchronized Job poll(long now){
+		Job best = null;
+		for(int i = 0; i < this.jobs.size(); i++){
+			Job job = this.jobs.get(i);
+			if(this.running.contains(job) || job.getNextRunTime(now) > now){
+				continue;
+			}
+			if(best == null || job.getPriority() > best.getPriority()){
+				best = job;
+			}
+		}
+		if(best != null){
+			this.running.add(best);
+		}
+		return best;
+	}
+
+	/**
+	 * Marks the job as no longer running.
+	 */
+	public synchronized void finished(Job job){
+		this.running.remove(job);
+		this.notifyAll();
+	}
+
+	/**
+	 * @param now the System.nanoTime() now
+	 * @return how long until the next job that is not running is due, in nanoseconds, at most MAX_IDLE
+	 */
+	public synchronized long getWait(long now){
+		long wait = MAX_IDLE;
+		for(int i = 0; i < this.jobs.size(); i++){
+			Job job = this.jobs.get(i);
+			if(!this.running.contains(job)){
+				long next = job.getNextRunTime(now);
+				if(next != Long.MAX_VALUE){
+					wait = Math.min(wait, next - now);
+				}
+			}
+		}
+		return Math.max(wait, 0);
+	}
+
+	/**
+	 * @return whether or not the job is running on a worker
+	 */
+	public synchronized boolean isRunning(Job job){
+		return this.running.contains(job);
+	}
+
+	private void work(){
+		while(true){
+			Job job;
+			try{
+				job = this.next();
+			} catch(InterruptedException e){
+				return;
+			}
+			try{
+				job.run();
+			} catch(Exception e){
+				ErrorReporter.getInstance().report("Vision", e);
+			} finally {
+				this.finished(job);
+			}
+		}
+	}
+
+	private synchronized Job next() throws InterruptedException{
+		while(true){
+			long now = System.nanoTime();
+			Job job = this.poll(now);
+			if(job != null){
+				return job;
+			}
+			long wait = this.getWait(now);
+			if(wait > 0){
+				this.wait(wait / 1000000, (int) (wait % 1000000));
+			}
+		}
+	}
+}
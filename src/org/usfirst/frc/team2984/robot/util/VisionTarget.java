@@ -102,6 +102,14 @@ public class VisionTarget {
 		return physicalTargetSize.height / Math.tan(theta);
 	}
 	
+	/**
+	 * @param calibration the calibration of the camera that saw the target
+	 * @return the distance to the target in inches
+	 */
+	public double getDistance(TargetCalibration calibration) {
+		return calibration.getDistance(this.height);
+	}
+	
 	/**
 	 * Returns the apparent rotation of the camera, in degrees.
 	 * 
@@ -114,6 +122,14 @@ public class VisionTarget {
 		return Math.toDegrees(correctedAngle);
 	}
 	
+	/**
+	 * @param calibration the calibration of the camera that saw the target
+	 * @return the apparent rotation of the camera about the target, in degrees
+	 */
+	public double getRotation(TargetCalibration calibration) {
+		return calibration.getRotation(this.offset);
+	}
+	
 	/**
 	 * Returns the apparent rotation of the camera about the target, in radians and
 	 * within a ranges of -π/2 to π/2. Values from -π/2 to 0 indicate the camera has
@@ -163,6 +179,17 @@ public class VisionTarget {
 		return antiTargetAngle - robotAngle - rotation;
 	}
 	
+	/**
+	 * Gets the clock angle from the calibrated rotation, the current robot angle, and the peg's angle
+	 * @param calibration the calibration of the camera that saw the target
+	 * @param robotAngle the angle the robot is at
+	 * @param pegAngle the angle the peg is at
+	 * @return the clock angle
+	 */
+	public double getClockAngle(TargetCalibration calibration, double robotAngle, double pegAngle) {
+		return pegAngle - 180 - robotAngle - this.getRotation(calibration);
+	}
+	
 	/**
 	 * 
 	 * @param target
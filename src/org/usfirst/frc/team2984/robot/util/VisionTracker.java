@@ -1,14 +1,55 @@
 package org.usfirst.frc.team2984.robot.util;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.RobotMap;
+
+import edu.wpi.first.wpilibj.Preferences;
+
+/**
+ * Owns every camera and the VisionScheduler their frames are processed on. The methods without
+ * a camera are for the gear camera, which the commands aim with.
+ */
 public class VisionTracker{
 
 	private static VisionTracker visionTracker;
 	
-	private TrackingThread thread;
+	private VisionScheduler scheduler;
+	private ForkJoinPool tilePool;
+	private VisionCamera gearCamera;
+	private List<VisionCamera> cameras;
 	
 	private VisionTracker(){
-		this.thread = new TrackingThread();
-		this.thread.start();
+		this.scheduler = new VisionScheduler(RobotMap.VISION_WORKERS);
+		this.cameras = new ArrayList<VisionCamera>();
+		if(RobotMap.VISION_TILES > 1){
+			this.tilePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		this.gearCamera = this.addCamera(RobotMap.GEAR_CAMERA_NAME, RobotMap.GEAR_CAMERA_DEVICE, RobotMap.CAMERA_SPECIFICATION, RobotMap.GEAR_CAMERA_PRIORITY);
+		if(RobotMap.CLIMB_CAMERA_PRESENT){
+			VisionCamera climbCamera = this.addCamera(RobotMap.CLIMB_CAMERA_NAME, RobotMap.CLIMB_CAMERA_DEVICE, RobotMap.CLIMB_CAMERA_SPECIFICATION, RobotMap.CLIMB_CAMERA_PRIORITY);
+			climbCamera.setTracking(false);
+		}
+		for(VisionCamera camera : this.cameras){
+			camera.start(this.scheduler);
+		}
+		this.scheduler.start();
+	}
+	
+	private VisionCamera addCamera(String name, int device, CameraSpecification spec, int priority){
+		// the range from the last calibration, if there was one
+		Preferences preferences = Preferences.getInstance();
+		Scalar min = ThresholdCalibrator.load(preferences, name + " Vision HSV Min", RobotMap.VISION_HSV_MIN);
+		Scalar max = ThresholdCalibrator.load(preferences, name + " Vision HSV Max", RobotMap.VISION_HSV_MAX);
+		ColorThreshold threshold = new ColorThreshold(min, max, RobotMap.VISION_THRESHOLD_MODE);
+		VisionCamera camera = new VisionCamera(name, device, spec, priority, threshold);
+		camera.getPipeline().setTiling(this.tilePool, RobotMap.VISION_TILES);
+		this.cameras.add(camera);
+		return camera;
 	}
 	
 	public static VisionTracker getInstance(){
@@ -18,16 +59,123 @@ public class VisionTracker{
 		return visionTracker;
 	}
 	
+	/**
+	 * @param name the camera's name
+	 * @return the camera, or null if there isn't one with that name
+	 */
+	public VisionCamera getCamera(String name){
+		for(VisionCamera camera : this.cameras){
+			if(camera.getName().equals(name)){
+				return camera;
+			}
+		}
+		return null;
+	}
+	
 	public void shouldTrack(boolean should){
-		this.thread.setTracking(should);
+		this.gearCamera.setTracking(should);
+	}
+	
+	/**
+	 * @return whether or not the gear camera is tracking
+	 */
+	public boolean isTracking(){
+		return this.gearCamera.isTracking();
+	}
+	
+	/**
+	 * Sets whether or not a command is aiming with vision and needs frames at the full rate.
+	 */
+	public void setDemand(boolean demand){
+		this.gearCamera.setDemand(demand);
+	}
+	
+	/**
+	 * Starts working out the gear camera's colour range, see VisionCamera.startCalibration.
+	 */
+	public void startCalibration(){
+		this.gearCamera.startCalibration();
+	}
+	
+	public void cancelCalibration(){
+		this.gearCamera.cancelCalibration();
+	}
+	
+	public boolean isCalibrating(){
+		return this.gearCamera.isCalibrating();
+	}
+	
+	/**
+	 * @return the gear camera's distance and rotation calibration, or null if it hasn't been calibrated
+	 */
+	public TargetCalibration getCalibration(){
+		return this.gearCamera.getCalibration();
+	}
+	
+	/**
+	 * See VisionCamera.recordCalibrationSample.
+	 */
+	public boolean recordCalibrationSample(double distance, double rotation) throws IOException{
+		return this.gearCamera.recordCalibrationSample(distance, rotation);
+	}
+	
+	/**
+	 * See VisionCamera.fitCalibration.
+	 */
+	public TargetCalibration fitCalibration() throws IOException{
+		return this.gearCamera.fitCalibration();
+	}
+	
+	/**
+	 * Tells vision that the control loop overran, so every camera should use less of the CPU for a while.
+	 */
+	public void reportOverrun(){
+		for(VisionCamera camera : this.cameras){
+			camera.reportOverrun();
+		}
+	}
+	
+	public VisionResult getResult(){
+		return this.gearCamera.getResult();
 	}
 	
 	public VisionTarget getTarget(){
-		return this.thread.getTarget();
+		return this.gearCamera.getTarget();
+	}
+	
+	/**
+	 * @return the full pose of the peg from the newest frame, or null if it was not found in that frame
+	 */
+	public Peg getPeg(){
+		return this.gearCamera.getPeg();
 	}
 	
 	public boolean hasTrack(){
-		return this.thread.hasTrack();
+		return this.gearCamera.hasTrack();
+	}
+	
+	/**
+	 * @return how long it took from turning tracking on to the first track, in milliseconds, or NaN if there hasn't been one yet
+	 */
+	public double getEnableLatency(){
+		return this.gearCamera.getEnableLatency();
+	}
+	
+	public long getFramesCaptured(){
+		return this.gearCamera.getFramesCaptured();
+	}
+	
+	public long getFramesDropped(){
+		return this.gearCamera.getFramesDropped();
+	}
+	
+	/**
+	 * Prints how long each stage of every camera's vision has taken since the last dump, see VisionLatency.
+	 */
+	public void dumpLatency(){
+		for(VisionCamera camera : this.cameras){
+			camera.dumpLatency(System.out);
+		}
 	}
 	
 	public static void init(){
@@ -1,7 +1,11 @@
 package org.usfirst.frc.team2984.robot.commands;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.anyDouble;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -13,6 +17,10 @@ import org.usfirst.frc.team2984.robot.commands.AlignToThePeg;
 import org.usfirst.frc.team2984.robot.subsystems.DriveTrain;
 import org.usfirst.frc.team2984.robot.subsystems.Gyroscope;
 import org.usfirst.frc.team2984.robot.util.MathUtil;
+import org.usfirst.frc.team2984.robot.util.Motion;
+import org.usfirst.frc.team2984.robot.util.PiecewiseLinear;
+import org.usfirst.frc.team2984.robot.util.TargetCalibration;
+import org.usfirst.frc.team2984.robot.util.VisionResult;
 import org.usfirst.frc.team2984.robot.util.VisionTarget;
 import org.usfirst.frc.team2984.robot.util.VisionTracker;
 import org.usfirst.frc.team2984.util.DummyReporter;
@@ -40,14 +48,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenThityDegreeseOffStaightOnAndFarAway() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-30D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-30D);
 		
 		command.execute();
 		assertMotionAtAngle(30, Math.min(30*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), 0);
@@ -55,14 +63,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void executeGivenThirtyDegreesOffStraighOnAndFarAwayHaltsCommand() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.atan(RobotMap.TARGET_DIMENSION.height/distance);
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-30D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-30D);
 		
 		command.execute();
 		assertFalse(command.isFinished());
@@ -70,14 +78,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenSteightOnAndFarAway() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.atan(RobotMap.TARGET_DIMENSION.height/distance);
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-60D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-60D);
 		
 		command.execute();
 		assertMotionAtAngle(-60, RobotMap.DOCKING_MAX_SPEED, 0);
@@ -85,14 +93,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void executeGivenStraighOnAndFarAwayHalts() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.atan(RobotMap.TARGET_DIMENSION.height/distance);
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-60D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-60D);
 		
 		command.execute();
 		assertFalse(command.isFinished());
@@ -100,15 +108,15 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenStaightOnAndTooClose() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = RobotMap.DOCKING_DISTANCE_THRESHOLD-1;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angleOff = Math.asin(xOff/distance);
 		double angle = Math.toDegrees(invertCircleOffset(angleOff));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-60D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-60D);
 		
 		command.execute();
 		assertMotionAtAngle(0, 0, 0);
@@ -116,15 +124,15 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void executeGivenStraighOnAndTooCloseHalts() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = RobotMap.DOCKING_DISTANCE_THRESHOLD-1;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angleOff = Math.asin(xOff/distance);
 		double angle = Math.toDegrees(invertCircleOffset(angleOff));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-60D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-60D);
 		
 		command.execute();
 		assertTrue(command.isFinished());
@@ -132,14 +140,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenThityDegreeseOffAndTooClose() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = RobotMap.DOCKING_DISTANCE_THRESHOLD-1;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-30D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-30D);
 		
 		command.execute();
 		assertMotionAtAngle(30, Math.min(30*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), 0);
@@ -157,14 +165,14 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenThityDegreeseOffOverAndTooClose() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = RobotMap.DOCKING_DISTANCE_THRESHOLD-1;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double angle = Math.toDegrees(invertCircleOffset(Math.asin(xOff/distance)));
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-90D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-90D);
 		
 		command.execute();
 		assertMotionAtAngle(30, -Math.min(30*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), 0);
@@ -172,15 +180,15 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenThityDegreeseOffOver() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) - Math.toRadians(RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-90D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-90D);
 		
 		command.execute();
 		assertMotionAtAngle(30, -Math.min((30 + RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD + 1)*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), -(RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1)*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR);
@@ -188,15 +196,15 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenTwentyDegreeseOffUnder() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.toRadians(RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-40D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-40D);
 		
 		command.execute();
 		assertMotionAtAngle(30, Math.min((20 + RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD + 1)*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), (RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1)*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR);
@@ -204,15 +212,15 @@ public class AlignToThePegTest {
 	
 	@Test
 	public void testMotionGivenTwoDegreeseOffUnder() {
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.toRadians(RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-69+RobotMap.DOCKING_YAW_THRESHOLD);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-69+RobotMap.DOCKING_YAW_THRESHOLD);
 		
 		command.execute();
 		assertMotionAtAngle(-60, Math.min(100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), (RobotMap.DOCKING_ROBOT_ANGLE_THRESHOLD+1)*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR);
@@ -221,15 +229,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseStaightOnAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
 		
 		command.execute();
 		assertMotionAtAngle(0, Math.min(100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), 0);
@@ -238,15 +246,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtTwohunderedAndFortyDegreeseStaightOnAndFarAway() {
 		RobotMap.pegAngle = 240;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(60D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(60D);
 		
 		command.execute();
 		assertMotionAtAngle(60, Math.min(100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), 0);
@@ -255,15 +263,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseGyroThirtyOffVisionStaightOnAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(30D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(30D);
 		
 		command.execute();
 		assertMotionAtAngle(90, Math.min(30*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), 0);
@@ -272,15 +280,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseGyroNegativeThirtyOffVisionStaightOnAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-30D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-30D);
 		
 		command.execute();
 		assertMotionAtAngle(90, -Math.min(30*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR,RobotMap.DOCKING_MAX_SPEED), 0);
@@ -289,15 +297,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseGyroStaightOnVisionFifteenAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/24);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
 		
 		command.execute();
 		assertMotionAtAngle(90, 7.5*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR, 7.5*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR);
@@ -306,15 +314,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseGyroStaightOnVisionTwentyAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/9);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
 		
 		command.execute();
 		assertMotionAtAngle(90, Math.min(20*RobotMap.ROBOT_YAW_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), Math.min(20*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED));
@@ -323,15 +331,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtOnehunderedEightyDegreeseGyroNegativeFifteenVisionFifteenAndFarAway() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/12);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-15D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-15D);
 		
 		command.execute();
 		assertMotionAtAngle(0, Math.min(100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), Math.min(15*RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED));
@@ -340,15 +348,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testMotionAtTwohunderedFortyDegreeseGyroNegativeOneVisionStaightOnAndClose() {
 		RobotMap.pegAngle = 240;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 33;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-1D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-1D);
 		
 		command.execute();
 		assertMotionAtAngle(150, -RobotMap.DOCKING_MAX_SPEED, 0);
@@ -357,15 +365,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testRampingOfRotationWhenClose() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 50;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/24);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-7.5D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-7.5D);
 		
 		command.execute();
 		assertMotionAtAngle(0, Math.min(RobotMap.DOCKING_MAX_SPEED, 50*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR),
@@ -375,15 +383,15 @@ public class AlignToThePegTest {
 	@Test
 	public void testRampingOfRotationWhenTooClose() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 29;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/24);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-7.5D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-7.5D);
 		
 		command.execute();
 		assertMotionAtAngle(0, Math.min(0, 0),
@@ -393,21 +401,90 @@ public class AlignToThePegTest {
 	@Test
 	public void testRampingOfRotationWhenFurtherAwayDoesNotGoOverOne() {
 		RobotMap.pegAngle = 180;
-		when(tracker.hasTrack()).thenReturn(true);
 		double distance = 100;
 		double xOff = -RobotMap.CAMERA_OFFSET;
 		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance) + Math.PI/24);
 		double angle = Math.toDegrees(inverseAngle);
 		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
 		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
-		when(tracker.getTarget()).thenReturn(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(track(new VisionTarget(inputAngle,0,inputHeight)));
 		when(gyro.getAngle()).thenReturn(-7.5D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(-7.5D);
 		
 		command.execute();
 		assertMotionAtAngle(0, Math.min(RobotMap.DOCKING_MAX_SPEED, 100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR),
 				Math.min(RobotMap.ROBOT_ANGLE_PROPORIONAL_SCALAR*7.5 ,RobotMap.DOCKING_MAX_SPEED));
 	}
 	
+	@Test
+	public void executeUsesHeadingFromWhenFrameWasCaptured() {
+		RobotMap.pegAngle = 180;
+		double distance = 100;
+		double xOff = -RobotMap.CAMERA_OFFSET;
+		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
+		double angle = Math.toDegrees(inverseAngle);
+		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
+		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
+		VisionResult result = track(new VisionTarget(inputAngle,0,inputHeight));
+		when(tracker.getResult()).thenReturn(result);
+		when(gyro.getAngle()).thenReturn(45D);
+		when(gyro.getAngleAt(result.getTimestamp())).thenReturn(0D);
+		
+		command.execute();
+		assertMotionAtAngle(0, Math.min(100*RobotMap.ROBOT_DISTANCE_PROPORIONAL_SCALAR, RobotMap.DOCKING_MAX_SPEED), 0);
+	}
+	
+	@Test
+	public void executeGivenStaleResultStopsRobot() {
+		VisionTarget target = new VisionTarget(0, 0, 20);
+		long captured = System.nanoTime() - (RobotMap.VISION_MAX_AGE + 1) * 1000000L;
+		when(tracker.getResult()).thenReturn(new VisionResult(target, true, captured, 1));
+		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
+		
+		command.execute();
+		verify(driveTrain).move(new Motion(0, 0, 0));
+	}
+	
+	@Test
+	public void executeGivenDroppedFrameCoastsOnTrack() {
+		RobotMap.pegAngle = 180;
+		double distance = 100;
+		double xOff = -RobotMap.CAMERA_OFFSET;
+		double inverseAngle = invertCircleOffset(Math.asin(xOff/distance));
+		double angle = Math.toDegrees(inverseAngle);
+		double inputAngle = angle / RobotMap.CAMERA_FOV.width * RobotMap.CAMERA_RESOLUTION.width;
+		double inputHeight = RobotMap.CAMERA_RESOLUTION.height/RobotMap.CAMERA_FOV.height*Math.toDegrees(Math.atan(RobotMap.TARGET_DIMENSION.height/distance));
+		VisionTarget target = new VisionTarget(inputAngle,0,inputHeight);
+		when(tracker.getResult()).thenReturn(track(target), new VisionResult(target, false, System.nanoTime(), 2));
+		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
+		
+		command.execute();
+		command.execute();
+		verify(driveTrain, times(2)).moveAtAngle(anyDouble(), anyDouble(), anyDouble());
+		verify(driveTrain, never()).move(new Motion(0, 0, 0));
+	}
+	
+	@Test
+	public void executeGivenCalibrationUsesItForDistance() {
+		RobotMap.pegAngle = 180;
+		VisionTarget target = new VisionTarget(0, 0, 40);
+		// the calibration puts the peg 10 inches away whatever the target looks like
+		TargetCalibration calibration = new TargetCalibration(new PiecewiseLinear(0, 1, new double[]{10, 10}), new PiecewiseLinear(-160, 160, new double[]{0, 0}));
+		when(tracker.getCalibration()).thenReturn(calibration);
+		when(tracker.getResult()).thenReturn(track(target));
+		when(gyro.getAngle()).thenReturn(0D);
+		when(gyro.getAngleAt(anyLong())).thenReturn(0D);
+		
+		command.execute();
+		assertEquals(10, command.getTrack().getDistance(), 0.001);
+	}
+	
+	private VisionResult track(VisionTarget target){
+		return new VisionResult(target, true, System.nanoTime(), 1);
+	}
+	
 	private double invertCircleOffset(double wanted){
 		double alpha = Math.cos(Math.toRadians(RobotMap.CAMERA_ANGLE));
 		double beta = Math.tan(Math.abs(wanted));
@@ -0,0 +1,66 @@
+package org.usfirst.frc.team2984.robot.commands;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.usfirst.frc.team2984.robot.util.VisionTracker;
+import org.usfirst.frc.team2984.util.DummyReporter;
+
+import edu.wpi.first.wpilibj.HLUsageReporting;
+
+public class CalibrateVisionTest {
+	private VisionTracker tracker;
+	private CalibrateVision command;
+	
+	@Before
+	public void before() {
+		// prevents exception during test
+		HLUsageReporting.SetImplementation(new DummyReporter());
+		
+		tracker = mock(VisionTracker.class);
+		command = new CalibrateVision(tracker);
+	}
+	
+	@Test
+	public void endGivenTrackingWasOffTurnsItBackOff() {
+		when(tracker.isTracking()).thenReturn(false);
+		
+		command.initialize();
+		command.end();
+		
+		InOrder order = inOrder(tracker);
+		order.verify(tracker).shouldTrack(true);
+		order.verify(tracker).shouldTrack(false);
+		verify(tracker).setDemand(false);
+	}
+	
+	@Test
+	public void endGivenTrackingWasOnLeavesItOn() {
+		when(tracker.isTracking()).thenReturn(true);
+		
+		command.initialize();
+		command.end();
+		
+		verify(tracker, times(2)).shouldTrack(true);
+		verify(tracker, never()).shouldTrack(false);
+	}
+	
+	@Test
+	public void interruptedCancelsAndPutsTrackingBack() {
+		when(tracker.isTracking()).thenReturn(false);
+		
+		command.initialize();
+		command.interrupted();
+		
+		verify(tracker).cancelCalibration();
+		verify(tracker).setDemand(false);
+		verify(tracker).shouldTrack(false);
+	}
+}
@@ -0,0 +1,68 @@
+package org.usfirst.frc.team2984.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.subsystems.Gyroscope;
+import org.usfirst.frc.team2984.util.DummyReporter;
+
+import edu.wpi.first.wpilibj.HLUsageReporting;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+public class GyroscopeTest {
+	private Gyroscope gyroscope;
+	private Gyro gyro;
+	
+	@Before
+	public void before() {
+		// prevents exception during test
+		HLUsageReporting.SetImplementation(new DummyReporter());
+		
+		gyro = mock(Gyro.class);
+		when(gyro.getAngle()).thenReturn(5.0);
+		gyroscope = new Gyroscope(gyro);
+		gyroscope.calibrate(90);
+	}
+	
+	@Test
+	public void getAngleAddsTheCalibratedOffset() {
+		when(gyro.getAngle()).thenReturn(15.0);
+		
+		assertEquals(100, gyroscope.getAngle(), 0.00001);
+	}
+	
+	@Test
+	public void getAngleAtGivenNoSamplesReturnsTheCurrentAngle() {
+		when(gyro.getAngle()).thenReturn(15.0);
+		
+		assertEquals(100, gyroscope.getAngleAt(System.nanoTime() - 1000000000L), 0.00001);
+	}
+	
+	@Test
+	public void getAngleAtLooksUpTheSampledAngle() {
+		when(gyro.getAngle()).thenReturn(15.0);
+		gyroscope.sample();
+		long between = System.nanoTime();
+		when(gyro.getAngle()).thenReturn(25.0);
+		gyroscope.sample();
+		when(gyro.getAngle()).thenReturn(45.0);
+		
+		assertEquals(100, gyroscope.getAngleAt(between - 1000000000L), 0.00001);
+		assertEquals(110, gyroscope.getAngleAt(System.nanoTime()), 0.00001);
+		double angle = gyroscope.getAngleAt(between);
+		assertEquals(angle + " between the samples", 105, angle, 5.00001);
+	}
+	
+	@Test
+	public void calibrateForgetsSamplesTakenBeforeIt() {
+		when(gyro.getAngle()).thenReturn(15.0);
+		gyroscope.sample();
+		
+		gyroscope.calibrate(0);
+		when(gyro.getAngle()).thenReturn(25.0);
+		
+		assertEquals(10, gyroscope.getAngleAt(System.nanoTime() - 1000000000L), 0.00001);
+	}
+}
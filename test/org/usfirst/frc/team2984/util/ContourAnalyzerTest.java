@@ -0,0 +1,143 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.Blob;
+import org.usfirst.frc.team2984.robot.util.ContourAnalyzer;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+
+public class ContourAnalyzerTest {
+	// an upright tape strip 20 wide and 50 tall, traced the way findContours does
+	private int[] upright = new int[]{10, 10, 10, 60, 30, 60, 30, 10};
+	// a square 200 on a side rotated 30 degrees about (300, 300)
+	private int[] rotated;
+	private ContourAnalyzer analyzer;
+	private Blob blob;
+
+	@Before
+	public void before() {
+		analyzer = new ContourAnalyzer(4);
+		blob = new Blob();
+		rotated = new int[8];
+		double angle = Math.toRadians(30);
+		double[][] corners = new double[][]{{-10, -10}, {10, -10}, {10, 10}, {-10, 10}};
+		for(int i = 0; i < 4; i++){
+			double x = corners[i][0] * Math.cos(angle) - corners[i][1] * Math.sin(angle);
+			double y = corners[i][0] * Math.sin(angle) + corners[i][1] * Math.cos(angle);
+			rotated[i * 2] = (int) Math.round(300 + x * 10);
+			rotated[i * 2 + 1] = (int) Math.round(300 + y * 10);
+		}
+	}
+
+	@Test
+	public void analyzeReturnsAreaOfRectangle() {
+		assertEquals(1000, analyzer.analyze(upright, 4, blob), 0.0001);
+	}
+
+	@Test
+	public void analyzeSetsCentroidOfRectangle() {
+		analyzer.analyze(upright, 4, blob);
+
+		assertEquals(20, blob.getCenterX(), 0.0001);
+		assertEquals(35, blob.getCenterY(), 0.0001);
+	}
+
+	@Test
+	public void analyzeSetsBoundsLikeBoundingRect() {
+		analyzer.analyze(upright, 4, blob);
+
+		assertEquals(10, blob.getMinX(), 0.0001);
+		assertEquals(10, blob.getMinY(), 0.0001);
+		assertEquals(31, blob.getMaxX(), 0.0001);
+		assertEquals(61, blob.getMaxY(), 0.0001);
+	}
+
+	@Test
+	public void analyzeSetsWidthAndHeightOfUprightRectangle() {
+		analyzer.analyze(upright, 4, blob);
+
+		assertEquals(20, blob.getWidth(), 0.0001);
+		assertEquals(50, blob.getHeight(), 0.0001);
+		assertEquals(0, blob.getAngle(), 0.0001);
+	}
+
+	@Test
+	public void analyzeSetsCornersClockwiseFromTopLeft() {
+		analyzer.analyze(upright, 4, blob);
+
+		assertEquals(10, blob.getCornerX(0), 0.0001);
+		assertEquals(10, blob.getCornerY(0), 0.0001);
+		assertEquals(30, blob.getCornerX(2), 0.0001);
+		assertEquals(60, blob.getCornerY(2), 0.0001);
+	}
+
+	@Test
+	public void analyzeFindsMinimumAreaRectangleOfRotatedSquare() {
+		analyzer.analyze(rotated, 4, blob);
+
+		assertEquals(200, blob.getWidth(), 1);
+		assertEquals(200, blob.getHeight(), 1);
+		assertEquals(30, blob.getAngle(), 0.5);
+	}
+
+	@Test
+	public void analyzeIgnoresPointsInsideTheHull() {
+		int[] notched = new int[]{10, 10, 10, 60, 30, 60, 20, 35, 30, 10};
+		analyzer.analyze(notched, 5, blob);
+
+		assertEquals(20, blob.getWidth(), 0.0001);
+		assertEquals(50, blob.getHeight(), 0.0001);
+	}
+
+	@Test
+	public void analyzeHandlesSinglePoint() {
+		analyzer.analyze(new int[]{5, 7}, 1, blob);
+
+		assertEquals(0, blob.getArea(), 0.0001);
+		assertEquals(5, blob.getCenterX(), 0.0001);
+		assertEquals(7, blob.getCenterY(), 0.0001);
+	}
+
+	@Test
+	public void setCopiesBlobIntoSingleTarget() {
+		SingleTarget target = new SingleTarget();
+		analyzer.analyze(upright, 4, blob);
+		target.set(blob);
+
+		assertEquals(20, target.getX(), 0.0001);
+		assertEquals(35, target.getY(), 0.0001);
+		assertEquals(20, target.getWidth(), 0.0001);
+		assertEquals(50, target.getHeight(), 0.0001);
+	}
+
+	@Test
+	public void analyzeDoesNotAllocateAfterWarmUp() {
+		SingleTarget target = new SingleTarget();
+		for(int i = 0; i < 20000; i++){
+			analyzer.analyze(upright, 4, blob);
+			analyzer.analyze(rotated, 4, blob);
+			target.set(blob);
+		}
+		long start = allocatedBytes();
+		long overhead = allocatedBytes() - start;
+
+		start = allocatedBytes();
+		for(int i = 0; i < 1000; i++){
+			analyzer.analyze(upright, 4, blob);
+			analyzer.analyze(rotated, 4, blob);
+			target.set(blob);
+		}
+		long used = allocatedBytes() - start - overhead;
+
+		assertEquals(0, used);
+	}
+
+	private long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,144 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.CornerRefiner;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+
+public class CornerRefinerTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	private static final int SCALE = 8;
+
+	@Test
+	public void refineFindsCornersOfStripToAFractionOfAPixel() {
+		Mat mask = blur(strip(40.375, 30.625, 60.875, 110.25));
+		SingleTarget[] targets = {box(40, 30, 62, 111), box(40, 30, 62, 111)};
+
+		assertEquals(2, refiner().refine(mask, new Point(), targets));
+
+		assertTrue(targets[0].hasCorners());
+		assertEquals(50.125, targets[0].getX(), 0.1);
+		assertEquals(69.9375, targets[0].getY(), 0.1);
+		assertEquals(20.5, targets[0].getWidth(), 0.5);
+		assertEquals(79.625, targets[0].getHeight(), 0.5);
+	}
+
+	@Test
+	public void refineGivenOffsetKeepsTargetsInFramePixels() {
+		Mat window = blur(strip(140.375, 80.625, 160.875, 160.25)).submat(50, 200, 100, 220);
+		SingleTarget[] targets = {box(140, 80, 162, 161)};
+
+		assertEquals(1, refiner().refine(window, new Point(100, 50), targets));
+
+		assertEquals(150.125, targets[0].getX(), 0.1);
+		assertEquals(119.9375, targets[0].getY(), 0.1);
+		assertEquals(79.625, targets[0].getHeight(), 0.5);
+	}
+
+	@Test
+	public void refineGivenTinyTargetKeepsBox() {
+		Mat mask = blur(strip(40, 30, 42, 40));
+		SingleTarget[] targets = {box(40, 30, 43, 41)};
+
+		assertEquals(0, refiner().refine(mask, new Point(), targets));
+
+		assertFalse(targets[0].hasCorners());
+		assertEquals(3, targets[0].getWidth(), 0);
+	}
+
+	@Test
+	public void setAfterSetCornersForgetsCorners() {
+		SingleTarget target = new SingleTarget();
+		target.setCorners(new float[]{0, 0, 10, 0, 10, 20, 0, 20}, 0);
+		assertTrue(target.hasCorners());
+		assertEquals(5, target.getX(), 0);
+		assertEquals(10, target.getWidth(), 0);
+		assertEquals(20, target.getHeight(), 0);
+
+		target.set(1, 2, 3, 4);
+		assertFalse(target.hasCorners());
+	}
+
+	@Test
+	public void pipelineMeasuresStripHeightsCloserWithRefinement() {
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		double boxError = 0;
+		double refinedError = 0;
+		for(double distance = 60; distance <= 140; distance += 7.3){
+			CameraPose pose = new CameraPose(distance, 10, 2);
+			double[] corners = new double[16];
+			renderer.project(pose, corners);
+			boxError += heightError(renderer, pose, corners, false);
+			refinedError += heightError(renderer, pose, corners, true);
+		}
+		assertTrue(refinedError + " vs " + boxError, refinedError < boxError / 2);
+	}
+
+	private static double heightError(SyntheticTargetRenderer renderer, CameraPose pose, double[] corners, boolean refine) {
+		VisionPipeline pipeline = new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.LOOKUP_TABLE));
+		pipeline.setCornerRefinement(refine);
+		Mat image = new Mat();
+		renderer.render(pose, image);
+		assertTrue(pipeline.process(new Frame(image)).hasTrack());
+		SingleTarget[] targets = pipeline.getTargets();
+		double error = 0;
+		for(int strip = 0; strip < 2; strip++){
+			int i = strip * 8;
+			double height = (Math.hypot(corners[i + 6] - corners[i], corners[i + 7] - corners[i + 1])
+					+ Math.hypot(corners[i + 4] - corners[i + 2], corners[i + 5] - corners[i + 3])) / 2;
+			error += Math.abs(targets[strip].getHeight() - height);
+		}
+		return error;
+	}
+
+	private static CornerRefiner refiner() {
+		return new CornerRefiner(RobotMap.VISION_CORNER_WINDOW, RobotMap.VISION_CORNER_ITERATIONS, RobotMap.VISION_CORNER_EPSILON);
+	}
+
+	/**
+	 * A mask of a strip whose edges fall between pixels, drawn at eight times the size and shrunk so
+	 * the pixels on the edges are partly covered. The edges are where a pixel starts, so a pixel's
+	 * center is half a pixel after its edge.
+	 */
+	private static Mat strip(double left, double top, double right, double bottom) {
+		Mat large = new Mat(240 * SCALE, 320 * SCALE, CvType.CV_8UC1, Scalar.all(0));
+		Imgproc.rectangle(large, new Point(left * SCALE, top * SCALE), new Point(right * SCALE - 1, bottom * SCALE - 1), Scalar.all(255), -1);
+		Mat mask = new Mat();
+		Imgproc.resize(large, mask, new Size(320, 240), 0, 0, Imgproc.INTER_AREA);
+		return mask;
+	}
+
+	/**
+	 * Blurs the mask the way BlobDetector does.
+	 */
+	private static Mat blur(Mat mask) {
+		Mat blurred = new Mat();
+		Imgproc.blur(mask, blurred, new Size(3, 3));
+		return blurred;
+	}
+
+	private static SingleTarget box(double minX, double minY, double maxX, double maxY) {
+		SingleTarget target = new SingleTarget();
+		target.set((minX + maxX) / 2, (minY + maxY) / 2, maxX - minX, maxY - minY);
+		return target;
+	}
+}
@@ -0,0 +1,91 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
+
+public class ErrorReporterTest {
+	private static final long MILLISECOND = 1000000L;
+	private static final long SECOND = 1000000000L;
+	private ErrorReporter.Sink sink;
+	private ErrorReporter reporter;
+	
+	@Before
+	public void before() {
+		sink = mock(ErrorReporter.Sink.class);
+		reporter = new ErrorReporter(sink, 1, 5);
+	}
+	
+	@Test
+	public void reportGivenFirstErrorSendsItRightAway() {
+		reporter.report("Vision", "broken", null, SECOND);
+		
+		verify(sink).report("Vision: broken", "");
+	}
+	
+	@Test
+	public void reportGivenRepeatsWithinIntervalOnlyCountsThem() {
+		for(int i = 0; i < 100; i++){
+			reporter.report("Vision", "broken", null, SECOND + i * MILLISECOND);
+		}
+		
+		verify(sink, times(1)).report(anyString(), anyString());
+		assertEquals(100, reporter.getCount("Vision", "broken"));
+	}
+	
+	@Test
+	public void reportAfterIntervalSendsCountSinceLastReport() {
+		for(int i = 0; i < 10; i++){
+			reporter.report("Vision", "broken", null, SECOND + i * MILLISECOND);
+		}
+		reporter.report("Vision", "broken", null, 2 * SECOND);
+		
+		verify(sink).report("Vision: broken (x10, 11 total)", "");
+	}
+	
+	@Test
+	public void flushSendsHeldBackCountsAfterInterval() {
+		reporter.report("Vision", "broken", null, SECOND);
+		reporter.report("Vision", "broken", null, SECOND + MILLISECOND);
+		reporter.flush(SECOND + 500 * MILLISECOND);
+		verify(sink, never()).report("Vision: broken (x1, 2 total)", "");
+		
+		reporter.flush(2 * SECOND + MILLISECOND);
+		verify(sink).report("Vision: broken (x1, 2 total)", "");
+		reporter.flush(4 * SECOND);
+		verify(sink, times(2)).report(anyString(), anyString());
+	}
+	
+	@Test
+	public void reportGivenManyDifferentErrorsIsRateLimited() {
+		for(int i = 0; i < 20; i++){
+			reporter.report("Vision", "error " + i, null, SECOND);
+		}
+		
+		verify(sink, times(5)).report(anyString(), anyString());
+	}
+	
+	@Test
+	public void reportGivenSameMessageFromDifferentSourcesKeepsThemApart() {
+		reporter.report("Vision", "broken", null, SECOND);
+		reporter.report("Gyroscope", "broken", null, SECOND);
+		
+		verify(sink).report("Vision: broken", "");
+		verify(sink).report("Gyroscope: broken", "");
+	}
+	
+	@Test
+	public void reportGivenExceptionIncludesWhereItWasThrown() {
+		Exception error = new IllegalStateException("bad frame");
+		reporter.report("Vision", error.toString(), error, SECOND);
+		
+		verify(sink).report("Vision: java.lang.IllegalStateException: bad frame", error.getStackTrace()[0].toString());
+	}
+}
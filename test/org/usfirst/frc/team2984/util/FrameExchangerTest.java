@@ -0,0 +1,89 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.FrameExchanger;
+
+public class FrameExchangerTest {
+	private FrameExchanger exchanger;
+	
+	@Before
+	public void before() {
+		exchanger = new FrameExchanger(new Frame(null), new Frame(null), new Frame(null));
+	}
+	
+	@Test
+	public void takeReturnsNullBeforeAnyFrameIsPublished() {
+		assertNull(exchanger.take());
+	}
+	
+	@Test
+	public void takeReturnsPublishedFrame() {
+		Frame back = exchanger.getBack();
+		exchanger.publish(42);
+		Frame taken = exchanger.take();
+		
+		assertSame(back, taken);
+		assertEquals(42, taken.getTimestamp());
+		assertEquals(1, taken.getSequence());
+	}
+	
+	@Test
+	public void takeReturnsNullWhenFrameWasAlreadyTaken() {
+		exchanger.publish(1);
+		exchanger.take();
+		
+		assertNull(exchanger.take());
+	}
+	
+	@Test
+	public void takeReturnsNewestFrameAndCountsDropped() {
+		exchanger.publish(1);
+		exchanger.publish(2);
+		exchanger.publish(3);
+		
+		assertEquals(3, exchanger.take().getTimestamp());
+		assertEquals(2, exchanger.getDropped());
+		assertEquals(3, exchanger.getPublished());
+		assertEquals(1, exchanger.getTaken());
+	}
+	
+	@Test
+	public void producerNeverGetsFrameConsumerHolds() {
+		exchanger.publish(1);
+		Frame taken = exchanger.take();
+		for(int i = 0; i < 5; i++){
+			assertNotSame(taken, exchanger.getBack());
+			exchanger.publish(i);
+		}
+	}
+	
+	@Test
+	public void awaitReturnsNullAfterTimeout() {
+		assertNull(exchanger.await(1000000));
+	}
+	
+	@Test(timeout=1000)
+	public void awaitWakesWhenFrameIsPublished() throws InterruptedException {
+		Thread producer = new Thread(new Runnable(){
+			public void run() {
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					return;
+				}
+				exchanger.publish(7);
+			}
+		});
+		producer.start();
+		
+		assertEquals(7, exchanger.await(500000000L).getTimestamp());
+		producer.join();
+	}
+}
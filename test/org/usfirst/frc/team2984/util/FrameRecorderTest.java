@@ -0,0 +1,173 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.util.FrameRecorder;
+import org.usfirst.frc.team2984.robot.util.VisionReplay;
+import org.usfirst.frc.team2984.robot.util.VisionResult;
+import org.usfirst.frc.team2984.robot.util.VisionTarget;
+
+public class FrameRecorderTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void openPreallocatesEverySlot() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		recorder.open();
+		for(int i = 0; i < 4; i++){
+			assertEquals(8192, recorder.getSlotFile(i).length());
+		}
+		assertEquals(4, Files.readAllLines(recorder.getIndexFile().toPath()).size());
+		assertEquals(0, recorder.getNextSlot());
+	}
+
+	@Test
+	public void openGivenSlotOfAnotherSizeFillsItWithZeros() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 2, 8192, 75, 10);
+		byte[] old = new byte[3000];
+		Arrays.fill(old, (byte) 7);
+		Files.write(recorder.getSlotFile(1).toPath(), old);
+		recorder.open();
+		for(int i = 0; i < 2; i++){
+			byte[] slot = Files.readAllBytes(recorder.getSlotFile(i).toPath());
+			assertArrayEquals(new byte[8192], slot);
+		}
+	}
+
+	@Test
+	public void recordNewestWritesADecodableFrameAndItsResult() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		recorder.open();
+		record(recorder, 7, true);
+		Mat image = VisionReplay.read(recorder.getSlotFile(0));
+		assertEquals(240, image.rows());
+		assertEquals(320, image.cols());
+		String line = Files.readAllLines(recorder.getIndexFile().toPath()).get(0).trim();
+		assertTrue(line, line.startsWith("0,1,7,700,1,0.800,"));
+		assertEquals(1, recorder.getRecorded());
+		assertEquals(1, recorder.getNextSlot());
+	}
+
+	@Test
+	public void recordNewestGivenNothingPublishedWritesNothing() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		recorder.open();
+		assertFalse(recorder.recordNewest());
+		assertEquals(0, recorder.getRecorded());
+	}
+
+	@Test
+	public void publishGivenEncoderBehindDropsTheOlderFrame() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		recorder.open();
+		recorder.capture(frame(1), 0);
+		recorder.publish(result(1, false));
+		recorder.capture(frame(2), 0);
+		recorder.publish(result(2, false));
+		assertTrue(recorder.recordNewest());
+		assertFalse(recorder.recordNewest());
+		assertEquals(1, recorder.getDropped());
+		String line = Files.readAllLines(recorder.getIndexFile().toPath()).get(0);
+		assertTrue(line, line.startsWith("0,1,2,"));
+	}
+
+	@Test
+	public void recordingPastTheLastSlotOverwritesTheOldest() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 3, 8192, 75, 10);
+		recorder.open();
+		for(int i = 1; i <= 4; i++){
+			record(recorder, i, false);
+		}
+		List<String> lines = Files.readAllLines(recorder.getIndexFile().toPath());
+		assertTrue(lines.get(0).startsWith("0,4,4,"));
+		assertTrue(lines.get(1).startsWith("1,2,2,"));
+		assertEquals(8192, recorder.getSlotFile(0).length());
+		assertEquals(1, recorder.getNextSlot());
+	}
+
+	@Test
+	public void openCarriesOnAfterTheNewestFrame() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 3, 8192, 75, 10);
+		recorder.open();
+		for(int i = 1; i <= 5; i++){
+			record(recorder, i, false);
+		}
+		FrameRecorder restarted = new FrameRecorder(folder.getRoot(), 3, 8192, 75, 10);
+		restarted.open();
+		assertEquals(2, restarted.getNextSlot());
+		assertEquals(5, restarted.getWrites());
+	}
+
+	@Test
+	public void openAfterRestartsWithSequencesFromOneOverwritesTheOldestRun() throws IOException {
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		recorder.open();
+		for(int i = 1; i <= 3; i++){
+			record(recorder, 100 + i, false);
+		}
+		// the second boot counts from one again
+		FrameRecorder second = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		second.open();
+		assertEquals(3, second.getNextSlot());
+		for(int i = 1; i <= 2; i++){
+			record(second, i, false);
+		}
+		FrameRecorder third = new FrameRecorder(folder.getRoot(), 4, 8192, 75, 10);
+		third.open();
+		assertEquals(1, third.getNextSlot());
+		record(third, 1, false);
+
+		List<String> lines = Files.readAllLines(third.getIndexFile().toPath());
+		assertTrue(lines.get(0).trim(), lines.get(0).startsWith("0,5,2,"));
+		assertTrue(lines.get(1).trim(), lines.get(1).startsWith("1,6,1,"));
+		assertTrue(lines.get(2).trim(), lines.get(2).startsWith("2,3,103,"));
+		assertTrue(lines.get(3).trim(), lines.get(3).startsWith("3,4,1,"));
+	}
+
+	@Test
+	public void recordNewestGivenFrameTooBigForSlotSkipsIt() throws IOException {
+		File directory = folder.newFolder();
+		FrameRecorder recorder = new FrameRecorder(directory, 2, 100, 75, 10);
+		recorder.open();
+		record(recorder, 1, false);
+		assertEquals(0, recorder.getRecorded());
+		assertEquals(1, recorder.getSkipped());
+		assertEquals(0, recorder.getNextSlot());
+		assertEquals(100, recorder.getSlotFile(0).length());
+	}
+
+	private static void record(FrameRecorder recorder, long sequence, boolean track) throws IOException {
+		recorder.capture(frame(sequence), 0);
+		recorder.publish(result(sequence, track));
+		recorder.recordNewest();
+	}
+
+	private static VisionResult result(long sequence, boolean track) {
+		return new VisionResult(new VisionTarget(10, 40, 50), null, track, track ? 0.8 : 0, sequence * 100, sequence);
+	}
+
+	private static Mat frame(long sequence) {
+		return new Mat(240, 320, CvType.CV_8UC3, new Scalar(sequence * 10 % 256, 80, 40));
+	}
+}
@@ -0,0 +1,64 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+
+public class FrameTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	@Test
+	public void getRegionKeepsTheSubMatrixWhileTheAreaIsTheSame() {
+		Frame frame = new Frame(new Mat(240, 320, CvType.CV_8UC3, Scalar.all(0)));
+
+		Mat region = frame.getRegion(40, 16, 80, 64);
+
+		assertSame(region, frame.getRegion(40, 16, 80, 64));
+	}
+
+	@Test
+	public void getRegionGivenOneChannelWrittenIntoItRemakesTheSubMatrix() {
+		Frame frame = new Frame(new Mat(240, 320, CvType.CV_8UC3, Scalar.all(0)));
+		Mat region = frame.getRegion(40, 16, 80, 64);
+		// writing a different type into a sub matrix reallocates it away from the image
+		Core.inRange(region, Scalar.all(0), Scalar.all(10), region);
+
+		Mat again = frame.getRegion(40, 16, 80, 64);
+
+		assertEquals(CvType.CV_8UC3, again.type());
+		again.setTo(Scalar.all(7));
+		assertEquals(7, frame.getImage().get(16, 40)[0], 0);
+		assertEquals(0, frame.getImage().get(15, 40)[0], 0);
+	}
+
+	@Test
+	public void windowedDetectorsGivenInRangeTrackEveryFrame() {
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		for(String detector : new String[]{"Contours In Window", "Components In Window"}){
+			VisionPipeline pipeline = new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.IN_RANGE));
+			pipeline.setDetector(pipeline.getDetector(detector));
+			// like the FrameExchanger, a few buffers take turns
+			Frame[] frames = {new Frame(new Mat()), new Frame(new Mat()), new Frame(new Mat())};
+			for(int i = 0; i < 9; i++){
+				Frame frame = frames[i % frames.length];
+				renderer.render(new CameraPose(80 - i, 5, 0), frame.getImage());
+				assertTrue(detector + " frame " + i, pipeline.process(frame).hasTrack());
+				assertEquals(CvType.CV_8UC3, frame.getImage().type());
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.HeadingHistory;
+
+public class HeadingHistoryTest {
+	private HeadingHistory history;
+	
+	@Before
+	public void before() {
+		history = new HeadingHistory(4);
+	}
+	
+	@Test
+	public void getAngleAtReturnsNaNGivenNoSamples() {
+		assertTrue(Double.isNaN(history.getAngleAt(100)));
+	}
+	
+	@Test
+	public void getAngleAtReturnsSampleGivenExactTime() {
+		history.record(100, 10);
+		history.record(200, 20);
+		
+		assertEquals(20, history.getAngleAt(200), 0.00001);
+	}
+	
+	@Test
+	public void getAngleAtInterpolatesBetweenSamples() {
+		history.record(100, 10);
+		history.record(200, 20);
+		history.record(300, 40);
+		
+		assertEquals(30, history.getAngleAt(250), 0.00001);
+	}
+	
+	@Test
+	public void getAngleAtReturnsOldestGivenEarlierTime() {
+		history.record(100, 10);
+		history.record(200, 20);
+		
+		assertEquals(10, history.getAngleAt(50), 0.00001);
+	}
+	
+	@Test
+	public void getAngleAtReturnsNewestGivenLaterTime() {
+		history.record(100, 10);
+		history.record(200, 20);
+		
+		assertEquals(20, history.getAngleAt(500), 0.00001);
+	}
+	
+	@Test
+	public void recordOverwritesOldestWhenFull() {
+		for(int i = 1; i <= 6; i++){
+			history.record(i * 100, i * 10);
+		}
+		
+		assertEquals(4, history.size());
+		assertEquals(30, history.getAngleAt(100), 0.00001);
+		assertEquals(55, history.getAngleAt(550), 0.00001);
+	}
+	
+	@Test
+	public void clearRemovesSamples() {
+		history.record(100, 10);
+		history.clear();
+		
+		assertTrue(Double.isNaN(history.getAngleAt(100)));
+	}
+}
@@ -0,0 +1,63 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.HsvLookupTable;
+
+public class HsvLookupTableTest {
+	private HsvLookupTable table;
+	
+	@Before
+	public void before() {
+		table = new HsvLookupTable();
+		table.build(new double[]{18, 70, 41}, new double[]{103, 255, 255});
+	}
+	
+	@Test
+	public void containsBrightGreen() {
+		assertTrue(table.contains(0, 255, 0));
+	}
+	
+	@Test
+	public void doesNotContainRed() {
+		assertFalse(table.contains(0, 0, 255));
+	}
+	
+	@Test
+	public void doesNotContainBlack() {
+		assertFalse(table.contains(0, 0, 0));
+	}
+	
+	@Test
+	public void doesNotContainGrey() {
+		assertFalse(table.contains(200, 200, 200));
+	}
+	
+	@Test
+	public void doesNotContainDarkGreen() {
+		assertFalse(table.contains(0, 20, 0));
+	}
+	
+	@Test
+	public void buildReplacesOldRange() {
+		table.build(new double[]{0, 70, 41}, new double[]{10, 255, 255});
+		
+		assertTrue(table.contains(0, 0, 255));
+		assertFalse(table.contains(0, 255, 0));
+	}
+	
+	@Test
+	public void applyWritesMaskForEachPixel() {
+		byte[] bgr = new byte[]{0, (byte) 255, 0, 0, 0, (byte) 255, 10, (byte) 200, 30};
+		byte[] mask = new byte[3];
+		table.apply(bgr, mask, 3);
+		
+		assertEquals((byte) 255, mask[0]);
+		assertEquals(0, mask[1]);
+		assertEquals((byte) 255, mask[2]);
+	}
+}
@@ -0,0 +1,109 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.LatencyHistogram;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionLatency;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+
+public class LatencyHistogramTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	@Test
+	public void percentilesGivenOneToAHundredMillisAreWithinAnEighth() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 100; i >= 1; i--){
+			histogram.record(i * 1000000L);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(50.5, histogram.getMean(), 1e-9);
+		assertEquals(100, histogram.getMax(), 0);
+		assertWithinAnEighth(50, histogram.getPercentile(0.5));
+		assertWithinAnEighth(95, histogram.getPercentile(0.95));
+		assertWithinAnEighth(99, histogram.getPercentile(0.99));
+		assertEquals(100, histogram.getPercentile(1), 0);
+	}
+
+	@Test
+	public void percentileGivenShortDurationsIsWithinAMicrosecond() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(2000);
+		histogram.record(3000);
+		histogram.record(5000);
+
+		assertEquals(0.004, histogram.getPercentile(0.5), 1e-9);
+		assertEquals(0.005, histogram.getPercentile(0.99), 1e-9);
+	}
+
+	@Test
+	public void percentileNeverPassesTheMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000001);
+		histogram.record(60000000000L);
+
+		assertEquals(60000, histogram.getPercentile(0.99), 0);
+		assertEquals(1.024, histogram.getPercentile(0.5), 1e-9);
+	}
+
+	@Test
+	public void resetForgetsEverything() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(5000000);
+		histogram.reset();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax(), 0);
+		assertEquals(0, histogram.getPercentile(0.95), 0);
+	}
+
+	@Test
+	public void pipelineTimesEachStageOfAFrameWithATrack() {
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		VisionPipeline pipeline = new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.IN_RANGE));
+		VisionLatency latency = new VisionLatency("Gear");
+		pipeline.setLatency(latency);
+		Mat image = new Mat();
+		renderer.render(new CameraPose(80, 0, 0), image);
+
+		assertTrue(pipeline.process(new Frame(image)).hasTrack());
+
+		for(VisionLatency.Stage stage : new VisionLatency.Stage[]{VisionLatency.Stage.CONVERT, VisionLatency.Stage.THRESHOLD,
+				VisionLatency.Stage.BLUR, VisionLatency.Stage.BLOBS, VisionLatency.Stage.PAIR, VisionLatency.Stage.REFINE, VisionLatency.Stage.MEASURE}){
+			assertEquals(stage.toString(), 1, latency.get(stage).getCount());
+		}
+		assertEquals(0, latency.get(VisionLatency.Stage.GRAB).getCount());
+	}
+
+	@Test
+	public void dumpPrintsTimedStagesAndStartsAgain() {
+		VisionLatency latency = new VisionLatency("Gear");
+		latency.record(VisionLatency.Stage.BLUR, 0, 2000000);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		latency.dump(new PrintStream(bytes, true));
+
+		String dump = bytes.toString();
+		assertTrue(dump, dump.startsWith("Gear Vision Latency Blur: n 1,"));
+		assertEquals(1, dump.split("\n").length);
+		assertEquals(0, latency.get(VisionLatency.Stage.BLUR).getCount());
+	}
+
+	private static void assertWithinAnEighth(double expected, double actual) {
+		assertTrue(actual + " for " + expected, actual >= expected && actual <= expected * 1.125);
+	}
+}
@@ -0,0 +1,127 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opencv.calib3d.Calib3d;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.MatOfPoint3f;
+import org.opencv.core.Point;
+import org.opencv.core.Point3;
+import org.usfirst.frc.team2984.robot.util.CameraIntrinsics;
+import org.usfirst.frc.team2984.robot.util.LensModel;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+
+public class LensModelTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final CameraIntrinsics LENS = new CameraIntrinsics(300, 300, 160, 120, new double[]{-0.3, 0.1, 0.001, -0.002, 0});
+
+	@Test
+	public void undistortGivenCornersDistortedByTheLensFindsIdealCorners() {
+		float[] ideal = {10, 8, 40, 10, 42, 90, 12, 88, 270, 150, 300, 152, 302, 230, 272, 228};
+		SingleTarget[] targets = {new SingleTarget(), new SingleTarget()};
+		float[] distorted = distort(ideal);
+		targets[0].setCorners(distorted, 0);
+		targets[1].setCorners(distorted, 4);
+
+		SingleTarget[] out = {new SingleTarget(), new SingleTarget()};
+		new LensModel(LENS).undistort(targets, out);
+
+		float[] corners = new float[16];
+		out[0].getCorners(corners, 0);
+		out[1].getCorners(corners, 4);
+		assertArrayEquals(ideal, corners, 0.05f);
+	}
+
+	@Test
+	public void undistortGivenBoxesUsesTheirCorners() {
+		SingleTarget[] targets = {new SingleTarget(), new SingleTarget()};
+		targets[0].set(160, 120, 20, 40);
+		targets[1].set(200, 120, 20, 40);
+
+		new LensModel(LENS).undistort(targets, targets);
+
+		assertTrue(targets[0].hasCorners());
+		assertEquals(160, targets[0].getX(), 0.05);
+		assertEquals(120, targets[0].getY(), 0.05);
+		// barrel distortion squeezes the edges in, so the ideal strips are bigger
+		assertTrue(targets[1].getHeight() > 40);
+		assertTrue(targets[1].getX() > 200);
+	}
+
+	@Test
+	public void undistortGivenIdealLensKeepsCorners() {
+		SingleTarget[] targets = {new SingleTarget(), new SingleTarget()};
+		targets[0].set(50, 60, 20, 40);
+		targets[1].set(250, 180, 20, 40);
+
+		new LensModel(new CameraIntrinsics(300, 300, 160, 120, null)).undistort(targets, targets);
+
+		assertEquals(50, targets[0].getX(), 0.01);
+		assertEquals(180, targets[1].getY(), 0.01);
+		assertEquals(40, targets[1].getHeight(), 0.01);
+	}
+
+	@Test
+	public void saveThenLoadKeepsIntrinsics() throws IOException {
+		File file = this.folder.newFile("Gear Lens.csv");
+		LENS.save(file);
+
+		CameraIntrinsics loaded = CameraIntrinsics.load(file);
+
+		assertEquals(300, loaded.getFocalX(), 0);
+		assertEquals(160, loaded.getCenterX(), 0);
+		assertEquals(120, loaded.getCenterY(), 0);
+		assertArrayEquals(LENS.getDistortion(), loaded.getDistortion(), 0);
+		assertTrue(loaded.hasDistortion());
+		assertFalse(loaded.withoutDistortion().hasDistortion());
+	}
+
+	@Test(expected = IOException.class)
+	public void loadGivenTooFewFieldsThrows() throws IOException {
+		File file = this.folder.newFile("Bad Lens.csv");
+		Files.write(file.toPath(), "300,300\n".getBytes());
+
+		CameraIntrinsics.load(file);
+	}
+
+	/**
+	 * Moves ideal pixels to where the lens would put them, by projecting them back out onto a plane
+	 * in front of the camera and through the lens with projectPoints.
+	 */
+	private static float[] distort(float[] ideal) {
+		Point3[] points = new Point3[ideal.length / 2];
+		for(int i = 0; i < points.length; i++){
+			points[i] = new Point3((ideal[i * 2] - LENS.getCenterX()) / LENS.getFocalX(), (ideal[i * 2 + 1] - LENS.getCenterY()) / LENS.getFocalY(), 1);
+		}
+		MatOfPoint2f image = new MatOfPoint2f();
+		Calib3d.projectPoints(new MatOfPoint3f(points), Mat.zeros(3, 1, CvType.CV_64FC1), Mat.zeros(3, 1, CvType.CV_64FC1),
+				LENS.getCameraMatrix(), new MatOfDouble(LENS.getDistortion()), image);
+		Point[] projected = image.toArray();
+		float[] distorted = new float[ideal.length];
+		for(int i = 0; i < projected.length; i++){
+			distorted[i * 2] = (float) projected[i].x;
+			distorted[i * 2 + 1] = (float) projected[i].y;
+		}
+		return distorted;
+	}
+}
@@ -0,0 +1,88 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraIntrinsics;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.Peg;
+import org.usfirst.frc.team2984.robot.util.PegPoseEstimator;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+
+public class PegPoseEstimatorTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+	
+	private SyntheticTargetRenderer renderer;
+	private PegPoseEstimator estimator;
+	
+	@Before
+	public void before() {
+		renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		estimator = new PegPoseEstimator(CameraIntrinsics.fromSpecification(RobotMap.CAMERA_SPECIFICATION), RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+	}
+	
+	@Test
+	public void fromSpecificationPutsCenterInTheMiddle() {
+		CameraIntrinsics intrinsics = CameraIntrinsics.fromSpecification(RobotMap.CAMERA_SPECIFICATION);
+		
+		assertEquals(RobotMap.CAMERA_RESOLUTION.width / 2, intrinsics.getCenterX(), 0.00001);
+		assertEquals(RobotMap.CAMERA_RESOLUTION.height / 2, intrinsics.getCenterY(), 0.00001);
+		assertEquals(RobotMap.CAMERA_RESOLUTION.width / 2, intrinsics.getFocalX() * Math.tan(Math.toRadians(RobotMap.CAMERA_FOV.width / 2)), 0.00001);
+	}
+	
+	@Test
+	public void estimateGivenStraightOnFindsDistance() {
+		Peg peg = estimate(new CameraPose(80, 0, 0), 10);
+		
+		assertNotNull(peg);
+		assertEquals(80, peg.getDistance(), 0.1);
+		assertEquals(0, peg.getX(), 0.1);
+		assertEquals(10, peg.getTimestamp());
+	}
+	
+	@Test
+	public void estimateGivenClockAngleFindsDistanceAndTurn() {
+		Peg peg = estimate(new CameraPose(60, 30, 0), 0);
+		
+		assertNotNull(peg);
+		assertEquals(60, peg.getDistance(), 0.1);
+		assertEquals(30, Math.abs(Math.toDegrees(peg.getYaw())), 1);
+	}
+	
+	@Test
+	public void estimateGivenYawedCameraMovesPegAcross() {
+		Peg peg = estimate(new CameraPose(100, 0, 10), 0);
+		
+		assertNotNull(peg);
+		assertEquals(100, peg.getDistance(), 0.1);
+		assertEquals(100 * Math.sin(Math.toRadians(10)), Math.abs(peg.getX()), 0.5);
+	}
+	
+	@Test
+	public void estimateSeededFromLastPoseGivesSameAnswer() {
+		estimate(new CameraPose(100, 0, 0), 0);
+		Peg seeded = estimate(new CameraPose(90, 20, 5), 0);
+		estimator.reset();
+		Peg fresh = estimate(new CameraPose(90, 20, 5), 0);
+		
+		assertEquals(fresh.getX(), seeded.getX(), 0.01);
+		assertEquals(fresh.getY(), seeded.getY(), 0.01);
+		assertEquals(fresh.getZ(), seeded.getZ(), 0.01);
+	}
+	
+	private Peg estimate(CameraPose pose, long timestamp){
+		double[] projected = new double[16];
+		renderer.project(pose, projected);
+		float[] corners = new float[16];
+		for(int i = 0; i < 16; i++){
+			corners[i] = (float) projected[i];
+		}
+		return estimator.estimate(corners, timestamp);
+	}
+}
@@ -0,0 +1,160 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.PegTrack;
+
+public class PegTrackTest {
+	private static final long MILLISECOND = 1000000L;
+	private static final long SECOND = 1000000000L;
+	private PegTrack track;
+	
+	@Before
+	public void before() {
+		track = new PegTrack(3, 1.5, 60, 90, 0.5);
+	}
+	
+	@Test
+	public void isValidGivenNoDetectionIsFalse() {
+		track.predict(SECOND, 0, 0, 0);
+		
+		assertFalse(track.isValid(SECOND));
+	}
+	
+	@Test
+	public void correctGivenFirstDetectionTakesItAsIs() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 5, -20);
+		
+		assertEquals(100, track.getDistance(), 0.00001);
+		assertEquals(5, track.getRotation(), 0.00001);
+		assertEquals(-20, track.getClockAngle(), 0.00001);
+		assertEquals(9, track.getDistanceVariance(), 0.00001);
+	}
+	
+	@Test
+	public void isValidGivenShortDropoutCoasts() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		
+		assertTrue(track.isValid(SECOND + 400 * MILLISECOND));
+		assertFalse(track.isValid(SECOND + 600 * MILLISECOND));
+	}
+	
+	@Test
+	public void predictGivenDrivingForwardShortensDistance() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		track.predict(SECOND + 20 * MILLISECOND, 0, 0, 10);
+		
+		assertEquals(90, track.getDistance(), 0.00001);
+		assertEquals(0, track.getRotation(), 0.00001);
+		assertEquals(0, track.getClockAngle(), 0.00001);
+	}
+	
+	@Test
+	public void predictGivenTurningMovesRotationButNotClockAngle() {
+		track.predict(SECOND, 10, 0, 0);
+		track.correct(SECOND, 100, 0, 30);
+		track.predict(SECOND + 20 * MILLISECOND, 25, 0, 0);
+		
+		assertEquals(100, track.getDistance(), 0.00001);
+		assertEquals(-15, track.getRotation(), 0.00001);
+		assertEquals(30, track.getClockAngle(), 0.00001);
+	}
+	
+	@Test
+	public void predictGivenStrafingMovesAroundThePeg() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		track.predict(SECOND + 20 * MILLISECOND, 0, 100, 0);
+		
+		assertEquals(Math.sqrt(2) * 100, track.getDistance(), 0.00001);
+		assertEquals(-45, track.getRotation(), 0.00001);
+		assertEquals(45, track.getClockAngle(), 0.00001);
+	}
+	
+	@Test
+	public void predictGrowsVarianceWhileCoasting() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		double variance = track.getDistanceVariance();
+		track.predict(SECOND + 100 * MILLISECOND, 0, 0, 0);
+		
+		assertTrue(track.getDistanceVariance() > variance);
+	}
+	
+	@Test
+	public void correctGivenSteadyApproachLearnsRate() {
+		for(int i = 0; i < 50; i++){
+			long time = SECOND + i * 20 * MILLISECOND;
+			track.predict(time, 0, 0, 0);
+			track.correct(time, 100 - i * 0.4, 0, 0);
+		}
+		
+		assertEquals(-20, track.getDistanceRate(), 1);
+		assertEquals(100 - 49 * 0.4, track.getDistance(), 0.5);
+	}
+	
+	@Test
+	public void correctGivenOneBadDetectionMovesOnlyPartWay() {
+		for(int i = 0; i < 20; i++){
+			long time = SECOND + i * 20 * MILLISECOND;
+			track.predict(time, 0, 0, 0);
+			track.correct(time, 100, 0, 0);
+		}
+		track.predict(SECOND + 400 * MILLISECOND, 0, 0, 0);
+		track.correct(SECOND + 400 * MILLISECOND, 150, 0, 0);
+		
+		assertTrue(track.getDistance() > 100);
+		assertTrue(track.getDistance() < 125);
+	}
+	
+	@Test
+	public void correctGivenFrameCapturedBeforeDrivingMovesItOnByTheDrive() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		track.predict(SECOND + 20 * MILLISECOND, 0, 0, 0);
+		track.predict(SECOND + 40 * MILLISECOND, 0, 0, 10);
+		// the peg was still 100 inches away when this frame was captured
+		track.correct(SECOND + 20 * MILLISECOND, 100, 0, 0);
+		
+		assertEquals(90, track.getDistance(), 0.00001);
+	}
+	
+	@Test
+	public void correctGivenFrameCapturedBeforeTurningMovesItOnByTheTurn() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 30);
+		track.predict(SECOND + 20 * MILLISECOND, 0, 0, 0);
+		track.predict(SECOND + 40 * MILLISECOND, 20, 0, 0);
+		track.correct(SECOND + 20 * MILLISECOND, 100, 0, 30);
+		
+		assertEquals(-20, track.getRotation(), 0.00001);
+		assertEquals(30, track.getClockAngle(), 0.00001);
+	}
+	
+	@Test
+	public void correctGivenFrameCapturedBetweenPredictionsInterpolates() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		track.predict(SECOND + 20 * MILLISECOND, 0, 0, 0);
+		track.predict(SECOND + 40 * MILLISECOND, 0, 0, 10);
+		track.correct(SECOND + 30 * MILLISECOND, 95, 0, 0);
+		
+		assertEquals(90, track.getDistance(), 0.00001);
+	}
+	
+	@Test
+	public void resetForgetsTheTrack() {
+		track.predict(SECOND, 0, 0, 0);
+		track.correct(SECOND, 100, 0, 0);
+		track.reset();
+		
+		assertFalse(track.isValid(SECOND));
+	}
+}
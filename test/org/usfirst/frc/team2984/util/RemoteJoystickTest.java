@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.ErrorReporter;
 import org.usfirst.frc.team2984.robot.util.Motion;
 import org.usfirst.frc.team2984.robot.util.RemoteJoystick;
 
@@ -20,9 +21,16 @@ public class RemoteJoystickTest {
 		joystick = new RemoteJoystick(table);
 	}
 	
-	// TODO: test that getMotion reports error. This throws JNI error currently.
-	// It's not possible to mock static methods with Mockito, but it can be done with
-	// PowerMock.
+	@Test
+	public void getMotionReportsErrorGivenNotConnected() {
+		ErrorReporter errors = mock(ErrorReporter.class);
+		joystick = new RemoteJoystick(table, errors);
+		when(table.isConnected()).thenReturn(false);
+		
+		joystick.getMotion();
+		
+		verify(errors).report("Remote Joystick", "ArduinoReader is not running!");
+	}
 	
 	@Test
 	public void getMotionReturnsMotionGivenConnected() {
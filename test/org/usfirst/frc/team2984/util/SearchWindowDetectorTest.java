@@ -0,0 +1,127 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.SearchWindow;
+import org.usfirst.frc.team2984.robot.util.SearchWindowDetector;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.TargetDetector;
+
+public class SearchWindowDetectorTest {
+	private TargetDetector delegate;
+	private SearchWindow window;
+	private SearchWindowDetector detector;
+	private Mat image;
+	private Mat region;
+	private SingleTarget[] targets;
+	private Point origin;
+	
+	@Before
+	public void before() {
+		delegate = mock(TargetDetector.class);
+		window = new SearchWindow(320, 240, 0.5, 3);
+		detector = new SearchWindowDetector(delegate, window);
+		image = mock(Mat.class);
+		region = mock(Mat.class);
+		when(image.cols()).thenReturn(320);
+		when(image.rows()).thenReturn(240);
+		when(image.submat(80, 144, 80, 160)).thenReturn(region);
+		targets = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+		origin = new Point();
+	}
+	
+	private void delegateFinds(final double confidence) {
+		doAnswer(new Answer<Double>() {
+			@Override
+			public Double answer(InvocationOnMock invocation) {
+				SingleTarget[] out = (SingleTarget[]) invocation.getArguments()[2];
+				out[0].set(105, 110, 10, 20);
+				out[1].set(135, 110, 10, 20);
+				return confidence;
+			}
+		}).when(delegate).detect(any(Mat.class), any(Point.class), any(SingleTarget[].class));
+	}
+	
+	@Test
+	public void detectSearchesWholeImageAtFirst() {
+		delegateFinds(0.9);
+		
+		assertEquals(0.9, detector.detect(image, origin, targets), 0.0001);
+		verify(delegate).detect(eq(image), any(Point.class), eq(targets));
+	}
+	
+	@Test
+	public void detectMovesWindowAroundFoundTargets() {
+		delegateFinds(0.9);
+		detector.detect(image, origin, targets);
+		
+		assertTrue(window.isActive());
+		assertEquals(80, window.getX());
+		assertEquals(80, window.getY());
+	}
+	
+	@Test
+	public void detectSearchesOnlyWindowAfterTrack() {
+		delegateFinds(0.9);
+		detector.detect(image, origin, targets);
+		detector.detect(image, origin, targets);
+		
+		verify(delegate).detect(eq(region), eq(new Point(80, 80)), eq(targets));
+	}
+	
+	@Test
+	public void detectGivenRotatingFramesCutsEachWindowOutOnce() {
+		Mat other = mock(Mat.class);
+		when(other.cols()).thenReturn(320);
+		when(other.rows()).thenReturn(240);
+		when(other.submat(80, 144, 80, 160)).thenReturn(mock(Mat.class));
+		Frame[] frames = {new Frame(image), new Frame(other)};
+		delegateFinds(0.9);
+		
+		for(int i = 0; i < 5; i++){
+			detector.detect(frames[i % 2], origin, targets);
+		}
+		
+		verify(image, times(1)).submat(80, 144, 80, 160);
+		verify(other, times(1)).submat(80, 144, 80, 160);
+		verify(region, times(0)).release();
+	}
+	
+	@Test
+	public void detectGivenMissesGoesBackToWholeImage() {
+		delegateFinds(0.9);
+		detector.detect(image, origin, targets);
+		delegateFinds(0);
+		for(int i = 0; i < 3; i++){
+			assertEquals(0, detector.detect(image, origin, targets), 0.0001);
+		}
+		
+		assertFalse(window.isActive());
+	}
+	
+	@Test
+	public void resetGoesBackToWholeImage() {
+		delegateFinds(0.9);
+		detector.detect(image, origin, targets);
+		detector.reset();
+		
+		assertFalse(window.isActive());
+		verify(delegate).reset();
+	}
+}
@@ -0,0 +1,81 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.SearchWindow;
+
+public class SearchWindowTest {
+	private SearchWindow window;
+	
+	@Before
+	public void before() {
+		window = new SearchWindow(320, 240, 0.5, 3);
+	}
+	
+	@Test
+	public void windowStartsAsWholeFrame() {
+		assertFalse(window.isActive());
+		assertEquals(0, window.getX());
+		assertEquals(0, window.getY());
+		assertEquals(320, window.getWidth());
+		assertEquals(240, window.getHeight());
+	}
+	
+	@Test
+	public void foundGrowsWindowByMarginAndSnapsToGrid() {
+		window.found(100, 100, 140, 120);
+		
+		assertTrue(window.isActive());
+		assertEquals(80, window.getX());
+		assertEquals(80, window.getY());
+		assertEquals(80, window.getWidth());
+		assertEquals(64, window.getHeight());
+	}
+	
+	@Test
+	public void foundClampsWindowToFrame() {
+		window.found(2, 200, 40, 239);
+		
+		assertEquals(0, window.getX());
+		assertEquals(176, window.getY());
+		assertEquals(64, window.getWidth());
+		assertEquals(64, window.getHeight());
+	}
+	
+	@Test
+	public void foundCoveringWholeFrameSearchesWholeFrame() {
+		window.found(0, 0, 320, 240);
+		
+		assertFalse(window.isActive());
+	}
+	
+	@Test
+	public void missedKeepsWindowUntilMaxMisses() {
+		window.found(100, 100, 140, 120);
+		window.missed();
+		window.missed();
+		
+		assertTrue(window.isActive());
+		
+		window.missed();
+		
+		assertFalse(window.isActive());
+		assertEquals(320, window.getWidth());
+	}
+	
+	@Test
+	public void foundResetsMisses() {
+		window.found(100, 100, 140, 120);
+		window.missed();
+		window.missed();
+		window.found(100, 100, 140, 120);
+		window.missed();
+		window.missed();
+		
+		assertTrue(window.isActive());
+	}
+}
@@ -0,0 +1,136 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.CameraSpecification;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.ContourDetector;
+import org.usfirst.frc.team2984.robot.util.Dimension;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.TargetPairer;
+
+public class SyntheticTargetRendererTest {
+	private CameraSpecification level;
+	private Dimension target;
+	private SyntheticTargetRenderer renderer;
+	private double[] corners;
+	private double focalX;
+	private double focalY;
+	
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+	
+	@Before
+	public void before() {
+		level = new CameraSpecification(new Dimension(60, 45), new Dimension(320, 240), 0);
+		target = new Dimension(10.25, 5);
+		renderer = new SyntheticTargetRenderer(level, target, 2);
+		corners = new double[16];
+		focalX = 160 / Math.tan(Math.toRadians(30));
+		focalY = 120 / Math.tan(Math.toRadians(22.5));
+	}
+	
+	@Test
+	public void projectHeadOnCentersTarget() {
+		assertTrue(renderer.project(new CameraPose(60, 0, 0), corners));
+		
+		double left = corners[0];
+		double right = corners[10];
+		assertEquals(160, (left + right) / 2, 0.0001);
+		assertEquals(160 - focalX * 5.125 / 60, left, 0.0001);
+	}
+	
+	@Test
+	public void projectHeadOnGivesHeightFromFocalLength() {
+		renderer.project(new CameraPose(60, 0, 0), corners);
+		
+		assertEquals(120 - focalY * 2.5 / 60, corners[1], 0.0001);
+		assertEquals(120 + focalY * 2.5 / 60, corners[7], 0.0001);
+	}
+	
+	@Test
+	public void projectGivesCornersClockwiseFromTopLeft() {
+		renderer.project(new CameraPose(60, 0, 0), corners);
+		
+		assertTrue(corners[2] > corners[0]);
+		assertEquals(corners[1], corners[3], 0.0001);
+		assertTrue(corners[5] > corners[3]);
+		assertEquals(corners[4], corners[2], 0.0001);
+		assertEquals(corners[6], corners[0], 0.0001);
+	}
+	
+	@Test
+	public void projectGivenYawRightMovesTargetLeft() {
+		renderer.project(new CameraPose(60, 0, 10), corners);
+		
+		assertTrue((corners[0] + corners[10]) / 2 < 160);
+	}
+	
+	@Test
+	public void projectGivenClockAngleKeepsTargetCentered() {
+		renderer.project(new CameraPose(60, 30, 0), corners);
+		
+		double center = (corners[0] + corners[10]) / 2;
+		assertEquals(160, center, 2);
+	}
+	
+	@Test
+	public void projectGivenClockAngleRightMakesRightStripNearer() {
+		renderer.project(new CameraPose(60, 30, 0), corners);
+		
+		double leftHeight = corners[7] - corners[1];
+		double rightHeight = corners[15] - corners[9];
+		assertTrue(rightHeight > leftHeight);
+	}
+	
+	@Test
+	public void projectGivenClockAngleNarrowsTarget() {
+		renderer.project(new CameraPose(60, 0, 0), corners);
+		double headOn = corners[10] - corners[0];
+		renderer.project(new CameraPose(60, 60, 0), corners);
+		double angled = corners[10] - corners[0];
+		
+		assertEquals(0.5, angled / headOn, 0.05);
+	}
+	
+	@Test
+	public void projectGivenTiltedCameraMovesTargetDown() {
+		CameraSpecification tilted = new CameraSpecification(new Dimension(60, 45), new Dimension(320, 240), 10);
+		new SyntheticTargetRenderer(tilted, target, 2).project(new CameraPose(60, 0, 0), corners);
+		
+		assertTrue((corners[1] + corners[7]) / 2 > 120);
+	}
+	
+	@Test
+	public void projectGivenTargetBehindCameraIsNotVisible() {
+		assertFalse(renderer.project(new CameraPose(60, 0, 180), corners));
+	}
+	
+	@Test
+	public void renderDrawsStripsWhereTheyAreProjected() {
+		Mat image = new Mat();
+		CameraPose pose = new CameraPose(60, 0, 0);
+		renderer.render(pose, image);
+		renderer.project(pose, corners);
+		ColorThreshold threshold = new ColorThreshold(new Scalar(18, 70, 41), new Scalar(103, 255, 255), ColorThreshold.Mode.IN_RANGE);
+		ContourDetector detector = new ContourDetector(threshold, new TargetPairer(target, 2, 0.3, 32));
+		SingleTarget[] targets = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+		
+		assertTrue(detector.detect(image, new Point(), targets) > 0);
+		SingleTarget left = targets[0].getX() < targets[1].getX() ? targets[0] : targets[1];
+		assertEquals((corners[0] + corners[2]) / 2, left.getX(), 1);
+		// the detector's 3x3 blur grows every blob by a pixel on each side
+		assertEquals(corners[7] - corners[1] + 2, left.getHeight(), 1.5);
+	}
+}
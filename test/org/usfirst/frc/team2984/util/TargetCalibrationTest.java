@@ -0,0 +1,148 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.usfirst.frc.team2984.robot.util.CameraSpecification;
+import org.usfirst.frc.team2984.robot.util.Dimension;
+import org.usfirst.frc.team2984.robot.util.PiecewiseLinear;
+import org.usfirst.frc.team2984.robot.util.TargetCalibration;
+import org.usfirst.frc.team2984.robot.util.VisionTarget;
+
+public class TargetCalibrationTest {
+
+	private static final CameraSpecification CAMERA = new CameraSpecification(new Dimension(60, 45), new Dimension(320, 240), 20);
+	private static final Dimension TARGET = new Dimension(10.25, 5);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void evaluateInterpolatesBetweenKnots() {
+		PiecewiseLinear function = new PiecewiseLinear(0, 10, new double[]{0, 10, 30});
+
+		assertEquals(5, function.evaluate(2.5), 1e-9);
+		assertEquals(20, function.evaluate(7.5), 1e-9);
+		assertEquals(30, function.evaluate(10), 1e-9);
+	}
+
+	@Test
+	public void evaluateCarriesOnTheEndLines() {
+		PiecewiseLinear function = new PiecewiseLinear(0, 10, new double[]{0, 10, 30});
+
+		assertEquals(-2, function.evaluate(-1), 1e-9);
+		assertEquals(34, function.evaluate(11), 1e-9);
+	}
+
+	@Test
+	public void fitGivenSamplesOnALineFindsTheLine() {
+		double[] x = new double[50];
+		double[] y = new double[50];
+		for(int i = 0; i < x.length; i++){
+			x[i] = i * 0.37 - 4;
+			y[i] = 3 * x[i] + 2;
+		}
+		PiecewiseLinear function = PiecewiseLinear.fit(x, y, 6);
+
+		assertEquals(-4, function.getStart(), 1e-9);
+		assertEquals(2, function.evaluate(0), 1e-4);
+		assertEquals(29, function.evaluate(9), 1e-4);
+	}
+
+	@Test
+	public void fitGivenKnotsWithoutSamplesInterpolatesThem() {
+		PiecewiseLinear function = PiecewiseLinear.fit(new double[]{0, 0, 10, 10}, new double[]{0, 0, 10, 10}, 11);
+
+		assertEquals(5, function.evaluate(5), 1e-3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void fitGivenOneSampleThrows() {
+		PiecewiseLinear.fit(new double[]{1}, new double[]{1}, 4);
+	}
+
+	@Test
+	public void fitToTrigMatchesTrigBetweenSamples() {
+		TargetCalibration calibration = fitToTrig(8);
+		for(double height = 12; height <= 90; height += 3.3){
+			VisionTarget target = new VisionTarget(0, 0, height);
+			double expected = target.getDistance(CAMERA, TARGET);
+			assertEquals(expected, target.getDistance(calibration), expected * 0.01);
+		}
+		for(double offset = -150; offset <= 150; offset += 11){
+			VisionTarget target = new VisionTarget(offset, 0, 40);
+			assertEquals(target.getRotation(CAMERA), target.getRotation(calibration), 0.1);
+		}
+	}
+
+	@Test
+	public void fitGivenOffsetMountingLearnsTheOffset() {
+		int count = 40;
+		double[] heights = new double[count];
+		double[] offsets = new double[count];
+		double[] distances = new double[count];
+		double[] rotations = new double[count];
+		for(int i = 0; i < count; i++){
+			VisionTarget target = new VisionTarget(-150 + i * 7.5, 0, 15 + i * 2);
+			heights[i] = target.getHeight();
+			offsets[i] = target.getCenter();
+			distances[i] = target.getDistance(CAMERA, TARGET) + 4;
+			rotations[i] = target.getRotation(CAMERA) + 2;
+		}
+		TargetCalibration calibration = TargetCalibration.fit(heights, offsets, distances, rotations, 8);
+		VisionTarget target = new VisionTarget(0, 0, 40);
+
+		assertEquals(target.getDistance(CAMERA, TARGET) + 4, target.getDistance(calibration), 0.5);
+		assertEquals(2, target.getRotation(calibration), 0.1);
+		assertEquals(-180 - 10 - 2, target.getClockAngle(calibration, 10, 0), 0.1);
+	}
+
+	@Test
+	public void recordedSamplesFitAndSavedCalibrationLoads() throws IOException {
+		File samples = new File(folder.getRoot(), "Gear Samples.csv");
+		for(double height = 12; height <= 90; height += 6){
+			for(double offset = -150; offset <= 150; offset += 50){
+				VisionTarget target = new VisionTarget(offset, 0, height);
+				TargetCalibration.record(samples, target, target.getDistance(CAMERA, TARGET), target.getRotation(CAMERA));
+			}
+		}
+		TargetCalibration fitted = TargetCalibration.fit(samples, 8);
+		File file = new File(folder.getRoot(), "Gear.csv");
+		fitted.save(file);
+		TargetCalibration loaded = TargetCalibration.load(file);
+
+		VisionTarget target = new VisionTarget(33, 0, 47);
+		assertEquals(fitted.getDistance(47), loaded.getDistance(47), 1e-9);
+		assertEquals(fitted.getRotation(33), loaded.getRotation(33), 1e-9);
+		assertEquals(target.getDistance(CAMERA, TARGET), target.getDistance(loaded), 0.5);
+	}
+
+	@Test(expected = IOException.class)
+	public void loadGivenMissingRotationThrows() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), "distance,0.01,0.1,100,50,10\n".getBytes());
+		TargetCalibration.load(file);
+	}
+
+	private static TargetCalibration fitToTrig(int knots) {
+		int count = 200;
+		double[] heights = new double[count];
+		double[] offsets = new double[count];
+		double[] distances = new double[count];
+		double[] rotations = new double[count];
+		for(int i = 0; i < count; i++){
+			VisionTarget target = new VisionTarget(-160 + i * 1.6, 0, 10 + i * 0.45);
+			heights[i] = target.getHeight();
+			offsets[i] = target.getCenter();
+			distances[i] = target.getDistance(CAMERA, TARGET);
+			rotations[i] = target.getRotation(CAMERA);
+		}
+		return TargetCalibration.fit(heights, offsets, distances, rotations, knots);
+	}
+}
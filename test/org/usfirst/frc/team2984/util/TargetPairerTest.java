@@ -0,0 +1,128 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.Blob;
+import org.usfirst.frc.team2984.robot.util.ContourAnalyzer;
+import org.usfirst.frc.team2984.robot.util.Dimension;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.TargetPairer;
+
+public class TargetPairerTest {
+	private TargetPairer pairer;
+	private ContourAnalyzer analyzer;
+	private Blob[] blobs;
+	private SingleTarget[] targets;
+	
+	@Before
+	public void before() {
+		pairer = new TargetPairer(new Dimension(10.25, 5), 2, 0.3, 32);
+		analyzer = new ContourAnalyzer(4);
+		blobs = new Blob[32];
+		for(int i = 0; i < blobs.length; i++){
+			blobs[i] = new Blob();
+		}
+		targets = new SingleTarget[]{new SingleTarget(), new SingleTarget()};
+	}
+	
+	private void rect(int index, int x, int y, int width, int height) {
+		analyzer.analyze(new int[]{x, y, x, y + height, x + width, y + height, x + width, y}, 4, blobs[index]);
+	}
+	
+	@Test
+	public void pairGivenTheTargetIsConfident() {
+		rect(0, 180, 80, 20, 50);
+		rect(1, 98, 80, 20, 50);
+		
+		assertTrue(pairer.pair(blobs, 2, targets) > 0.9);
+	}
+	
+	@Test
+	public void pairSetsTargetsLeftThenRight() {
+		rect(0, 180, 80, 20, 50);
+		rect(1, 98, 80, 20, 50);
+		pairer.pair(blobs, 2, targets);
+		
+		assertEquals(108, targets[0].getX(), 0.0001);
+		assertEquals(190, targets[1].getX(), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenOneBlobReturnsZero() {
+		rect(0, 180, 80, 20, 50);
+		
+		assertEquals(0, pairer.pair(blobs, 1, targets), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenDifferentHeightsReturnsZero() {
+		rect(0, 98, 80, 20, 50);
+		rect(1, 180, 80, 8, 20);
+		
+		assertEquals(0, pairer.pair(blobs, 2, targets), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenBlobsAtDifferentHeightsReturnsZero() {
+		rect(0, 98, 80, 20, 50);
+		rect(1, 180, 140, 20, 50);
+		
+		assertEquals(0, pairer.pair(blobs, 2, targets), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenBlobsTooFarApartReturnsZero() {
+		rect(0, 10, 80, 20, 50);
+		rect(1, 290, 80, 20, 50);
+		
+		assertEquals(0, pairer.pair(blobs, 2, targets), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenAngledTargetStillFindsIt() {
+		rect(0, 98, 80, 12, 50);
+		rect(1, 150, 80, 12, 50);
+		
+		assertTrue(pairer.pair(blobs, 2, targets) > 0.5);
+	}
+	
+	@Test
+	public void pairGivenStripSplitByPegJoinsThePieces() {
+		rect(0, 98, 80, 20, 18);
+		rect(1, 180, 80, 20, 50);
+		rect(2, 98, 104, 20, 26);
+		
+		assertTrue(pairer.pair(blobs, 3, targets) > 0.8);
+		assertEquals(108, targets[0].getX(), 1);
+		assertEquals(51, targets[0].getHeight(), 1);
+	}
+	
+	@Test
+	public void pairGivenGlareAndClutterPicksTheTarget() {
+		rect(0, 5, 5, 60, 60);
+		rect(1, 250, 10, 6, 6);
+		rect(2, 180, 80, 20, 50);
+		rect(3, 40, 180, 40, 12);
+		rect(4, 98, 80, 20, 50);
+		rect(5, 140, 90, 8, 8);
+		
+		assertTrue(pairer.pair(blobs, 6, targets) > 0.9);
+		assertEquals(108, targets[0].getX(), 0.0001);
+		assertEquals(190, targets[1].getX(), 0.0001);
+	}
+	
+	@Test
+	public void pairGivenManyBlobsPicksTheTarget() {
+		for(int i = 0; i < 30; i++){
+			rect(i, 5 + (i % 10) * 30, 150 + (i / 10) * 25, 10, 10);
+		}
+		rect(30, 98, 80, 20, 50);
+		rect(31, 180, 80, 20, 50);
+		
+		assertTrue(pairer.pair(blobs, 32, targets) > 0.9);
+		assertEquals(108, targets[0].getX(), 0.0001);
+	}
+}
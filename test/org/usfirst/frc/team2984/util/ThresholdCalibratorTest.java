@@ -0,0 +1,146 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.ThresholdCalibrator;
+
+import edu.wpi.first.wpilibj.Preferences;
+
+public class ThresholdCalibratorTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	private static final Scalar TAPE = new Scalar(60, 200, 220);
+
+	@Test
+	public void boundsAreNullUntilFinished() {
+		ThresholdCalibrator calibrator = new ThresholdCalibrator(3, 0);
+		SingleTarget[] targets = targets();
+		for(int i = 0; i < 2; i++){
+			calibrator.capture(frame(i));
+			calibrator.accumulate(targets);
+		}
+		assertFalse(calibrator.isFinished());
+		assertEquals(2, calibrator.getFrames());
+		assertNull(calibrator.getMin());
+		assertNull(calibrator.getMax());
+	}
+
+	@Test
+	public void boundsHoldTheTapeAndLeaveOutTheBackground() {
+		ThresholdCalibrator calibrator = new ThresholdCalibrator(5, 0);
+		SingleTarget[] targets = targets();
+		for(int i = 0; i < 5; i++){
+			calibrator.capture(frame(i));
+			calibrator.accumulate(targets);
+		}
+		assertTrue(calibrator.isFinished());
+		Mat mask = new Mat();
+		Mat hsv = new Mat();
+		Imgproc.cvtColor(frame(0), hsv, Imgproc.COLOR_BGR2HSV);
+		Core.inRange(hsv, calibrator.getMin(), calibrator.getMax(), mask);
+		// every tape pixel is kept and none of the background
+		assertEquals(2 * 20 * 50, Core.countNonZero(mask));
+		assertEquals(255, mask.get(100, 110)[0], 0);
+		assertEquals(255, mask.get(100, 190)[0], 0);
+	}
+
+	@Test
+	public void marginWidensTheBounds() {
+		ThresholdCalibrator tight = calibrate(0);
+		ThresholdCalibrator loose = calibrate(3);
+		for(int i = 0; i < 3; i++){
+			assertEquals(Math.max(tight.getMin().val[i] - 3, 0), loose.getMin().val[i], 0);
+			assertTrue(loose.getMax().val[i] >= tight.getMax().val[i]);
+		}
+	}
+
+	@Test
+	public void accumulateAfterFinishedIsIgnored() {
+		ThresholdCalibrator calibrator = calibrate(0);
+		Scalar min = calibrator.getMin();
+		calibrator.capture(frame(7));
+		calibrator.accumulate(targets());
+		assertEquals(5, calibrator.getFrames());
+		assertEquals(min, calibrator.getMin());
+	}
+
+	@Test
+	public void saveStoresEachChannel() {
+		Preferences preferences = mock(Preferences.class);
+		ThresholdCalibrator.save(preferences, "Gear Vision HSV Min", new Scalar(50, 120, 90));
+		verify(preferences).putDouble("Gear Vision HSV Min H", 50);
+		verify(preferences).putDouble("Gear Vision HSV Min S", 120);
+		verify(preferences).putDouble("Gear Vision HSV Min V", 90);
+	}
+
+	@Test
+	public void loadReturnsStoredChannelsOrFallback() {
+		Preferences preferences = mock(Preferences.class);
+		when(preferences.getDouble(anyString(), anyDouble())).thenAnswer(invocation -> invocation.getArguments()[1]);
+		when(preferences.getDouble(eq("Gear Vision HSV Min H"), anyDouble())).thenReturn(55D);
+		when(preferences.getDouble(eq("Gear Vision HSV Min S"), anyDouble())).thenReturn(130D);
+		when(preferences.getDouble(eq("Gear Vision HSV Min V"), anyDouble())).thenReturn(41D);
+		assertEquals(new Scalar(55, 130, 41), ThresholdCalibrator.load(preferences, "Gear Vision HSV Min", new Scalar(18, 70, 41)));
+		assertEquals(new Scalar(18, 70, 41), ThresholdCalibrator.load(preferences, "Gear Vision HSV Max", new Scalar(18, 70, 41)));
+	}
+
+	private static ThresholdCalibrator calibrate(int margin) {
+		ThresholdCalibrator calibrator = new ThresholdCalibrator(5, margin);
+		SingleTarget[] targets = targets();
+		for(int i = 0; i < 5; i++){
+			calibrator.capture(frame(i));
+			calibrator.accumulate(targets);
+		}
+		return calibrator;
+	}
+
+	private static SingleTarget[] targets() {
+		SingleTarget left = new SingleTarget();
+		left.set(110, 105, 20, 50);
+		SingleTarget right = new SingleTarget();
+		right.set(190, 105, 20, 50);
+		return new SingleTarget[]{left, right};
+	}
+
+	/**
+	 * Two strips of tape on a background of stripes of other colours, some of them close to the
+	 * tape's hue but darker or paler.
+	 */
+	private static Mat frame(int seed) {
+		Scalar[] background = {
+			new Scalar(60, 200, 60),
+			new Scalar(60, 40, 220),
+			new Scalar(120, 200, 220),
+			new Scalar(10, 150, 180),
+			new Scalar(0, 0, 40)
+		};
+		Mat hsv = new Mat(240, 320, CvType.CV_8UC3);
+		for(int i = 0; i < 16; i++){
+			Imgproc.rectangle(hsv, new Point(i * 20, 0), new Point(i * 20 + 19, 239), background[(i + seed) % background.length], -1);
+		}
+		Imgproc.rectangle(hsv, new Point(100, 80), new Point(119, 129), TAPE, -1);
+		Imgproc.rectangle(hsv, new Point(180, 80), new Point(199, 129), TAPE, -1);
+		Mat bgr = new Mat();
+		Imgproc.cvtColor(hsv, bgr, Imgproc.COLOR_HSV2BGR);
+		return bgr;
+	}
+}
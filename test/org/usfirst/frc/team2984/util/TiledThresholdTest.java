@@ -0,0 +1,118 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.TiledThreshold;
+
+public class TiledThresholdTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+	
+	private static ForkJoinPool pool = new ForkJoinPool(4);
+	
+	@AfterClass
+	public static void afterClass() {
+		pool.shutdown();
+	}
+	
+	@Test
+	public void applyWithLookupTableMatchesWholeImage() {
+		assertSameAsWholeImage(ColorThreshold.Mode.LOOKUP_TABLE, 4);
+	}
+	
+	@Test
+	public void applyWithInRangeMatchesWholeImage() {
+		assertSameAsWholeImage(ColorThreshold.Mode.IN_RANGE, 4);
+	}
+	
+	@Test
+	public void applyGivenTilesThatDontDivideTheRowsMatchesWholeImage() {
+		assertSameAsWholeImage(ColorThreshold.Mode.LOOKUP_TABLE, 7);
+	}
+	
+	@Test
+	public void applyGivenPartOfAFrameMatchesWholeImage() {
+		Mat frame = render();
+		Mat expected = blurredMask(frame.submat(40, 200, 60, 260).clone(), ColorThreshold.Mode.LOOKUP_TABLE);
+		TiledThreshold tiled = new TiledThreshold(threshold(ColorThreshold.Mode.LOOKUP_TABLE), pool, 3);
+		
+		Mat actual = tiled.apply(frame.submat(40, 200, 60, 260));
+		assertEquals(0, Core.countNonZero(difference(expected, actual)));
+	}
+	
+	@Test
+	public void applyGivenRotatingFramesMatchesEachWholeImage() {
+		Mat[] frames = {render(new CameraPose(40, 10, 5)), render(new CameraPose(60, -10, 0)), render(new CameraPose(80, 0, -5))};
+		Mat[] expected = new Mat[frames.length];
+		for(int i = 0; i < frames.length; i++){
+			expected[i] = blurredMask(frames[i].clone(), ColorThreshold.Mode.LOOKUP_TABLE);
+		}
+		TiledThreshold tiled = new TiledThreshold(threshold(ColorThreshold.Mode.LOOKUP_TABLE), pool, 4);
+		
+		for(int i = 0; i < frames.length * 3; i++){
+			Mat actual = tiled.apply(frames[i % frames.length]);
+			assertEquals(0, Core.countNonZero(difference(expected[i % frames.length], actual)));
+		}
+	}
+	
+	private void assertSameAsWholeImage(ColorThreshold.Mode mode, int tiles) {
+		Mat frame = render();
+		Mat expected = blurredMask(frame.clone(), mode);
+		TiledThreshold tiled = new TiledThreshold(threshold(mode), pool, tiles);
+		
+		Mat original = frame.clone();
+		Mat actual = tiled.apply(frame);
+		assertEquals(0, Core.countNonZero(difference(expected, actual)));
+		assertEquals(true, Core.countNonZero(actual) > 0);
+		// the frame is still the BGR image for anything else that uses it
+		Mat changed = new Mat();
+		Core.absdiff(original, frame, changed);
+		assertEquals(0, Core.countNonZero(changed.reshape(1)));
+	}
+	
+	private Mat render() {
+		return render(new CameraPose(40, 10, 5));
+	}
+	
+	private Mat render(CameraPose pose) {
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		renderer.setNoise(8);
+		renderer.setDistractors(6);
+		Mat frame = new Mat();
+		renderer.render(pose, frame);
+		return frame;
+	}
+	
+	private Mat blurredMask(Mat image, ColorThreshold.Mode mode) {
+		Mat mask = threshold(mode).apply(image);
+		Mat blurred = new Mat();
+		Imgproc.blur(mask, blurred, new Size(3, 3));
+		return blurred;
+	}
+	
+	private ColorThreshold threshold(ColorThreshold.Mode mode) {
+		return new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, mode);
+	}
+	
+	private Mat difference(Mat expected, Mat actual) {
+		assertEquals(CvType.CV_8UC1, actual.type());
+		assertEquals(expected.size(), actual.size());
+		Mat difference = new Mat();
+		Core.absdiff(expected, actual, difference);
+		return difference;
+	}
+}
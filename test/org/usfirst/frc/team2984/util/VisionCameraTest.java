@@ -0,0 +1,112 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.FrameExchanger;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionCamera;
+
+public class VisionCameraTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	private SyntheticTargetRenderer renderer;
+	private FrameExchanger exchanger;
+	private VisionCamera camera;
+
+	@Before
+	public void before() {
+		renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		exchanger = new FrameExchanger(new Frame(new Mat()), new Frame(new Mat()), new Frame(new Mat()));
+		camera = new VisionCamera("Test", 0, RobotMap.CAMERA_SPECIFICATION, 0,
+				new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.LOOKUP_TABLE), exchanger);
+	}
+
+	@Test
+	public void runGivenFrameCapturedBeforeTrackingWasTurnedOnDropsIt() {
+		camera.setTracking(false);
+		long captured = System.nanoTime();
+		camera.setTracking(true);
+		capture(captured);
+
+		camera.run();
+
+		assertFalse(camera.getResult().hasTrack());
+		assertEquals(0, camera.getResult().getSequence());
+		assertTrue(Double.isNaN(camera.getEnableLatency()));
+	}
+
+	@Test
+	public void runGivenFrameCapturedAfterTrackingWasTurnedOnTracks() {
+		camera.setTracking(false);
+		camera.setTracking(true);
+		capture(System.nanoTime());
+
+		camera.run();
+
+		assertTrue(camera.getResult().hasTrack());
+		assertEquals(1, camera.getResult().getSequence());
+	}
+
+	@Test
+	public void getNextRunTimeGivenFirstFrameAfterTrackingWasTurnedOnSkipsTheGovernor() {
+		capture(System.nanoTime());
+		camera.run();
+		capture(System.nanoTime());
+		long now = System.nanoTime();
+		// the governor holds back the frame straight after another one
+		assertTrue(camera.getNextRunTime(now) > now);
+
+		camera.setTracking(false);
+		camera.setTracking(true);
+		capture(System.nanoTime());
+		now = System.nanoTime();
+
+		assertEquals(now, camera.getNextRunTime(now));
+	}
+
+	@Test
+	public void getNextRunTimeGivenTrackingOffOrNoFreshFrameIsNever() {
+		long now = System.nanoTime();
+		assertEquals(Long.MAX_VALUE, camera.getNextRunTime(now));
+
+		camera.setTracking(false);
+		capture(System.nanoTime());
+
+		assertEquals(Long.MAX_VALUE, camera.getNextRunTime(now));
+	}
+
+	@Test
+	public void getEnableLatencyIsSetOnTheFirstTrackAfterTrackingWasTurnedOn() {
+		camera.setTracking(false);
+		long enabled = System.nanoTime();
+		camera.setTracking(true);
+		capture(System.nanoTime());
+		camera.run();
+		double elapsed = (System.nanoTime() - enabled) / 1000000D;
+
+		double latency = camera.getEnableLatency();
+		assertTrue(latency + " of " + elapsed, latency > 0 && latency <= elapsed);
+
+		capture(System.nanoTime());
+		camera.run();
+
+		assertEquals(latency, camera.getEnableLatency(), 0);
+	}
+
+	private void capture(long timestamp) {
+		renderer.render(new CameraPose(80, 5, 0), exchanger.getBack().getImage());
+		exchanger.publish(timestamp);
+	}
+}
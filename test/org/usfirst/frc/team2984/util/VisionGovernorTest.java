@@ -0,0 +1,105 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.VisionGovernor;
+
+public class VisionGovernorTest {
+	private static final long MILLISECOND = 1000000L;
+	private static final long SECOND = 1000000000L;
+	private VisionGovernor governor;
+	
+	@Before
+	public void before() {
+		governor = new VisionGovernor(50, 5, 0.5, 0.1, 2);
+	}
+	
+	@Test
+	public void getPeriodGivenNoDemandIsBackgroundRate() {
+		assertEquals(200 * MILLISECOND, governor.getPeriod(SECOND));
+	}
+	
+	@Test
+	public void getPeriodGivenDemandIsFullRate() {
+		governor.setDemand(true);
+		
+		assertEquals(20 * MILLISECOND, governor.getPeriod(SECOND));
+	}
+	
+	@Test
+	public void getPeriodGivenExpensiveFramesKeepsLoadUnderMax() {
+		governor.setDemand(true);
+		governor.frameProcessed(SECOND, 15 * MILLISECOND);
+		
+		assertEquals(30 * MILLISECOND, governor.getPeriod(SECOND));
+	}
+	
+	@Test
+	public void getNextFrameTimeIsPeriodAfterLastFrame() {
+		governor.setDemand(true);
+		governor.frameProcessed(SECOND, 5 * MILLISECOND);
+		
+		assertEquals(SECOND + 20 * MILLISECOND, governor.getNextFrameTime(SECOND));
+	}
+	
+	@Test
+	public void overrunHalvesLoad() {
+		governor.overrun(SECOND);
+		
+		assertEquals(0.25, governor.getLoad(), 0.0001);
+	}
+	
+	@Test
+	public void overrunDoesNotGoUnderMinLoad() {
+		for(int i = 0; i < 10; i++){
+			governor.overrun(SECOND);
+		}
+		
+		assertEquals(0.1, governor.getLoad(), 0.0001);
+	}
+	
+	@Test
+	public void overrunGivenExpensiveFramesLengthensPeriod() {
+		governor.setDemand(true);
+		governor.frameProcessed(SECOND, 15 * MILLISECOND);
+		governor.overrun(SECOND);
+		
+		assertEquals(60 * MILLISECOND, governor.getPeriod(SECOND));
+	}
+	
+	@Test
+	public void loadRecoversOverTime() {
+		for(int i = 0; i < 10; i++){
+			governor.overrun(SECOND);
+		}
+		governor.getPeriod(2 * SECOND);
+		
+		assertEquals(0.3, governor.getLoad(), 0.0001);
+	}
+	
+	@Test
+	public void loadDoesNotRecoverPastMax() {
+		governor.overrun(SECOND);
+		governor.getPeriod(10 * SECOND);
+		
+		assertEquals(0.5, governor.getLoad(), 0.0001);
+	}
+	
+	@Test
+	public void frameProcessedSmoothsCost() {
+		governor.frameProcessed(SECOND, 10 * MILLISECOND);
+		governor.frameProcessed(SECOND, 20 * MILLISECOND);
+		
+		assertEquals(12, governor.getAverageCostMillis(), 0.0001);
+	}
+	
+	@Test(timeout = 1000)
+	public void awaitNextFrameReturnsOnceDemandMakesFrameDue() throws InterruptedException {
+		governor.frameProcessed(System.nanoTime(), MILLISECOND);
+		new Thread(() -> governor.setDemand(true)).start();
+		
+		governor.awaitNextFrame();
+	}
+}
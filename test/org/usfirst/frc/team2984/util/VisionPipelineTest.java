@@ -0,0 +1,124 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.Frame;
+import org.usfirst.frc.team2984.robot.util.SingleTarget;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.TimedDetector;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+
+public class VisionPipelineTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	private static final int WARM_UP = 500;
+	private static final int FRAMES = 100;
+	// the opencv binding makes a Mat, a Range and a MatOfPoint for every contour findContours returns,
+	// and each Mat registers a finalizer
+	private static final long CONTOUR_HEADER = 192;
+	// and a Mat and a list to carry them out of native code
+	private static final long CONTOUR_LIST = 256;
+	// the VisionTarget, Peg and VisionResult handed out for a frame with a track
+	private static final long RESULT = 512;
+
+	private Frame frame;
+	private int contours;
+
+	@Before
+	public void before() {
+		SyntheticTargetRenderer renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		renderer.setBlur(3);
+		renderer.setDistractors(6);
+		Mat image = new Mat();
+		renderer.render(new CameraPose(80, 5, 0), image);
+		frame = new Frame(image);
+		contours = countContours(image);
+	}
+
+	@Test
+	public void detectAllocatesNothingButContourHeadersAfterWarmUp() {
+		for(ColorThreshold.Mode mode : ColorThreshold.Mode.values()){
+			VisionPipeline pipeline = pipeline(mode);
+			for(TimedDetector detector : pipeline.getDetectors()){
+				Point origin = new Point();
+				SingleTarget[] targets = {new SingleTarget(), new SingleTarget()};
+				for(int i = 0; i < WARM_UP; i++){
+					detector.detect(frame, origin, targets);
+				}
+				long start = allocatedBytes();
+				long overhead = allocatedBytes() - start;
+
+				start = allocatedBytes();
+				for(int i = 0; i < FRAMES; i++){
+					detector.detect(frame, origin, targets);
+				}
+				long used = (allocatedBytes() - start - overhead) / FRAMES;
+
+				String name = mode + " " + detector.getName();
+				assertTrue(name, detector.detect(frame, origin, targets) > 0);
+				if(detector.getName().startsWith("Components")){
+					assertEquals(name, 0, used);
+				} else {
+					assertTrue(name + " " + used + " for " + contours, used <= contours * CONTOUR_HEADER + CONTOUR_LIST);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void processAllocatesOnlyTheResultAfterWarmUp() {
+		for(ColorThreshold.Mode mode : ColorThreshold.Mode.values()){
+			VisionPipeline pipeline = pipeline(mode);
+			pipeline.setDetector(pipeline.getDetector("Components In Window"));
+			for(int i = 0; i < WARM_UP; i++){
+				pipeline.process(frame);
+			}
+			long start = allocatedBytes();
+			long overhead = allocatedBytes() - start;
+
+			start = allocatedBytes();
+			for(int i = 0; i < FRAMES; i++){
+				pipeline.process(frame);
+			}
+			long used = (allocatedBytes() - start - overhead) / FRAMES;
+
+			assertTrue(pipeline.getResult().hasTrack());
+			assertTrue(mode + " " + used, used <= RESULT);
+		}
+	}
+
+	private int countContours(Mat image) {
+		Mat blurred = new Mat();
+		Imgproc.blur(new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.IN_RANGE).apply(image), blurred, new Size(3, 3));
+		List<MatOfPoint> found = new ArrayList<MatOfPoint>();
+		Imgproc.findContours(blurred, found, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+		return found.size();
+	}
+
+	private VisionPipeline pipeline(ColorThreshold.Mode mode) {
+		return new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, mode));
+	}
+
+	private long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,126 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.usfirst.frc.team2984.robot.RobotMap;
+import org.usfirst.frc.team2984.robot.util.CameraPose;
+import org.usfirst.frc.team2984.robot.util.ColorThreshold;
+import org.usfirst.frc.team2984.robot.util.SyntheticTargetRenderer;
+import org.usfirst.frc.team2984.robot.util.VisionPipeline;
+import org.usfirst.frc.team2984.robot.util.VisionReplay;
+import org.usfirst.frc.team2984.robot.util.VisionResult;
+
+public class VisionReplayTest {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private SyntheticTargetRenderer renderer;
+	private VisionReplay replay;
+	private ByteArrayOutputStream output;
+	private PrintStream out;
+
+	@Before
+	public void before() {
+		renderer = new SyntheticTargetRenderer(RobotMap.CAMERA_SPECIFICATION, RobotMap.TARGET_DIMENSION, RobotMap.TARGET_STRIP_WIDTH);
+		replay = new VisionReplay(new VisionPipeline(RobotMap.CAMERA_SPECIFICATION, new ColorThreshold(RobotMap.VISION_HSV_MIN, RobotMap.VISION_HSV_MAX, ColorThreshold.Mode.LOOKUP_TABLE)));
+		output = new ByteArrayOutputStream();
+		out = new PrintStream(output, true);
+	}
+
+	@Test
+	public void replayGivenRenderedFramesTracksEachInOrder() throws IOException {
+		for(int i = 0; i < 5; i++){
+			Imgcodecs.imwrite(new File(folder.getRoot(), "frame" + i + ".png").getPath(), render(100 - i * 10));
+		}
+		writeMat(new File(folder.getRoot(), "frame5.mat"), render(50));
+
+		File[] files = VisionReplay.list(folder.getRoot());
+		VisionResult[] results = replay.replay(files, 1, out);
+
+		assertEquals(6, files.length);
+		long sequence = 0;
+		for(int i = 0; i < files.length; i++){
+			assertTrue(files[i].getName(), results[i].hasTrack());
+			assertTrue(files[i].getName(), results[i].getSequence() > sequence);
+			sequence = results[i].getSequence();
+		}
+		assertEquals(6, replay.getFrames());
+		// nearer targets look wider
+		assertTrue(results[0].getTarget().getWidth() < results[5].getTarget().getWidth());
+	}
+
+	@Test
+	public void replayGivenUnreadableFramesSkipsThem() throws IOException {
+		Imgcodecs.imwrite(new File(folder.getRoot(), "a.png").getPath(), render(80));
+		try(FileOutputStream garbage = new FileOutputStream(new File(folder.getRoot(), "b.png"))){
+			garbage.write(new byte[]{1, 2, 3, 4, 5});
+		}
+		try(DataOutputStream truncated = new DataOutputStream(new FileOutputStream(new File(folder.getRoot(), "c.mat")))){
+			truncated.writeInt(240);
+			truncated.writeInt(320);
+			truncated.writeInt(16);
+			truncated.write(new byte[100]);
+		}
+		Imgcodecs.imwrite(new File(folder.getRoot(), "d.png").getPath(), render(70));
+
+		File[] files = VisionReplay.list(folder.getRoot());
+		VisionResult[] results = replay.replay(files, 2, out);
+
+		assertEquals(4, files.length);
+		assertTrue(results[0].hasTrack());
+		assertNull(results[1]);
+		assertNull(results[2]);
+		assertTrue(results[3].hasTrack());
+		assertEquals(4, replay.getFrames());
+		String printed = output.toString();
+		assertTrue(printed, printed.contains("Could not read " + files[1]));
+		assertTrue(printed, printed.contains("Could not read " + files[2]));
+	}
+
+	@Test
+	public void readGivenAShortDumpReturnsAnEmptyImage() throws IOException {
+		File file = new File(folder.getRoot(), "short.mat");
+		try(DataOutputStream truncated = new DataOutputStream(new FileOutputStream(file))){
+			truncated.writeInt(240);
+		}
+
+		assertTrue(VisionReplay.read(file).empty());
+	}
+
+	private Mat render(double distance) {
+		Mat image = new Mat();
+		renderer.render(new CameraPose(distance, 5, 0), image);
+		return image;
+	}
+
+	private void writeMat(File file, Mat image) throws IOException {
+		byte[] data = new byte[(int) (image.total() * image.elemSize())];
+		image.get(0, 0, data);
+		try(DataOutputStream dump = new DataOutputStream(new FileOutputStream(file))){
+			dump.writeInt(image.rows());
+			dump.writeInt(image.cols());
+			dump.writeInt(image.type());
+			dump.write(data);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package org.usfirst.frc.team2984.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usfirst.frc.team2984.robot.util.VisionScheduler;
+
+public class VisionSchedulerTest {
+	private static final long MILLISECOND = 1000000L;
+	private static final long SECOND = 1000000000L;
+	private VisionScheduler scheduler;
+	
+	@Before
+	public void before() {
+		scheduler = new VisionScheduler(1);
+	}
+	
+	@Test
+	public void pollGivenNoJobsIsNull() {
+		assertNull(scheduler.poll(SECOND));
+	}
+	
+	@Test
+	public void pollGivenTwoDueJobsTakesHigherPriority() {
+		FakeJob low = new FakeJob(1, SECOND);
+		FakeJob high = new FakeJob(2, SECOND);
+		scheduler.add(low);
+		scheduler.add(high);
+		
+		assertSame(high, scheduler.poll(SECOND));
+	}
+	
+	@Test
+	public void pollSkipsJobsThatAreNotDue() {
+		FakeJob low = new FakeJob(1, SECOND);
+		FakeJob high = new FakeJob(2, 2 * SECOND);
+		scheduler.add(low);
+		scheduler.add(high);
+		
+		assertSame(low, scheduler.poll(SECOND));
+	}
+	
+	@Test
+	public void pollNeverGivesOutARunningJob() {
+		FakeJob job = new FakeJob(1, SECOND);
+		scheduler.add(job);
+		
+		assertSame(job, scheduler.poll(SECOND));
+		assertTrue(scheduler.isRunning(job));
+		assertNull(scheduler.poll(SECOND));
+		scheduler.finished(job);
+		assertFalse(scheduler.isRunning(job));
+		assertSame(job, scheduler.poll(SECOND));
+	}
+	
+	@Test
+	public void getWaitIsTimeToNextDueJob() {
+		scheduler.add(new FakeJob(1, SECOND + 30 * MILLISECOND));
+		scheduler.add(new FakeJob(1, Long.MAX_VALUE));
+		
+		assertEquals(30 * MILLISECOND, scheduler.getWait(SECOND));
+	}
+	
+	@Test
+	public void getWaitGivenNothingToDoIsBounded() {
+		scheduler.add(new FakeJob(1, Long.MAX_VALUE));
+		
+		assertEquals(100 * MILLISECOND, scheduler.getWait(SECOND));
+	}
+	
+	@Test
+	public void startRunsDueJobsOnWorkers() throws InterruptedException {
+		final CountDownLatch ran = new CountDownLatch(3);
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+		scheduler = new VisionScheduler(4);
+		scheduler.add(new FakeJob(1, 0){
+			@Override
+			public void run(){
+				int running = concurrent.incrementAndGet();
+				maxConcurrent.set(Math.max(maxConcurrent.get(), running));
+				try{
+					Thread.sleep(1);
+				} catch(InterruptedException e){
+				}
+				concurrent.decrementAndGet();
+				ran.countDown();
+			}
+		});
+		scheduler.start();
+		
+		assertTrue(ran.await(1, TimeUnit.SECONDS));
+		assertEquals(1, maxConcurrent.get());
+	}
+	
+	private static class FakeJob implements VisionScheduler.Job {
+		private int priority;
+		private long next;
+		
+		private FakeJob(int priority, long next){
+			this.priority = priority;
+			this.next = next;
+		}
+
+		@Override
+		public int getPriority(){
+			return this.priority;
+		}
+
+		@Override
+		public long getNextRunTime(long now){
+			return this.next;
+		}
+
+		@Override
+		public void run(){
+		}
+	}
+}